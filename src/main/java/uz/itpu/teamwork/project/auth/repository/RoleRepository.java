@@ -2,7 +2,10 @@ package uz.itpu.teamwork.project.auth.repository;
 
 import uz.itpu.teamwork.project.auth.entity.Role;
 import uz.itpu.teamwork.project.auth.enums.UserRole;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,6 +13,10 @@ import java.util.Optional;
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
 
+    /**
+     * Served from the query cache; invalidated by any write to {@code roles}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Role> findByName(UserRole name);
 
     boolean existsByName(UserRole name);
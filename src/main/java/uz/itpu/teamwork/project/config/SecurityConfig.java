@@ -95,6 +95,7 @@ public class SecurityConfig {
 
                         // Product images
                         .requestMatchers(HttpMethod.POST, "/api/products/*/image").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers(HttpMethod.PUT, "/api/products/*/image").hasAnyRole("ADMIN", "MANAGER")
                         .requestMatchers(HttpMethod.DELETE, "/api/products/*/image").hasAnyRole("ADMIN", "MANAGER")
 
                         // -------------------------
@@ -105,15 +106,23 @@ public class SecurityConfig {
                                 "/api/products/**",
                                 "/api/categories/**",
                                 "/api/ingredients/**",
-                                "/api/modifiers/**"
+                                "/api/modifiers/**",
+                                "/api/menu"
                         ).permitAll()
 
+                        // Uploaded images (served by UploadedFileController)
+                        .requestMatchers(HttpMethod.GET, "/uploads/**").permitAll()
+                        .requestMatchers(HttpMethod.HEAD, "/uploads/**").permitAll()
+
                         // -------------------------
                         // ORDERS (CART + CHECKOUT)
                         // -------------------------
                         // Create order - only CUSTOMER
                         .requestMatchers(HttpMethod.POST, "/api/orders").hasRole("CUSTOMER")
 
+                        // Cancel own order - any authenticated user (ownership checked in the service)
+                        .requestMatchers(HttpMethod.POST, "/api/orders/*/cancel").authenticated()
+
                         // View orders (my orders) - any authenticated user
                         .requestMatchers(HttpMethod.GET, "/api/orders/**").authenticated()
 
@@ -9,11 +9,10 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import uz.itpu.teamwork.project.auth.security.UserPrincipal;
 import uz.itpu.teamwork.project.meal.cart.dto.request.AddToCartRequest;
+import uz.itpu.teamwork.project.meal.cart.dto.request.CartPatchRequest;
 import uz.itpu.teamwork.project.meal.cart.dto.request.UpdateCartItemRequest;
 import uz.itpu.teamwork.project.meal.cart.dto.response.CartResponse;
 import uz.itpu.teamwork.project.meal.cart.service.CartService;
-import uz.itpu.teamwork.project.auth.entity.User;
-import uz.itpu.teamwork.project.auth.repository.UserRepository;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -26,20 +25,19 @@ import java.util.UUID;
 public class CartController {
 
     private final CartService cartService;
-    private final UserRepository userRepository;
 
     @GetMapping
     public ResponseEntity<Map<String, Object>> getCart(
             @AuthenticationPrincipal UserPrincipal userPrincipal,
             HttpSession session) {
 
-        User user = getUserFromPrincipal(userPrincipal);
-        String sessionId = getOrCreateSessionId(session, user);
+        Long userId = getUserId(userPrincipal);
+        String sessionId = getOrCreateSessionId(session, userId);
 
         log.debug("Getting cart for user: {}, session: {}",
-                user != null ? user.getEmail() : "guest", sessionId);
+                userId != null ? userId : "guest", sessionId);
 
-        CartResponse cart = cartService.getCart(user, sessionId);
+        CartResponse cart = cartService.getCart(userId, sessionId);
         return ResponseEntity.ok(success(cart));
     }
 
@@ -49,13 +47,13 @@ public class CartController {
             @Valid @RequestBody AddToCartRequest request,
             HttpSession session) {
 
-        User user = getUserFromPrincipal(userPrincipal);
-        String sessionId = getOrCreateSessionId(session, user);
+        Long userId = getUserId(userPrincipal);
+        String sessionId = getOrCreateSessionId(session, userId);
 
         log.debug("Adding to cart for user: {}, session: {}, productId: {}",
-                user != null ? user.getEmail() : "guest", sessionId, request.getProductId());
+                userId != null ? userId : "guest", sessionId, request.getProductId());
 
-        CartResponse cart = cartService.addToCart(user, sessionId, request);
+        CartResponse cart = cartService.addToCart(userId, sessionId, request);
         return ResponseEntity.ok(success(cart));
     }
 
@@ -66,13 +64,13 @@ public class CartController {
             @Valid @RequestBody UpdateCartItemRequest request,
             HttpSession session) {
 
-        User user = getUserFromPrincipal(userPrincipal);
-        String sessionId = getOrCreateSessionId(session, user);
+        Long userId = getUserId(userPrincipal);
+        String sessionId = getOrCreateSessionId(session, userId);
 
         log.debug("Updating cart item {} for user: {}, session: {}",
-                itemId, user != null ? user.getEmail() : "guest", sessionId);
+                itemId, userId != null ? userId : "guest", sessionId);
 
-        CartResponse cart = cartService.updateCartItem(user, sessionId, itemId, request);
+        CartResponse cart = cartService.updateCartItem(userId, sessionId, itemId, request);
         return ResponseEntity.ok(success(cart));
     }
 
@@ -82,13 +80,33 @@ public class CartController {
             @PathVariable Long itemId,
             HttpSession session) {
 
-        User user = getUserFromPrincipal(userPrincipal);
-        String sessionId = getOrCreateSessionId(session, user);
+        Long userId = getUserId(userPrincipal);
+        String sessionId = getOrCreateSessionId(session, userId);
 
         log.debug("Removing cart item {} for user: {}, session: {}",
-                itemId, user != null ? user.getEmail() : "guest", sessionId);
+                itemId, userId != null ? userId : "guest", sessionId);
 
-        CartResponse cart = cartService.removeCartItem(user, sessionId, itemId);
+        CartResponse cart = cartService.removeCartItem(userId, sessionId, itemId);
+        return ResponseEntity.ok(success(cart));
+    }
+
+    /**
+     * Applies a batch of add / set-quantity / remove operations (e.g. an
+     * offline sync) in one request and returns the final cart.
+     */
+    @PatchMapping
+    public ResponseEntity<Map<String, Object>> patchCart(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @Valid @RequestBody CartPatchRequest request,
+            HttpSession session) {
+
+        Long userId = getUserId(userPrincipal);
+        String sessionId = getOrCreateSessionId(session, userId);
+
+        log.debug("Applying {} cart operations for user: {}, session: {}",
+                request.getOperations().size(), userId != null ? userId : "guest", sessionId);
+
+        CartResponse cart = cartService.applyOperations(userId, sessionId, request);
         return ResponseEntity.ok(success(cart));
     }
 
@@ -97,13 +115,13 @@ public class CartController {
             @AuthenticationPrincipal UserPrincipal userPrincipal,
             HttpSession session) {
 
-        User user = getUserFromPrincipal(userPrincipal);
-        String sessionId = getOrCreateSessionId(session, user);
+        Long userId = getUserId(userPrincipal);
+        String sessionId = getOrCreateSessionId(session, userId);
 
         log.debug("Clearing cart for user: {}, session: {}",
-                user != null ? user.getEmail() : "guest", sessionId);
+                userId != null ? userId : "guest", sessionId);
 
-        cartService.clearCart(user, sessionId);
+        cartService.clearCart(userId, sessionId);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -111,17 +129,17 @@ public class CartController {
         return ResponseEntity.ok(response);
     }
 
-    private User getUserFromPrincipal(UserPrincipal userPrincipal) {
-        if (userPrincipal == null) {
-            return null;
-        }
-
-        return userRepository.findById(userPrincipal.getId()).orElse(null);
+    /**
+     * The cart only needs the id, which the principal already carries;
+     * the User row is not loaded again.
+     */
+    private Long getUserId(UserPrincipal userPrincipal) {
+        return userPrincipal != null ? userPrincipal.getId() : null;
     }
 
-    private String getOrCreateSessionId(HttpSession session, User user) {
-        if (user != null) {
-            log.debug("User {} is authenticated, session ID not needed", user.getEmail());
+    private String getOrCreateSessionId(HttpSession session, Long userId) {
+        if (userId != null) {
+            log.debug("User {} is authenticated, session ID not needed", userId);
             return null;
         }
 
@@ -0,0 +1,39 @@
+package uz.itpu.teamwork.project.meal.cart.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+/**
+ * One step of a {@link CartPatchRequest}. {@code ADD} needs product_id and
+ * quantity, {@code SET_QUANTITY} needs item_id and quantity, {@code REMOVE}
+ * needs item_id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartOperationRequest {
+
+    public enum Operation {
+        ADD,
+        SET_QUANTITY,
+        REMOVE
+    }
+
+    @NotNull(message = "Operation is required")
+    private Operation op;
+
+    @Positive(message = "Product ID must be positive")
+    @JsonProperty("product_id")
+    private Long productId;
+
+    @Positive(message = "Item ID must be positive")
+    @JsonProperty("item_id")
+    private Long itemId;
+
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+}
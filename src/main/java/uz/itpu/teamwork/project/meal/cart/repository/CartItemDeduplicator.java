@@ -0,0 +1,99 @@
+package uz.itpu.teamwork.project.meal.cart.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Merges duplicate {@code (cart_id, product_id)} lines so the schema update
+ * can add {@code uk_cart_items_cart_product}, which the cart upsert's
+ * {@code ON CONFLICT} depends on.
+ * <p>
+ * Hibernate creates unique keys quietly: with duplicates present it would
+ * skip the constraint without failing. This runs before the entity manager
+ * factory, and only while the constraint is missing. Duplicates collapse onto
+ * the oldest row (its id and price snapshot), their quantities summed as
+ * concurrent adds would have been.
+ */
+@Component
+@Slf4j
+public class CartItemDeduplicator {
+
+    private static final String CONSTRAINT_NAME = "uk_cart_items_cart_product";
+
+    private static final String TABLE_EXISTS = """
+            SELECT COUNT(*) FROM information_schema.tables WHERE LOWER(table_name) = 'cart_items'
+            """;
+
+    private static final String CONSTRAINT_EXISTS = """
+            SELECT COUNT(*) FROM information_schema.table_constraints WHERE LOWER(constraint_name) = ?
+            """;
+
+    private static final String MERGE_QUANTITIES = """
+            UPDATE cart_items
+            SET quantity = (SELECT SUM(d.quantity)
+                            FROM cart_items d
+                            WHERE d.cart_id = cart_items.cart_id AND d.product_id = cart_items.product_id)
+            WHERE id IN (SELECT MIN(id) FROM cart_items GROUP BY cart_id, product_id HAVING COUNT(*) > 1)
+            """;
+
+    private static final String DELETE_DUPLICATES = """
+            DELETE FROM cart_items
+            WHERE id NOT IN (SELECT MIN(id) FROM cart_items GROUP BY cart_id, product_id)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+
+    public CartItemDeduplicator(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // the JPA transaction manager needs the entity manager factory, which waits for this bean
+        this.transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @PostConstruct
+    public void init() {
+        deduplicate();
+    }
+
+    /**
+     * @return number of duplicate rows removed
+     */
+    int deduplicate() {
+        if (count(TABLE_EXISTS) == 0 || count(CONSTRAINT_EXISTS, CONSTRAINT_NAME) > 0) {
+            return 0;
+        }
+        Integer removed = transaction.execute(status -> {
+            int merged = jdbcTemplate.update(MERGE_QUANTITIES);
+            int deleted = jdbcTemplate.update(DELETE_DUPLICATES);
+            if (deleted > 0) {
+                log.warn("Merged {} duplicated cart lines, {} rows removed, before adding {}",
+                        merged, deleted, CONSTRAINT_NAME);
+            }
+            return deleted;
+        });
+        return removed != null ? removed : 0;
+    }
+
+    private int count(String sql, Object... args) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Makes the entity manager factory, and with it the schema update, wait for the merge.
+     */
+    @Component
+    static class EntityManagerFactoryDependency extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependency() {
+            super(CartItemDeduplicator.class);
+        }
+    }
+}
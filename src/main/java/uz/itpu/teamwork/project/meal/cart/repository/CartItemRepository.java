@@ -1,19 +1,11 @@
 package uz.itpu.teamwork.project.meal.cart.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uz.itpu.teamwork.project.meal.cart.model.CartItem;
 
-import java.util.Optional;
-
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
-    @Query("SELECT ci FROM CartItem ci WHERE ci.cart.id = :cartId AND ci.product.id = :productId")
-    Optional<CartItem> findByCartIdAndProductId(@Param("cartId") Long cartId,
-                                                @Param("productId") Long productId);
-
     void deleteByCartId(Long cartId);
 }
\ No newline at end of file
@@ -0,0 +1,250 @@
+package uz.itpu.teamwork.project.meal.cart.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Plain JDBC access to {@code carts}/{@code cart_items} for the in-memory
+ * cart store: a cart and its lines load in one statement, and the
+ * write-behind flush is a handful of batches however many carts it covers.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CartLineRepository {
+
+    private static final String LOAD_CART = """
+            SELECT c.id AS cart_id, c.session_id, ci.id AS item_id, ci.product_id, ci.quantity, ci.price_snapshot
+            FROM carts c
+            LEFT JOIN cart_items ci ON ci.cart_id = c.id
+            WHERE %s
+            ORDER BY ci.id
+            """;
+
+    /**
+     * Loads a guest cart through an UPDATE of its updated_at. The update waits
+     * for a sweep that has the row locked for deletion (and then finds
+     * nothing), and a cart loaded here was just used, so later sweeps skip it.
+     */
+    private static final String LOAD_GUEST_CART = """
+            WITH c AS (
+                UPDATE carts SET updated_at = :now WHERE session_id = :key
+                RETURNING id, session_id
+            )
+            SELECT c.id AS cart_id, c.session_id, ci.id AS item_id, ci.product_id, ci.quantity, ci.price_snapshot
+            FROM c
+            LEFT JOIN cart_items ci ON ci.cart_id = c.id
+            ORDER BY ci.id
+            """;
+
+    private static final String INSERT_CART = """
+            INSERT INTO carts (user_id, session_id, created_at, updated_at)
+            VALUES (:userId, :sessionId, :now, :now)
+            """;
+
+    /**
+     * One round trip for any number of adds: inserts each line, or adds to
+     * the existing one under its row lock (unique cart_id, product_id), and
+     * returns the rows as committed. An existing line keeps its price snapshot.
+     * Product ids must be distinct within one call.
+     */
+    private static final String UPSERT_ITEMS = """
+            INSERT INTO cart_items (cart_id, product_id, quantity, price_snapshot, created_at, updated_at)
+            VALUES %s
+            ON CONFLICT (cart_id, product_id)
+            DO UPDATE SET quantity = cart_items.quantity + EXCLUDED.quantity, updated_at = EXCLUDED.updated_at
+            RETURNING id, product_id, quantity, price_snapshot
+            """;
+
+    private static final String UPDATE_LINE = """
+            UPDATE cart_items SET quantity = :quantity, price_snapshot = :priceSnapshot, updated_at = :now
+            WHERE id = :id
+            """;
+
+    /**
+     * Oldest guest carts past the cutoff, locked for deletion. Rows another
+     * node (or a flush) holds are skipped, so concurrent sweeps take
+     * disjoint batches.
+     */
+    private static final String LOCK_EXPIRED_GUEST_CARTS = """
+            SELECT id, session_id
+            FROM carts
+            WHERE user_id IS NULL AND updated_at < :cutoff
+            ORDER BY updated_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record StoredLine(long itemId, long productId, int quantity, BigDecimal priceSnapshot) {
+    }
+
+    public record StoredCart(long cartId, String sessionId, List<StoredLine> lines) {
+    }
+
+    public record NewLine(long productId, int quantity, BigDecimal priceSnapshot) {
+    }
+
+    public record LineUpdate(long itemId, int quantity, BigDecimal priceSnapshot) {
+    }
+
+    public record ExpiredCart(long cartId, String sessionId) {
+    }
+
+    public record DeletedRows(int carts, int lines) {
+    }
+
+    public Optional<StoredCart> findByUserId(long userId) {
+        return load(LOAD_CART.formatted("c.user_id = :key"), Map.of("key", userId));
+    }
+
+    /**
+     * Also stamps the cart's updated_at: a guest cart being loaded is never expired.
+     */
+    public Optional<StoredCart> findBySessionId(String sessionId) {
+        return load(LOAD_GUEST_CART, Map.of("key", sessionId, "now", now()));
+    }
+
+    /**
+     * Creates the cart, or returns the one another node created first.
+     */
+    public StoredCart create(Long userId, String sessionId) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        try {
+            jdbcTemplate.update(INSERT_CART, new MapSqlParameterSource()
+                    .addValue("userId", userId)
+                    .addValue("sessionId", sessionId)
+                    .addValue("now", now()), keys, new String[]{"id"});
+        } catch (DuplicateKeyException e) {
+            return (userId != null ? findByUserId(userId) : findBySessionId(sessionId)).orElseThrow(() -> e);
+        }
+        return new StoredCart(keys.getKey().longValue(), sessionId, List.of());
+    }
+
+    public StoredLine upsertItem(long cartId, long productId, int quantity, BigDecimal priceSnapshot) {
+        return upsertItems(cartId, List.of(new NewLine(productId, quantity, priceSnapshot))).get(0);
+    }
+
+    public List<StoredLine> upsertItems(long cartId, List<NewLine> lines) {
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("cartId", cartId)
+                .addValue("now", now());
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < lines.size(); i++) {
+            values.add("(:cartId, :productId%1$d, :quantity%1$d, :priceSnapshot%1$d, :now, :now)".formatted(i));
+            parameters.addValue("productId" + i, lines.get(i).productId())
+                    .addValue("quantity" + i, lines.get(i).quantity())
+                    .addValue("priceSnapshot" + i, lines.get(i).priceSnapshot());
+        }
+        return jdbcTemplate.query(UPSERT_ITEMS.formatted(values), parameters, (rs, row) -> new StoredLine(
+                rs.getLong("id"), rs.getLong("product_id"), rs.getInt("quantity"), rs.getBigDecimal("price_snapshot")));
+    }
+
+    public void updateLines(List<LineUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        Timestamp now = now();
+        jdbcTemplate.batchUpdate(UPDATE_LINE, updates.stream()
+                .map(update -> new MapSqlParameterSource()
+                        .addValue("id", update.itemId())
+                        .addValue("quantity", update.quantity())
+                        .addValue("priceSnapshot", update.priceSnapshot())
+                        .addValue("now", now))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    public void deleteItems(Collection<Long> itemIds) {
+        if (!itemIds.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM cart_items WHERE id IN (:ids)", Map.of("ids", itemIds));
+        }
+    }
+
+    /**
+     * @return number of carts that still exist
+     */
+    public int touchCarts(Collection<Long> cartIds) {
+        if (cartIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("UPDATE carts SET updated_at = :now WHERE id IN (:ids)",
+                new MapSqlParameterSource().addValue("ids", cartIds).addValue("now", now()));
+    }
+
+    public Set<Long> findExistingCartIds(Collection<Long> cartIds) {
+        if (cartIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM carts WHERE id IN (:ids)", Map.of("ids", cartIds), Long.class));
+    }
+
+    /**
+     * Must run inside a transaction; the returned carts stay locked until it ends.
+     */
+    public List<ExpiredCart> lockExpiredGuestCarts(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.query(LOCK_EXPIRED_GUEST_CARTS, new MapSqlParameterSource()
+                        .addValue("cutoff", Timestamp.valueOf(cutoff))
+                        .addValue("limit", limit),
+                (rs, row) -> new ExpiredCart(rs.getLong("id"), rs.getString("session_id")));
+    }
+
+    public DeletedRows deleteCarts(Collection<Long> cartIds) {
+        if (cartIds.isEmpty()) {
+            return new DeletedRows(0, 0);
+        }
+        Map<String, Collection<Long>> ids = Map.of("ids", cartIds);
+        int lines = jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id IN (:ids)", ids);
+        int carts = jdbcTemplate.update("DELETE FROM carts WHERE id IN (:ids)", ids);
+        return new DeletedRows(carts, lines);
+    }
+
+    /**
+     * Dates carts written before updated_at was maintained, so they start
+     * ageing now instead of never expiring.
+     */
+    public int stampUndatedCarts() {
+        return jdbcTemplate.update("UPDATE carts SET updated_at = :now WHERE updated_at IS NULL",
+                Map.of("now", now()));
+    }
+
+    private Optional<StoredCart> load(String sql, Map<String, ?> parameters) {
+        List<StoredCart> carts = new ArrayList<>(1);
+        jdbcTemplate.query(sql, parameters, rs -> {
+            if (carts.isEmpty()) {
+                carts.add(new StoredCart(rs.getLong("cart_id"), rs.getString("session_id"), new ArrayList<>()));
+            }
+            long itemId = rs.getLong("item_id");
+            if (!rs.wasNull()) {
+                carts.get(0).lines().add(new StoredLine(
+                        itemId, rs.getLong("product_id"), rs.getInt("quantity"), rs.getBigDecimal("price_snapshot")));
+            }
+        });
+        return carts.stream().findFirst();
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+}
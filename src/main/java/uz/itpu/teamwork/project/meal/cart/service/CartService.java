@@ -3,207 +3,163 @@ package uz.itpu.teamwork.project.meal.cart.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import uz.itpu.teamwork.project.auth.entity.User;
 import uz.itpu.teamwork.project.meal.cart.dto.request.AddToCartRequest;
+import uz.itpu.teamwork.project.meal.cart.dto.request.CartOperationRequest;
+import uz.itpu.teamwork.project.meal.cart.dto.request.CartPatchRequest;
 import uz.itpu.teamwork.project.meal.cart.dto.request.UpdateCartItemRequest;
 import uz.itpu.teamwork.project.meal.cart.dto.response.CartItemResponse;
 import uz.itpu.teamwork.project.meal.cart.dto.response.CartResponse;
-import uz.itpu.teamwork.project.meal.cart.model.Cart;
-import uz.itpu.teamwork.project.meal.cart.model.CartItem;
-import uz.itpu.teamwork.project.meal.cart.repository.CartItemRepository;
-import uz.itpu.teamwork.project.meal.cart.repository.CartRepository;
-import uz.itpu.teamwork.project.meal.product.model.Product;
-import uz.itpu.teamwork.project.meal.product.repository.ProductRepository;
+import uz.itpu.teamwork.project.meal.cart.service.CartStore.CartKey;
+import uz.itpu.teamwork.project.meal.cart.service.CartStore.Contents;
+import uz.itpu.teamwork.project.meal.cart.service.CartStore.Line;
+import uz.itpu.teamwork.project.meal.cart.service.CartStore.Mutation;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
 import uz.itpu.teamwork.project.exception.BadRequestException;
 import uz.itpu.teamwork.project.exception.ResourceNotFoundException;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
+/**
+ * Cart operations on top of {@link CartStore}. Product details come from the
+ * catalog snapshot, so serving a loaded cart touches no table.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class CartService {
 
-    private final CartRepository cartRepository;
-    private final CartItemRepository cartItemRepository;
-    private final ProductRepository productRepository;
+    private final CartStore cartStore;
+    private final CatalogSnapshotService catalogSnapshotService;
 
-    public CartResponse getCart(User user, String sessionId) {
-        Cart cart = findOrCreateCart(user, sessionId);
-        return buildCartResponse(cart);
+    public CartResponse getCart(Long userId, String sessionId) {
+        return buildCartResponse(cartStore.getOrCreate(key(userId, sessionId)));
     }
 
-    public CartResponse addToCart(User user, String sessionId, AddToCartRequest request) {
-        Product product = productRepository.findById(request.getProductId())
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
-
-        if (!product.getIsActive()) {
-            throw new BadRequestException("Product is not available");
-        }
-
-        Cart cart = findOrCreateCart(user, sessionId);
-
-        CartItem existingItem = cartItemRepository
-                .findByCartIdAndProductId(cart.getId(), product.getId())
-                .orElse(null);
-
-        if (existingItem != null) {
-            existingItem.setQuantity(existingItem.getQuantity() + request.getQuantity());
-            cartItemRepository.save(existingItem);
-        } else {
-            CartItem newItem = CartItem.builder()
-                    .cart(cart)
-                    .product(product)
-                    .quantity(request.getQuantity())
-                    .priceSnapshot(product.getBasePrice())
-                    .build();
-            cart.addItem(newItem);
-            cartItemRepository.save(newItem);
-        }
-
+    public CartResponse addToCart(Long userId, String sessionId, AddToCartRequest request) {
+        ProductResponse product = findAvailableProduct(catalogSnapshotService.current(), request.getProductId());
+        Contents cart = cartStore.add(key(userId, sessionId), product.getId(), request.getQuantity(), product.getBasePrice());
         return buildCartResponse(cart);
     }
 
-    public CartResponse updateCartItem(User user, String sessionId, Long itemId, UpdateCartItemRequest request) {
-        Cart cart = findCart(user, sessionId);
-        CartItem item = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart item not found"));
-
-        if (!item.getCart().getId().equals(cart.getId())) {
-            throw new BadRequestException("Item does not belong to this cart");
-        }
-
-        item.setQuantity(request.getQuantity());
-        cartItemRepository.save(item);
-
+    public CartResponse updateCartItem(Long userId, String sessionId, Long itemId, UpdateCartItemRequest request) {
+        Contents cart = cartStore.setQuantity(key(userId, sessionId), itemId, request.getQuantity());
         return buildCartResponse(cart);
     }
 
-    public CartResponse removeCartItem(User user, String sessionId, Long itemId) {
-        Cart cart = findCart(user, sessionId);
-        CartItem item = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart item not found"));
+    public CartResponse removeCartItem(Long userId, String sessionId, Long itemId) {
+        Contents cart = cartStore.remove(key(userId, sessionId), itemId);
+        return buildCartResponse(cart);
+    }
 
-        if (!item.getCart().getId().equals(cart.getId())) {
-            throw new BadRequestException("Item does not belong to this cart");
+    /**
+     * Applies a list of add / set-quantity / remove operations in order, all
+     * or nothing, and returns the resulting cart once.
+     */
+    public CartResponse applyOperations(Long userId, String sessionId, CartPatchRequest request) {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        List<Mutation> mutations = new ArrayList<>(request.getOperations().size());
+        for (int step = 0; step < request.getOperations().size(); step++) {
+            mutations.add(toMutation(request.getOperations().get(step), step, catalog));
         }
-
-        cart.removeItem(item);
-        cartItemRepository.delete(item);
-
+        Contents cart = cartStore.apply(key(userId, sessionId), mutations);
         return buildCartResponse(cart);
     }
 
-    public void clearCart(User user, String sessionId) {
-        Cart cart = findCart(user, sessionId);
-        cartItemRepository.deleteByCartId(cart.getId());
-        cart.clearItems();
+    public void clearCart(Long userId, String sessionId) {
+        cartStore.clear(key(userId, sessionId));
     }
 
-    private Cart findOrCreateCart(User user, String sessionId) {
-        if (user != null) {
-            log.debug("=== FINDING CART FOR AUTHENTICATED USER: {} (ID: {}) ===",
-                    user.getEmail(), user.getId());
-
-            Cart userCart = cartRepository.findByUserId(user.getId()).orElse(null);
+    /**
+     * Persists pending changes of the user's cart right away (called at checkout).
+     */
+    public void flushCart(Long userId) {
+        cartStore.flush(CartKey.forUser(userId));
+    }
 
-            if (userCart != null) {
-                log.debug("Found existing user cart: ID={}, items={}",
-                        userCart.getId(), userCart.getItems().size());
-                return userCart;
+    private Mutation toMutation(CartOperationRequest operation, int step, CatalogSnapshot catalog) {
+        return switch (operation.getOp()) {
+            case ADD -> {
+                if (operation.getProductId() == null || operation.getQuantity() == null) {
+                    throw new BadRequestException("Operation " + step + ": ADD needs product_id and quantity");
+                }
+                ProductResponse product = findAvailableProduct(catalog, operation.getProductId());
+                yield new Mutation(Mutation.Kind.ADD, product.getId(), null, operation.getQuantity(), product.getBasePrice());
             }
+            case SET_QUANTITY -> {
+                if (operation.getItemId() == null || operation.getQuantity() == null) {
+                    throw new BadRequestException("Operation " + step + ": SET_QUANTITY needs item_id and quantity");
+                }
+                yield new Mutation(Mutation.Kind.SET_QUANTITY, null, operation.getItemId(), operation.getQuantity(), null);
+            }
+            case REMOVE -> {
+                if (operation.getItemId() == null) {
+                    throw new BadRequestException("Operation " + step + ": REMOVE needs item_id");
+                }
+                yield new Mutation(Mutation.Kind.REMOVE, null, operation.getItemId(), null, null);
+            }
+        };
+    }
 
-            log.debug("No cart found for user, creating new one");
-            Cart newCart = Cart.builder()
-                    .user(user)
-                    .sessionId(null)
-                    .build();
+    private static ProductResponse findAvailableProduct(CatalogSnapshot catalog, Long productId) {
+        ProductResponse product = catalog.findProduct(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
 
-            Cart savedCart = cartRepository.save(newCart);
-            log.debug("Created new user cart: ID={}", savedCart.getId());
-            return savedCart;
+        if (!Boolean.TRUE.equals(product.getIsActive())) {
+            throw new BadRequestException("Product is not available");
         }
+        return product;
+    }
 
-        log.debug("=== FINDING CART FOR GUEST: session={} ===", sessionId);
-
+    private CartKey key(Long userId, String sessionId) {
+        if (userId != null) {
+            return CartKey.forUser(userId);
+        }
         if (sessionId == null) {
             sessionId = UUID.randomUUID().toString();
             log.debug("Generated new session ID: {}", sessionId);
         }
-
-        Cart guestCart = cartRepository.findBySessionId(sessionId).orElse(null);
-
-        if (guestCart != null) {
-            log.debug("Found existing guest cart: ID={}, items={}",
-                    guestCart.getId(), guestCart.getItems().size());
-            return guestCart;
-        }
-
-        log.debug("No cart found for guest, creating new one");
-        Cart newCart = Cart.builder()
-                .user(null)
-                .sessionId(sessionId)
-                .build();
-
-        Cart savedCart = cartRepository.save(newCart);
-        log.debug("Created new guest cart: ID={}, session={}", savedCart.getId(), sessionId);
-        return savedCart;
-    }
-
-    private Cart findCart(User user, String sessionId) {
-        if (user != null) {
-            log.debug("Finding cart for user: {}", user.getEmail());
-            return cartRepository.findByUserId(user.getId())
-                    .orElseThrow(() -> {
-                        log.error("Cart not found for user: {}", user.getEmail());
-                        return new ResourceNotFoundException("Cart not found");
-                    });
-        }
-
-        log.debug("Finding cart for guest session: {}", sessionId);
-        return cartRepository.findBySessionId(sessionId)
-                .orElseThrow(() -> {
-                    log.error("Cart not found for session: {}", sessionId);
-                    return new ResourceNotFoundException("Cart not found");
-                });
+        return CartKey.forSession(sessionId);
     }
 
-    private CartResponse buildCartResponse(Cart cart) {
-        List<CartItemResponse> items = cart.getItems().stream()
-                .map(this::buildCartItemResponse)
-                .collect(Collectors.toList());
+    private CartResponse buildCartResponse(Contents cart) {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        List<CartItemResponse> items = cart.lines().stream()
+                .map(line -> buildCartItemResponse(line, catalog))
+                .toList();
 
-        int totalItems = cart.getItems().stream()
-                .mapToInt(CartItem::getQuantity)
+        int totalItems = cart.lines().stream()
+                .mapToInt(Line::quantity)
                 .sum();
 
-        BigDecimal totalPrice = cart.getItems().stream()
-                .map(CartItem::getSubtotal)
+        BigDecimal totalPrice = cart.lines().stream()
+                .map(Line::subtotal)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         return CartResponse.builder()
-                .id(cart.getId())
-                .sessionId(cart.getSessionId())
+                .id(cart.cartId())
+                .sessionId(cart.sessionId())
                 .items(items)
                 .totalItems(totalItems)
                 .totalPrice(totalPrice)
                 .build();
     }
 
-    private CartItemResponse buildCartItemResponse(CartItem item) {
+    private CartItemResponse buildCartItemResponse(Line line, CatalogSnapshot catalog) {
+        ProductResponse product = catalog.findProduct(line.productId()).orElse(null);
         return CartItemResponse.builder()
-                .id(item.getId())
-                .productId(item.getProduct().getId())
-                .productName(item.getProduct().getName())
-                .productImage(item.getProduct().getImageUrl())
-                .quantity(item.getQuantity())
-                .unitPrice(item.getPriceSnapshot())
-                .subtotal(item.getSubtotal())
+                .id(line.itemId())
+                .productId(line.productId())
+                .productName(product != null ? product.getName() : null)
+                .productImage(product == null ? null
+                        : product.getThumbnailUrl() != null ? product.getThumbnailUrl() : product.getImageUrl())
+                .quantity(line.quantity())
+                .unitPrice(line.priceSnapshot())
+                .subtotal(line.subtotal())
                 .build();
     }
-}
\ No newline at end of file
+}
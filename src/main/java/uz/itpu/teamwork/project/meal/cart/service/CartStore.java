@@ -0,0 +1,687 @@
+package uz.itpu.teamwork.project.meal.cart.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.itpu.teamwork.project.exception.BadRequestException;
+import uz.itpu.teamwork.project.exception.ResourceNotFoundException;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.LineUpdate;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.NewLine;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.StoredCart;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.StoredLine;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Write-behind store of active carts, keyed by user id or guest session id.
+ * With the default {@code app.cart.sticky-routing=false} only guest carts are
+ * written behind; authenticated carts are written through on every request
+ * (see below), and write-behind covers them only once sticky routing is on.
+ * <p>
+ * A cart is loaded once (one statement) and then served and mutated in
+ * memory; mutations of one cart are serialized on that cart, different carts
+ * never contend. The load itself runs outside the map, with concurrent first
+ * requests for the same cart waiting on the one in flight.
+ * <p>
+ * Quantity changes, removals and clears only mark the cart dirty;
+ * {@link #flushDirty()} writes all dirty carts every
+ * {@code app.cart.flush-interval} as a few JDBC batches per
+ * {@code flush-batch-size} carts, then drops carts idle for
+ * {@code idle-timeout}. Writes are ordered per cart: a cart is written by one
+ * flush at a time, so checkout flushing its cart never waits for the rest.
+ * <p>
+ * Crash semantics:
+ * <ul>
+ *     <li>A line added for a new product is upserted immediately (one
+ *     statement), since its row id is the item id clients address it by.
+ *     A crash never loses a line.</li>
+ *     <li>Quantity changes, removals and clears of a written-behind cart
+ *     from the last flush interval are lost on a crash; the cart reverts to
+ *     its last flushed state.</li>
+ *     <li>Each batch commits in its own transaction, so a cart is never half
+ *     written. A failed batch is put back and retried on the next run.</li>
+ *     <li>Checkout flushes the buyer's cart at once ({@link #flush}), and a
+ *     graceful shutdown flushes everything.</li>
+ * </ul>
+ * The store is node-local. Guest carts already are, through the HTTP
+ * session. User carts reach any node with the JWT, so unless the load
+ * balancer routes each user to one node ({@code app.cart.sticky-routing=true},
+ * e.g. hashing on the user id) every request that touches a user cart writes
+ * it through and keeps no copy: another node may serve the next request.
+ * <p>
+ * Guest carts can be deleted by {@link GuestCartSweeper} on any node. Loading
+ * one stamps its {@code updated_at} through the row lock, so a load waits
+ * for a sweep deleting it and then starts a new cart. A cart held here and
+ * deleted anyway is noticed on its next write (no row to touch, or a line
+ * insert failing its foreign key) and dropped, so the next request starts a
+ * new cart as well.
+ */
+@Component
+@Slf4j
+public class CartStore {
+
+    public record CartKey(Long userId, String sessionId) {
+
+        public static CartKey forUser(long userId) {
+            return new CartKey(userId, null);
+        }
+
+        public static CartKey forSession(String sessionId) {
+            return new CartKey(null, sessionId);
+        }
+    }
+
+    public record Line(long itemId, long productId, int quantity, BigDecimal priceSnapshot) {
+
+        public BigDecimal subtotal() {
+            return priceSnapshot.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    /**
+     * One step of a batch: ADD uses product id, quantity and price;
+     * SET_QUANTITY uses item id and quantity; REMOVE uses item id.
+     */
+    public record Mutation(Kind kind, Long productId, Long itemId, Integer quantity, BigDecimal priceSnapshot) {
+
+        public enum Kind {
+            ADD,
+            SET_QUANTITY,
+            REMOVE
+        }
+    }
+
+    /**
+     * Copy of a cart's state, safe to read outside the store.
+     */
+    public record Contents(long cartId, String sessionId, List<Line> lines) {
+    }
+
+    private final CartLineRepository cartLineRepository;
+    private final TransactionTemplate flushTransaction;
+    private final Map<CartKey, ActiveCart> carts = new ConcurrentHashMap<>();
+    private final Map<CartKey, CompletableFuture<ActiveCart>> loading = new ConcurrentHashMap<>();
+
+    @Value("${app.cart.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${app.cart.idle-timeout:30m}")
+    private Duration idleTimeout;
+
+    @Value("${app.cart.sticky-routing:false}")
+    private boolean stickyRouting;
+
+    public CartStore(CartLineRepository cartLineRepository, PlatformTransactionManager transactionManager) {
+        this.cartLineRepository = cartLineRepository;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        // a flush triggered from checkout must not share the order's fate
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public Optional<Contents> find(CartKey key) {
+        try {
+            return Optional.of(withCart(key, false, ActiveCart::contents));
+        } catch (ResourceNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    public Contents getOrCreate(CartKey key) {
+        return withCart(key, true, ActiveCart::contents);
+    }
+
+    /**
+     * Adds to the line for {@code productId}, creating the cart and the line as needed.
+     */
+    public Contents add(CartKey key, long productId, int quantity, BigDecimal priceSnapshot) {
+        return withCart(key, true, cart -> {
+            cart.add(productId, quantity, priceSnapshot, cartLineRepository);
+            return cart.contents();
+        });
+    }
+
+    public Contents setQuantity(CartKey key, long itemId, int quantity) {
+        return withCart(key, false, cart -> {
+            cart.line(itemId).quantity = quantity;
+            cart.changed.add(itemId);
+            cart.dirty = true;
+            return cart.contents();
+        });
+    }
+
+    public Contents remove(CartKey key, long itemId) {
+        return withCart(key, false, cart -> {
+            cart.remove(cart.line(itemId));
+            return cart.contents();
+        });
+    }
+
+    /**
+     * Applies {@code mutations} in order, all or nothing: they are checked
+     * against a working copy first, and the cart changes only if every step
+     * is valid. Lines for products new to the cart are stored with a single
+     * multi-row upsert; everything else is written behind as usual.
+     *
+     * @throws BadRequestException naming the first step that refers to an
+     *                             item not in the cart
+     */
+    public Contents apply(CartKey key, List<Mutation> mutations) {
+        return withCart(key, true, cart -> {
+            cart.apply(mutations, cartLineRepository);
+            return cart.contents();
+        });
+    }
+
+    public void clear(CartKey key) {
+        withCart(key, false, cart -> {
+            new ArrayList<>(cart.lines.values()).forEach(cart::remove);
+            return null;
+        });
+    }
+
+    /**
+     * Writes one cart now, e.g. at checkout. No-op if it is clean or not loaded.
+     */
+    public void flush(CartKey key) {
+        ActiveCart cart = carts.get(key);
+        if (cart == null) {
+            return;
+        }
+        // waits only for a flush already writing this cart
+        cart.flushing.lock();
+        try {
+            Pending pending;
+            synchronized (cart) {
+                if (!cart.dirty) {
+                    return;
+                }
+                pending = cart.drain();
+            }
+            write(List.of(pending));
+        } finally {
+            cart.flushing.unlock();
+        }
+    }
+
+    /**
+     * Writes every dirty cart, then drops clean carts idle past the timeout.
+     *
+     * @return number of carts written
+     */
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval:2s}")
+    public int flushDirty() {
+        int written = 0;
+        List<Pending> batch = new ArrayList<>();
+        for (ActiveCart cart : carts.values()) {
+            // a cart being flushed elsewhere (checkout) is picked up on the next run
+            if (!cart.flushing.tryLock()) {
+                continue;
+            }
+            synchronized (cart) {
+                if (cart.dirty) {
+                    batch.add(cart.drain());
+                } else {
+                    cart.flushing.unlock();
+                    continue;
+                }
+            }
+            if (batch.size() >= flushBatchSize) {
+                written += writeAndUnlock(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        written += writeAndUnlock(batch);
+        evictIdle();
+        return written;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        int written = flushDirty();
+        log.info("Flushed {} carts on shutdown", written);
+    }
+
+    int activeCarts() {
+        return carts.size();
+    }
+
+    /**
+     * Whether this node currently serves the cart from memory.
+     */
+    boolean holds(CartKey key) {
+        return carts.containsKey(key);
+    }
+
+    /**
+     * Forgets carts whose rows were deleted underneath the store, so the next
+     * request starts a fresh cart instead of writing to a missing row.
+     */
+    void discard(Collection<CartKey> keys) {
+        for (CartKey key : keys) {
+            ActiveCart cart = carts.get(key);
+            if (cart != null) {
+                synchronized (cart) {
+                    cart.evicted = true;
+                    carts.remove(key, cart);
+                }
+            }
+        }
+    }
+
+    private <T> T withCart(CartKey key, boolean create, Function<ActiveCart, T> action) {
+        T result = inCart(key, create, action);
+        if (!stickyRouting && key.userId() != null) {
+            // the user's next request may reach another node
+            flush(key);
+            release(key);
+        }
+        return result;
+    }
+
+    private <T> T inCart(CartKey key, boolean create, Function<ActiveCart, T> action) {
+        while (true) {
+            ActiveCart cart = lookup(key, create);
+            if (cart == null) {
+                throw new ResourceNotFoundException("Cart not found");
+            }
+            synchronized (cart) {
+                if (!cart.evicted) {
+                    cart.lastAccess = System.nanoTime();
+                    try {
+                        return action.apply(cart);
+                    } catch (DataIntegrityViolationException e) {
+                        if (!cartLineRepository.findExistingCartIds(List.of(cart.cartId)).isEmpty()) {
+                            throw e;
+                        }
+                        // a line insert referenced a cart deleted underneath
+                        log.info("Cart {} no longer exists, starting a new one", cart.cartId);
+                        cart.evicted = true;
+                        carts.remove(key, cart);
+                    }
+                }
+            }
+            // evicted between lookup and lock, or deleted: load it again
+        }
+    }
+
+    /**
+     * The cart for {@code key}, loaded on first use. The load runs outside
+     * the map's locks; concurrent callers for the same key wait for it
+     * instead of loading again.
+     */
+    private ActiveCart lookup(CartKey key, boolean create) {
+        while (true) {
+            ActiveCart cart = carts.get(key);
+            if (cart != null) {
+                return cart;
+            }
+            CompletableFuture<ActiveCart> mine = new CompletableFuture<>();
+            CompletableFuture<ActiveCart> inFlight = loading.putIfAbsent(key, mine);
+            if (inFlight != null) {
+                ActiveCart loaded = await(inFlight);
+                if (loaded != null || !create) {
+                    return loaded;
+                }
+                // that caller only looked; this one has to create
+                continue;
+            }
+            try {
+                // a load may have finished between the lookup and the claim
+                cart = carts.get(key);
+                if (cart == null) {
+                    cart = load(key, create);
+                    if (cart != null) {
+                        carts.put(key, cart);
+                    }
+                }
+                mine.complete(cart);
+                return cart;
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                loading.remove(key, mine);
+            }
+        }
+    }
+
+    private static ActiveCart await(CompletableFuture<ActiveCart> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops a clean cart from memory; a cart whose write failed stays for the retry.
+     */
+    private void release(CartKey key) {
+        ActiveCart cart = carts.get(key);
+        if (cart == null || !cart.flushing.tryLock()) {
+            return;
+        }
+        try {
+            synchronized (cart) {
+                if (!cart.dirty) {
+                    cart.evicted = true;
+                    carts.remove(key, cart);
+                }
+            }
+        } finally {
+            cart.flushing.unlock();
+        }
+    }
+
+    private ActiveCart load(CartKey key, boolean create) {
+        Optional<StoredCart> stored = key.userId() != null
+                ? cartLineRepository.findByUserId(key.userId())
+                : cartLineRepository.findBySessionId(key.sessionId());
+        if (stored.isPresent()) {
+            return new ActiveCart(key, stored.get());
+        }
+        return create ? new ActiveCart(key, cartLineRepository.create(key.userId(), key.sessionId())) : null;
+    }
+
+    private int writeAndUnlock(List<Pending> batch) {
+        try {
+            return write(batch);
+        } finally {
+            batch.forEach(pending -> pending.cart().flushing.unlock());
+        }
+    }
+
+    /**
+     * Writes drained carts in one transaction; the caller holds each cart's
+     * flush lock, so no newer snapshot of them can be written first.
+     */
+    private int write(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> deletes = new ArrayList<>();
+        List<LineUpdate> updates = new ArrayList<>();
+        List<Long> cartIds = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            deletes.addAll(pending.deletes().values());
+            updates.addAll(pending.updates());
+            cartIds.add(pending.cart().cartId);
+        }
+        try {
+            Integer existing = flushTransaction.execute(status -> {
+                cartLineRepository.deleteItems(deletes);
+                cartLineRepository.updateLines(updates);
+                return cartLineRepository.touchCarts(cartIds);
+            });
+            if (existing != null && existing < cartIds.size()) {
+                forgetDeleted(batch);
+            }
+            return batch.size();
+        } catch (RuntimeException e) {
+            log.warn("Flushing {} carts failed, retrying on the next run: {}", batch.size(), e.getMessage());
+            for (Pending pending : batch) {
+                synchronized (pending.cart()) {
+                    pending.cart().requeue(pending);
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Drops carts of the batch whose row is gone, so their next request starts
+     * a new cart; what was written for them matched no rows.
+     */
+    private void forgetDeleted(List<Pending> batch) {
+        Set<Long> existing = cartLineRepository.findExistingCartIds(
+                batch.stream().map(pending -> pending.cart().cartId).toList());
+        List<CartKey> deleted = new ArrayList<>();
+        for (Pending pending : batch) {
+            if (!existing.contains(pending.cart().cartId)) {
+                deleted.add(pending.cart().key);
+            }
+        }
+        log.info("Dropping {} carts deleted underneath the store", deleted.size());
+        discard(deleted);
+    }
+
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - idleTimeout.toNanos();
+        carts.forEach((key, cart) -> {
+            // a cart still being written must stay, or a reload could read the old rows
+            if (!cart.flushing.tryLock()) {
+                return;
+            }
+            try {
+                synchronized (cart) {
+                    if (!cart.dirty && cart.lastAccess - cutoff < 0) {
+                        cart.evicted = true;
+                        carts.remove(key, cart);
+                    }
+                }
+            } finally {
+                cart.flushing.unlock();
+            }
+        });
+    }
+
+    private record Pending(ActiveCart cart, List<LineUpdate> updates, Map<Long, Long> deletes) {
+    }
+
+    private static final class MutableLine {
+
+        private final long itemId;
+        private final long productId;
+        private int quantity;
+        private BigDecimal priceSnapshot;
+
+        private MutableLine(long itemId, long productId, int quantity, BigDecimal priceSnapshot) {
+            this.itemId = itemId;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.priceSnapshot = priceSnapshot;
+        }
+    }
+
+    /**
+     * Mutable cart state; every access holds the instance's monitor. Writing
+     * it to the database holds {@link #flushing}, from drain to commit.
+     */
+    private static final class ActiveCart {
+
+        // item id of a line added in a batch whose row is not stored yet
+        private static final long UNSTORED = 0;
+
+        private final CartKey key;
+        private final long cartId;
+        private final String sessionId;
+        private final Map<Long, MutableLine> lines = new LinkedHashMap<>();
+        // item ids whose quantity or price must be written
+        private final Set<Long> changed = new HashSet<>();
+        // rows to delete, by product id so a re-added product can take its row back
+        private final Map<Long, Long> removed = new HashMap<>();
+        private final ReentrantLock flushing = new ReentrantLock();
+        private boolean dirty;
+        private boolean evicted;
+        private long lastAccess = System.nanoTime();
+
+        private ActiveCart(CartKey key, StoredCart stored) {
+            this.key = key;
+            this.cartId = stored.cartId();
+            this.sessionId = stored.sessionId();
+            for (StoredLine line : stored.lines()) {
+                lines.put(line.productId(), new MutableLine(
+                        line.itemId(), line.productId(), line.quantity(), line.priceSnapshot()));
+            }
+        }
+
+        private void add(long productId, int quantity, BigDecimal priceSnapshot, CartLineRepository repository) {
+            MutableLine line = lines.get(productId);
+            if (line != null) {
+                line.quantity += quantity;
+                changed.add(line.itemId);
+            } else if (removed.containsKey(productId)) {
+                // still in the table awaiting its delete: revive the row instead of inserting a second one
+                long itemId = removed.remove(productId);
+                lines.put(productId, new MutableLine(itemId, productId, quantity, priceSnapshot));
+                changed.add(itemId);
+            } else {
+                // the row as stored, in case another writer already had this product in the cart
+                StoredLine stored = repository.upsertItem(cartId, productId, quantity, priceSnapshot);
+                lines.put(productId, new MutableLine(
+                        stored.itemId(), productId, stored.quantity(), stored.priceSnapshot()));
+            }
+            dirty = true;
+        }
+
+        private void apply(List<Mutation> mutations, CartLineRepository repository) {
+            Map<Long, MutableLine> working = new LinkedHashMap<>();
+            lines.forEach((productId, line) -> working.put(productId,
+                    new MutableLine(line.itemId, productId, line.quantity, line.priceSnapshot)));
+            Map<Long, Long> workingRemoved = new HashMap<>(removed);
+            Set<Long> touched = new HashSet<>();
+
+            for (int step = 0; step < mutations.size(); step++) {
+                Mutation mutation = mutations.get(step);
+                switch (mutation.kind()) {
+                    case ADD -> {
+                        MutableLine line = working.get(mutation.productId());
+                        if (line != null) {
+                            line.quantity += mutation.quantity();
+                            touched.add(line.itemId);
+                        } else if (workingRemoved.containsKey(mutation.productId())) {
+                            long itemId = workingRemoved.remove(mutation.productId());
+                            working.put(mutation.productId(), new MutableLine(
+                                    itemId, mutation.productId(), mutation.quantity(), mutation.priceSnapshot()));
+                            touched.add(itemId);
+                        } else {
+                            working.put(mutation.productId(), new MutableLine(
+                                    UNSTORED, mutation.productId(), mutation.quantity(), mutation.priceSnapshot()));
+                        }
+                    }
+                    case SET_QUANTITY -> {
+                        MutableLine line = find(working, mutation.itemId(), step);
+                        line.quantity = mutation.quantity();
+                        touched.add(line.itemId);
+                    }
+                    case REMOVE -> {
+                        MutableLine line = find(working, mutation.itemId(), step);
+                        working.remove(line.productId);
+                        touched.remove(line.itemId);
+                        workingRemoved.put(line.productId, line.itemId);
+                    }
+                }
+            }
+
+            // the only synchronous write: rows for products the cart did not have
+            List<NewLine> inserts = new ArrayList<>();
+            for (MutableLine line : working.values()) {
+                if (line.itemId == UNSTORED) {
+                    inserts.add(new NewLine(line.productId, line.quantity, line.priceSnapshot));
+                }
+            }
+            for (StoredLine stored : repository.upsertItems(cartId, inserts)) {
+                working.put(stored.productId(), new MutableLine(
+                        stored.itemId(), stored.productId(), stored.quantity(), stored.priceSnapshot()));
+            }
+
+            lines.clear();
+            lines.putAll(working);
+            removed.clear();
+            removed.putAll(workingRemoved);
+            changed.addAll(touched);
+            changed.removeIf(itemId -> lines.values().stream().noneMatch(line -> line.itemId == itemId));
+            dirty = true;
+        }
+
+        private static MutableLine find(Map<Long, MutableLine> lines, long itemId, int step) {
+            for (MutableLine line : lines.values()) {
+                if (line.itemId == itemId && itemId != UNSTORED) {
+                    return line;
+                }
+            }
+            throw new BadRequestException("Operation " + step + ": item " + itemId + " is not in the cart");
+        }
+
+        private void remove(MutableLine line) {
+            lines.remove(line.productId);
+            changed.remove(line.itemId);
+            removed.put(line.productId, line.itemId);
+            dirty = true;
+        }
+
+        private MutableLine line(long itemId) {
+            for (MutableLine line : lines.values()) {
+                if (line.itemId == itemId) {
+                    return line;
+                }
+            }
+            throw new ResourceNotFoundException("Cart item not found");
+        }
+
+        private Contents contents() {
+            List<Line> copy = new ArrayList<>(lines.size());
+            for (MutableLine line : lines.values()) {
+                copy.add(new Line(line.itemId, line.productId, line.quantity, line.priceSnapshot));
+            }
+            return new Contents(cartId, sessionId, copy);
+        }
+
+        private Pending drain() {
+            List<LineUpdate> updates = new ArrayList<>(changed.size());
+            for (MutableLine line : lines.values()) {
+                if (changed.contains(line.itemId)) {
+                    updates.add(new LineUpdate(line.itemId, line.quantity, line.priceSnapshot));
+                }
+            }
+            Pending pending = new Pending(this, updates, Map.copyOf(removed));
+            changed.clear();
+            removed.clear();
+            dirty = false;
+            return pending;
+        }
+
+        /**
+         * Puts back a batch that failed to commit. Quantities are re-read at
+         * the next drain, so only which rows are pending has to be restored.
+         */
+        private void requeue(Pending pending) {
+            for (LineUpdate update : pending.updates()) {
+                changed.add(update.itemId());
+            }
+            pending.deletes().forEach((productId, itemId) -> {
+                MutableLine live = lines.get(productId);
+                if (live == null || live.itemId != itemId) {
+                    removed.putIfAbsent(productId, itemId);
+                }
+            });
+            changed.removeIf(itemId -> lines.values().stream().noneMatch(line -> line.itemId == itemId));
+            dirty = true;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package uz.itpu.teamwork.project.meal.cart.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.DeletedRows;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.ExpiredCart;
+import uz.itpu.teamwork.project.meal.cart.service.CartStore.CartKey;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deletes guest carts nobody has changed for {@code ttl}.
+ * <p>
+ * Every cart mutation reaches {@code carts.updated_at} through the store's
+ * flush, so the age is time since the last change. Expired carts are taken
+ * oldest first, {@code batch-size} at a time, each batch locked with
+ * {@code FOR UPDATE SKIP LOCKED} and deleted in its own transaction: nodes
+ * sweeping at the same time split the work instead of blocking, and a cart
+ * being flushed is simply left for the next run.
+ * <p>
+ * A candidate this node still holds in {@link CartStore} is in use, so its
+ * {@code updated_at} is refreshed instead. Other nodes are not consulted:
+ * <ul>
+ *     <li>A node loading a cart in the batch stamps it through the locked
+ *     row, so it waits for the batch to commit, finds no cart and starts a
+ *     new one.</li>
+ *     <li>A node still holding a deleted cart in memory finds out on its next
+ *     write and drops it; its changes since the last flush are lost with the
+ *     expired cart.</li>
+ * </ul>
+ * A cart only expires while held elsewhere if it was read without a change
+ * for longer than the TTL, so keep the TTL well above
+ * {@code app.cart.idle-timeout}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cart.guest-expiry.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class GuestCartSweeper {
+
+    private final CartLineRepository cartLineRepository;
+    private final CartStore cartStore;
+    private final TransactionTemplate batchTransaction;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.cart.guest-expiry.ttl:7d}")
+    private Duration ttl;
+
+    @Value("${app.cart.guest-expiry.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.cart.guest-expiry.batch-pause:200ms}")
+    private Duration batchPause;
+
+    private Counter purgedCarts;
+    private Counter purgedLines;
+    private Timer sweepTimer;
+
+    public GuestCartSweeper(CartLineRepository cartLineRepository,
+                            CartStore cartStore,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.cartLineRepository = cartLineRepository;
+        this.cartStore = cartStore;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        purgedCarts = purged("carts");
+        purgedLines = purged("cart_items");
+        sweepTimer = Timer.builder("cart.guest.sweep.duration")
+                .description("Wall time of a guest cart expiry run, pauses included")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.guest-expiry.interval:1h}", initialDelayString = "${app.cart.guest-expiry.initial-delay:5m}")
+    public void sweep() {
+        try {
+            sweepTimer.recordCallable(this::sweepOnce);
+        } catch (Exception e) {
+            log.warn("Guest cart expiry failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes expired guest carts batch by batch until a batch comes back short.
+     *
+     * @return number of carts deleted
+     */
+    long sweepOnce() throws InterruptedException {
+        int dated = cartLineRepository.stampUndatedCarts();
+        if (dated > 0) {
+            log.info("Dated {} carts without updated_at; they expire {} from now", dated, ttl);
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+
+        long deleted = 0;
+        while (true) {
+            Batch batch = batchTransaction.execute(status -> purgeBatch(cutoff));
+            // only after commit: until then the rows still exist
+            cartStore.discard(batch.deletedKeys());
+            purgedCarts.increment(batch.rows().carts());
+            purgedLines.increment(batch.rows().lines());
+            deleted += batch.rows().carts();
+
+            if (batch.candidates() < batchSize) {
+                break;
+            }
+            Thread.sleep(batchPause);
+        }
+
+        log.info("Guest cart expiry finished: {} carts older than {} deleted", deleted, ttl);
+        return deleted;
+    }
+
+    private Batch purgeBatch(LocalDateTime cutoff) {
+        List<ExpiredCart> expired = cartLineRepository.lockExpiredGuestCarts(cutoff, batchSize);
+        List<Long> inUse = new ArrayList<>();
+        List<Long> doomed = new ArrayList<>(expired.size());
+        List<CartKey> doomedKeys = new ArrayList<>(expired.size());
+        for (ExpiredCart cart : expired) {
+            CartKey key = CartKey.forSession(cart.sessionId());
+            if (cartStore.holds(key)) {
+                inUse.add(cart.cartId());
+            } else {
+                doomed.add(cart.cartId());
+                doomedKeys.add(key);
+            }
+        }
+        cartLineRepository.touchCarts(inUse);
+        return new Batch(expired.size(), cartLineRepository.deleteCarts(doomed), doomedKeys);
+    }
+
+    private Counter purged(String table) {
+        return Counter.builder("cart.guest.purged")
+                .tag("table", table)
+                .description("Rows deleted by guest cart expiry")
+                .register(meterRegistry);
+    }
+
+    private record Batch(int candidates, DeletedRows rows, List<CartKey> deletedKeys) {
+    }
+}
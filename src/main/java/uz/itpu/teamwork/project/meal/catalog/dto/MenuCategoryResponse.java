@@ -0,0 +1,17 @@
+package uz.itpu.teamwork.project.meal.catalog.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class MenuCategoryResponse {
+    private Long id;
+    private String name;
+    private String description;
+    private Integer displayOrder;
+    private List<ProductResponse> products;
+}
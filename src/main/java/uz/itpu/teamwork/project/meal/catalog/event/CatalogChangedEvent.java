@@ -0,0 +1,24 @@
+package uz.itpu.teamwork.project.meal.catalog.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published by catalog services after a create/update/delete.
+ * The snapshot is rebuilt once the surrounding transaction commits.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CatalogChangedEvent {
+
+    public enum Type {
+        PRODUCT,
+        CATEGORY,
+        INGREDIENT,
+        MODIFIER
+    }
+
+    private final Type type;
+
+    private final Long id;
+}
@@ -0,0 +1,29 @@
+package uz.itpu.teamwork.project.meal.catalog.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+
+/**
+ * Published right after a new {@link CatalogSnapshot} has been swapped in.
+ * Derived in-memory structures (search index, menu cache, ...) listen to
+ * this instead of reloading from the database.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CatalogRefreshedEvent {
+
+    private final CatalogSnapshot snapshot;
+
+    /**
+     * The write that triggered the rebuild, or {@code null} for a full
+     * (warm-up / lazy) build after which listeners should rebuild from scratch.
+     */
+    private final CatalogChangedEvent cause;
+
+    public boolean isSingleProductChange() {
+        return cause != null
+                && cause.getType() == CatalogChangedEvent.Type.PRODUCT
+                && cause.getId() != null;
+    }
+}
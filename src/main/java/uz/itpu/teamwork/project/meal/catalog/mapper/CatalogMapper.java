@@ -0,0 +1,109 @@
+package uz.itpu.teamwork.project.meal.catalog.mapper;
+
+import uz.itpu.teamwork.project.meal.category.dto.response.CategoryResponse;
+import uz.itpu.teamwork.project.meal.category.model.Category;
+import uz.itpu.teamwork.project.meal.product.dto.response.IngredientResponse;
+import uz.itpu.teamwork.project.meal.product.dto.response.ModifierResponse;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+import uz.itpu.teamwork.project.meal.product.model.Ingredient;
+import uz.itpu.teamwork.project.meal.product.model.Modifier;
+import uz.itpu.teamwork.project.meal.product.model.Product;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Entity to response mapping shared by the catalog services and the
+ * catalog snapshot, so both produce identical payloads.
+ */
+public final class CatalogMapper {
+
+    private CatalogMapper() {
+    }
+
+    public static ProductResponse toProductResponse(Product p) {
+        Map<String, ProductResponse.AvailabilityInfo> availabilityMap = p.getProductAvailabilities().stream()
+                .collect(Collectors.toMap(
+                        pa -> pa.getCountry().getCode(),
+                        pa -> ProductResponse.AvailabilityInfo.builder()
+                                .isAvailable(pa.getIsAvailable())
+                                .stockQuantity(pa.getStockQuantity())
+                                .countryName(pa.getCountry().getName())
+                                .build()
+                ));
+
+        List<ProductResponse.IngredientInfo> ingredients = p.getProductIngredients().stream()
+                .map(pi -> ProductResponse.IngredientInfo.builder()
+                        .id(pi.getIngredient().getId())
+                        .name(pi.getIngredient().getName())
+                        .quantity(pi.getQuantity())
+                        .isAllergen(pi.getIngredient().getIsAllergen())
+                        .build())
+                .collect(Collectors.toList());
+
+        List<ProductResponse.ModifierInfo> modifiers = p.getModifiers().stream()
+                .map(m -> ProductResponse.ModifierInfo.builder()
+                        .id(m.getId())
+                        .name(m.getName())
+                        .description(m.getDescription())
+                        .priceAdjustment(m.getPriceAdjustment())
+                        .isActive(m.getIsActive())
+                        .build())
+                .collect(Collectors.toList());
+
+        return ProductResponse.builder()
+                .id(p.getId())
+                .name(p.getName())
+                .description(p.getDescription())
+                .categoryId(p.getCategory() != null ? p.getCategory().getId() : null)
+                .categoryName(p.getCategory() != null ? p.getCategory().getName() : null)
+                .basePrice(p.getBasePrice())
+                .imageUrl(p.getImageUrl())
+                .thumbnailUrl(p.getThumbnailUrl())
+                .mediumUrl(p.getMediumUrl())
+                .isActive(p.getIsActive())
+                .rating(p.getRating() != null ? p.getRating() : BigDecimal.ZERO)
+                .ratingCount(p.getRatingCount() != null ? p.getRatingCount() : 0)
+
+                .ingredients(ingredients)
+                .availability(availabilityMap)
+                .modifiers(modifiers)
+                .createdAt(p.getCreatedAt())
+                .updatedAt(p.getUpdatedAt())
+                .build();
+    }
+
+    public static CategoryResponse toCategoryResponse(Category c) {
+        return CategoryResponse.builder()
+                .id(c.getId())
+                .name(c.getName())
+                .description(c.getDescription())
+                .displayOrder(c.getDisplayOrder())
+                .isActive(c.getIsActive())
+                .createdAt(c.getCreatedAt())
+                .updatedAt(c.getUpdatedAt())
+                .build();
+    }
+
+    public static IngredientResponse toIngredientResponse(Ingredient i) {
+        return IngredientResponse.builder()
+                .id(i.getId())
+                .name(i.getName())
+                .isAllergen(i.getIsAllergen())
+                .createdAt(i.getCreatedAt())
+                .build();
+    }
+
+    public static ModifierResponse toModifierResponse(Modifier m) {
+        return ModifierResponse.builder()
+                .id(m.getId())
+                .name(m.getName())
+                .description(m.getDescription())
+                .priceAdjustment(m.getPriceAdjustment())
+                .isActive(m.getIsActive())
+                .createdAt(m.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,144 @@
+package uz.itpu.teamwork.project.meal.catalog.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import uz.itpu.teamwork.project.meal.category.dto.response.CategoryResponse;
+import uz.itpu.teamwork.project.meal.product.dto.response.IngredientResponse;
+import uz.itpu.teamwork.project.meal.product.dto.response.ModifierResponse;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, versioned view of the whole catalog (products, categories,
+ * ingredients and modifiers) used to answer catalog GETs from memory.
+ * A new instance is built and swapped in after every catalog write.
+ */
+@Getter
+public final class CatalogSnapshot {
+
+    private static final CatalogSnapshot EMPTY =
+            new CatalogSnapshot(0L, List.of(), List.of(), List.of(), List.of());
+
+    private final long version;
+    private final Instant builtAt;
+
+    private final List<ProductResponse> products;
+    private final List<ProductResponse> activeProducts;
+    private final List<CategoryResponse> categories;
+    private final List<CategoryResponse> activeCategories;
+    private final List<IngredientResponse> ingredients;
+    private final List<IngredientResponse> allergens;
+    private final List<ModifierResponse> modifiers;
+    private final List<ModifierResponse> activeModifiers;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<Long, ProductResponse> productsById;
+    @Getter(AccessLevel.NONE)
+    private final Map<Long, List<ProductResponse>> productsByCategory;
+    @Getter(AccessLevel.NONE)
+    private final Map<Long, CategoryResponse> categoriesById;
+    @Getter(AccessLevel.NONE)
+    private final Map<Long, IngredientResponse> ingredientsById;
+    @Getter(AccessLevel.NONE)
+    private final Map<Long, ModifierResponse> modifiersById;
+
+    public CatalogSnapshot(
+            long version,
+            List<ProductResponse> products,
+            List<CategoryResponse> categories,
+            List<IngredientResponse> ingredients,
+            List<ModifierResponse> modifiers
+    ) {
+        this.version = version;
+        this.builtAt = Instant.now();
+
+        this.products = products.stream()
+                .sorted(Comparator.comparing(ProductResponse::getId))
+                .toList();
+        this.activeProducts = this.products.stream()
+                .filter(p -> Boolean.TRUE.equals(p.getIsActive()))
+                .toList();
+        this.productsById = indexById(this.products, ProductResponse::getId);
+        this.productsByCategory = Collections.unmodifiableMap(this.products.stream()
+                .filter(p -> p.getCategoryId() != null)
+                .collect(Collectors.groupingBy(
+                        ProductResponse::getCategoryId,
+                        LinkedHashMap::new,
+                        Collectors.toUnmodifiableList()
+                )));
+
+        // product counts come from the grouping above, so listing categories never counts in SQL
+        this.categories = categories.stream()
+                .map(this::withProductCounts)
+                .sorted(Comparator.comparing(CategoryResponse::getDisplayOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(CategoryResponse::getName, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        this.activeCategories = this.categories.stream()
+                .filter(c -> Boolean.TRUE.equals(c.getIsActive()))
+                .toList();
+        this.categoriesById = indexById(this.categories, CategoryResponse::getId);
+
+        this.ingredients = List.copyOf(ingredients);
+        this.allergens = this.ingredients.stream()
+                .filter(i -> Boolean.TRUE.equals(i.getIsAllergen()))
+                .toList();
+        this.ingredientsById = indexById(this.ingredients, IngredientResponse::getId);
+
+        this.modifiers = List.copyOf(modifiers);
+        this.activeModifiers = this.modifiers.stream()
+                .filter(m -> Boolean.TRUE.equals(m.getIsActive()))
+                .toList();
+        this.modifiersById = indexById(this.modifiers, ModifierResponse::getId);
+    }
+
+    public static CatalogSnapshot empty() {
+        return EMPTY;
+    }
+
+    public Optional<ProductResponse> findProduct(Long id) {
+        return Optional.ofNullable(productsById.get(id));
+    }
+
+    public List<ProductResponse> getProductsByCategory(Long categoryId) {
+        return productsByCategory.getOrDefault(categoryId, List.of());
+    }
+
+    public Optional<CategoryResponse> findCategory(Long id) {
+        return Optional.ofNullable(categoriesById.get(id));
+    }
+
+    public Optional<IngredientResponse> findIngredient(Long id) {
+        return Optional.ofNullable(ingredientsById.get(id));
+    }
+
+    public Optional<ModifierResponse> findModifier(Long id) {
+        return Optional.ofNullable(modifiersById.get(id));
+    }
+
+    private CategoryResponse withProductCounts(CategoryResponse category) {
+        List<ProductResponse> inCategory = getProductsByCategory(category.getId());
+        return category.toBuilder()
+                .productCount(inCategory.size())
+                .activeProductCount((int) inCategory.stream()
+                        .filter(p -> Boolean.TRUE.equals(p.getIsActive()))
+                        .count())
+                .build();
+    }
+
+    private static <T> Map<Long, T> indexById(List<T> items, Function<T, Long> idExtractor) {
+        Map<Long, T> index = new LinkedHashMap<>();
+        for (T item : items) {
+            index.put(idExtractor.apply(item), item);
+        }
+        return Collections.unmodifiableMap(index);
+    }
+}
@@ -0,0 +1,24 @@
+package uz.itpu.teamwork.project.meal.catalog.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Single-row counter shared by all instances: every catalog write bumps it
+ * in its own transaction, so an instance that sees a different value knows
+ * its snapshot is stale.
+ */
+@Entity
+@Table(name = "catalog_version")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long version;
+}
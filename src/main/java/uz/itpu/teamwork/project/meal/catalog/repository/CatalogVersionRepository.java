@@ -0,0 +1,28 @@
+package uz.itpu.teamwork.project.meal.catalog.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogVersion;
+
+import java.util.Optional;
+
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, Integer> {
+
+    /**
+     * Bumps the shared version, creating the row on first use. Joins the
+     * caller's transaction, so the bump is visible exactly when the write is.
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO catalog_version (id, version)
+            VALUES (1, 1)
+            ON CONFLICT (id) DO UPDATE SET version = catalog_version.version + 1
+            """)
+    void increment();
+
+    @Query("SELECT v.version FROM CatalogVersion v WHERE v.id = 1")
+    Optional<Long> findCurrent();
+}
@@ -0,0 +1,175 @@
+package uz.itpu.teamwork.project.meal.catalog.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable typeahead index over product and category names.
+ * <p>
+ * Every word start of every name becomes a key ("chicken burger" yields
+ * "chicken burger" and "burger"); keys live in one sorted array, so a
+ * prefix lookup is a binary search followed by a short forward scan.
+ * Country availability is kept as a small bit set per entry.
+ */
+public final class PrefixSuggestionIndex {
+
+    public enum Kind {
+        PRODUCT,
+        CATEGORY
+    }
+
+    public record Entry(Kind kind, long id, String name, String imageUrl) {
+    }
+
+    private static final PrefixSuggestionIndex EMPTY = new Builder().build();
+
+    private final String[] keys;
+    private final int[] keyEntries;
+    private final Entry[] entries;
+    private final BitSet[] entryCountries;
+    private final Map<String, Integer> countryBits;
+
+    private PrefixSuggestionIndex(String[] keys, int[] keyEntries, Entry[] entries,
+                                  BitSet[] entryCountries, Map<String, Integer> countryBits) {
+        this.keys = keys;
+        this.keyEntries = keyEntries;
+        this.entries = entries;
+        this.entryCountries = entryCountries;
+        this.countryBits = countryBits;
+    }
+
+    public static PrefixSuggestionIndex empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Up to {@code limit} distinct entries having a word that starts with {@code prefix},
+     * in alphabetical key order. A non-null {@code countryCode} keeps only entries
+     * available in that country.
+     */
+    public List<Entry> suggest(String prefix, String countryCode, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int countryBit = -1;
+        if (countryCode != null) {
+            Integer bit = countryBits.get(countryCode.toUpperCase(Locale.ROOT));
+            if (bit == null) {
+                return List.of();
+            }
+            countryBit = bit;
+        }
+
+        List<Entry> result = new ArrayList<>(limit);
+        BitSet seen = new BitSet(entries.length);
+        for (int i = lowerBound(normalized); i < keys.length && keys[i].startsWith(normalized); i++) {
+            int entry = keyEntries[i];
+            if (seen.get(entry) || (countryBit >= 0 && !entryCountries[entry].get(countryBit))) {
+                continue;
+            }
+            seen.set(entry);
+            result.add(entries[entry]);
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isWordStart(String text, int index) {
+        return Character.isLetterOrDigit(text.charAt(index))
+                && (index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1)));
+    }
+
+    public static final class Builder {
+
+        private final List<Entry> entries = new ArrayList<>();
+        private final List<BitSet> countries = new ArrayList<>();
+        private final Map<String, Integer> countryBits = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(Kind kind, long id, String name, String imageUrl, Collection<String> countryCodes) {
+            if (name == null || name.isBlank()) {
+                return this;
+            }
+            BitSet bits = new BitSet();
+            for (String code : countryCodes) {
+                bits.set(countryBits.computeIfAbsent(code.toUpperCase(Locale.ROOT), c -> countryBits.size()));
+            }
+            entries.add(new Entry(kind, id, name, imageUrl));
+            countries.add(bits);
+            return this;
+        }
+
+        public PrefixSuggestionIndex build() {
+            List<String> keyList = new ArrayList<>();
+            List<Integer> entryList = new ArrayList<>();
+            for (int e = 0; e < entries.size(); e++) {
+                String name = normalize(entries.get(e).name());
+                for (int start = 0; start < name.length(); start++) {
+                    if (isWordStart(name, start)) {
+                        keyList.add(name.substring(start));
+                        entryList.add(e);
+                    }
+                }
+            }
+
+            Integer[] order = new Integer[keyList.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> keyList.get(a).compareTo(keyList.get(b)));
+
+            String[] keys = new String[order.length];
+            int[] keyEntries = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                keys[i] = keyList.get(order[i]);
+                keyEntries[i] = entryList.get(order[i]);
+            }
+
+            return new PrefixSuggestionIndex(
+                    keys,
+                    keyEntries,
+                    entries.toArray(new Entry[0]),
+                    countries.toArray(new BitSet[0]),
+                    Map.copyOf(countryBits)
+            );
+        }
+    }
+}
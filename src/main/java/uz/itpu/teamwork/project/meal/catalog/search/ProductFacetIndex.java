@@ -0,0 +1,188 @@
+package uz.itpu.teamwork.project.meal.catalog.search;
+
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable facet index over the catalog. Products are numbered by position
+ * and every facet value (category, available country, price band, allergen-free,
+ * active) owns a {@link BitSet} of the products having it, so a selection and
+ * the counts of every facet value are plain bitset intersections.
+ * <p>
+ * Counts are disjunctive: a facet's counts apply every selected filter except
+ * the facet's own, so each option shows what picking it would return.
+ */
+public final class ProductFacetIndex {
+
+    public static final List<String> PRICE_BANDS = List.of("0-5", "5-10", "10-20", "20-50", "50+");
+
+    private static final BigDecimal[] PRICE_BOUNDS = {
+            new BigDecimal("5"), new BigDecimal("10"), new BigDecimal("20"), new BigDecimal("50")
+    };
+
+    private final List<ProductResponse> products;
+    private final BitSet all;
+    private final BitSet active;
+    private final BitSet allergenFree;
+    private final Map<Long, BitSet> byCategory;
+    private final Map<String, BitSet> byCountry;
+    private final Map<String, String> countryNames;
+    private final BitSet[] byPriceBand;
+
+    public record Query(Long categoryId, String countryCode, String priceBand, boolean allergenFree, boolean activeOnly) {
+    }
+
+    public record Result(
+            BitSet matches,
+            Map<Long, Integer> categoryCounts,
+            Map<String, Integer> countryCounts,
+            Map<String, Integer> priceBandCounts,
+            int allergenFreeCount
+    ) {
+    }
+
+    private ProductFacetIndex(List<ProductResponse> products) {
+        this.products = List.copyOf(products);
+        int size = this.products.size();
+
+        this.all = new BitSet(size);
+        this.all.set(0, size);
+        this.active = new BitSet(size);
+        this.allergenFree = new BitSet(size);
+        this.byPriceBand = new BitSet[PRICE_BANDS.size()];
+        for (int band = 0; band < byPriceBand.length; band++) {
+            byPriceBand[band] = new BitSet(size);
+        }
+        Map<Long, BitSet> categories = new LinkedHashMap<>();
+        Map<String, BitSet> countries = new TreeMap<>();
+        Map<String, String> names = new TreeMap<>();
+
+        for (int i = 0; i < size; i++) {
+            ProductResponse product = this.products.get(i);
+            if (Boolean.TRUE.equals(product.getIsActive())) {
+                active.set(i);
+            }
+            if (product.getIngredients() == null || product.getIngredients().stream()
+                    .noneMatch(ingredient -> Boolean.TRUE.equals(ingredient.getIsAllergen()))) {
+                allergenFree.set(i);
+            }
+            if (product.getCategoryId() != null) {
+                categories.computeIfAbsent(product.getCategoryId(), id -> new BitSet(size)).set(i);
+            }
+            if (product.getAvailability() != null) {
+                int ordinal = i;
+                product.getAvailability().forEach((code, info) -> {
+                    if (Boolean.TRUE.equals(info.getIsAvailable())) {
+                        countries.computeIfAbsent(code, c -> new BitSet(size)).set(ordinal);
+                        names.putIfAbsent(code, info.getCountryName());
+                    }
+                });
+            }
+            if (product.getBasePrice() != null) {
+                byPriceBand[priceBand(product.getBasePrice())].set(i);
+            }
+        }
+
+        this.byCategory = Collections.unmodifiableMap(categories);
+        this.byCountry = Collections.unmodifiableMap(countries);
+        this.countryNames = Collections.unmodifiableMap(names);
+    }
+
+    public static ProductFacetIndex build(List<ProductResponse> products) {
+        return new ProductFacetIndex(products);
+    }
+
+    /**
+     * Index of {@code label} in {@link #PRICE_BANDS}, or -1.
+     */
+    public static int priceBandIndex(String label) {
+        return PRICE_BANDS.indexOf(label);
+    }
+
+    public Result query(Query query) {
+        BitSet category = query.categoryId() == null ? null : byCategory.getOrDefault(query.categoryId(), new BitSet());
+        BitSet country = query.countryCode() == null ? null : byCountry.getOrDefault(query.countryCode(), new BitSet());
+        BitSet price = null;
+        if (query.priceBand() != null) {
+            int band = priceBandIndex(query.priceBand());
+            price = band < 0 ? new BitSet() : byPriceBand[band];
+        }
+        BitSet allergens = query.allergenFree() ? allergenFree : null;
+        BitSet activity = query.activeOnly() ? active : null;
+
+        BitSet matches = intersect(category, country, price, allergens, activity);
+
+        return new Result(
+                matches,
+                counts(byCategory, intersect(country, price, allergens, activity)),
+                counts(byCountry, intersect(category, price, allergens, activity)),
+                priceBandCounts(intersect(category, country, allergens, activity)),
+                cardinality(intersect(category, country, price, activity), allergenFree)
+        );
+    }
+
+    /**
+     * Matching products in catalog order, {@code offset}/{@code limit} applied.
+     */
+    public List<ProductResponse> products(BitSet matches, int offset, int limit) {
+        List<ProductResponse> page = new ArrayList<>(Math.min(limit, matches.cardinality()));
+        int skipped = 0;
+        for (int i = matches.nextSetBit(0); i >= 0 && page.size() < limit; i = matches.nextSetBit(i + 1)) {
+            if (skipped++ >= offset) {
+                page.add(products.get(i));
+            }
+        }
+        return page;
+    }
+
+    public String countryName(String code) {
+        return countryNames.get(code);
+    }
+
+    private BitSet intersect(BitSet... filters) {
+        BitSet result = (BitSet) all.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static <K> Map<K, Integer> counts(Map<K, BitSet> values, BitSet base) {
+        Map<K, Integer> counts = new LinkedHashMap<>();
+        values.forEach((value, bits) -> counts.put(value, cardinality(base, bits)));
+        return counts;
+    }
+
+    private Map<String, Integer> priceBandCounts(BitSet base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int band = 0; band < byPriceBand.length; band++) {
+            counts.put(PRICE_BANDS.get(band), cardinality(base, byPriceBand[band]));
+        }
+        return counts;
+    }
+
+    private static int cardinality(BitSet base, BitSet value) {
+        BitSet both = (BitSet) base.clone();
+        both.and(value);
+        return both.cardinality();
+    }
+
+    private static int priceBand(BigDecimal price) {
+        for (int band = 0; band < PRICE_BOUNDS.length; band++) {
+            if (price.compareTo(PRICE_BOUNDS[band]) < 0) {
+                return band;
+            }
+        }
+        return PRICE_BOUNDS.length;
+    }
+}
@@ -0,0 +1,204 @@
+package uz.itpu.teamwork.project.meal.catalog.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product name and description.
+ * <p>
+ * Every token is indexed by its 1-, 2- and 3-grams, so any substring of a
+ * word can be looked up: short terms hit their gram directly, longer terms
+ * intersect their trigram postings and the candidates are then verified
+ * against the stored tokens. A single writer updates the index
+ * incrementally; readers are lock-free.
+ */
+public class ProductSearchIndex {
+
+    static final int MAX_GRAM = 3;
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int NAME_EXACT_SCORE = 8;
+    private static final int NAME_PREFIX_SCORE = 5;
+    private static final int NAME_PARTIAL_SCORE = 3;
+    private static final int DESCRIPTION_SCORE = 1;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+
+    public record Hit(long productId, int score, String name) {
+    }
+
+    private record Document(long id, String name, List<String> nameTokens, List<String> descriptionTokens) {
+
+        Set<String> allTokens() {
+            Set<String> tokens = new HashSet<>(nameTokens);
+            tokens.addAll(descriptionTokens);
+            return tokens;
+        }
+    }
+
+    public synchronized void put(long productId, String name, String description) {
+        remove(productId);
+
+        Document document = new Document(productId, name != null ? name : "", tokenize(name), tokenize(description));
+        documents.put(productId, document);
+        for (String token : document.allTokens()) {
+            for (String gram : grams(token)) {
+                postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(productId);
+            }
+        }
+    }
+
+    public synchronized void remove(long productId) {
+        Document document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (String token : document.allTokens()) {
+            for (String gram : grams(token)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.remove(productId);
+                    if (ids.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        documents.clear();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * All products matching every query term, best first. A term matches when it
+     * is a substring of a name or description word; name hits outrank description
+     * hits, and whole-word or prefix matches outrank infix matches.
+     */
+    public List<Hit> search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> candidates = null;
+        for (String term : new LinkedHashSet<>(terms)) {
+            Set<Long> termCandidates = candidatesFor(term);
+            candidates = candidates == null ? termCandidates : intersect(candidates, termCandidates);
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        for (Long id : candidates) {
+            Document document = documents.get(id);
+            if (document == null) {
+                continue;
+            }
+            int score = 0;
+            for (String term : terms) {
+                int termScore = score(document, term);
+                if (termScore == 0) {
+                    score = 0;
+                    break;
+                }
+                score += termScore;
+            }
+            if (score > 0) {
+                hits.add(new Hit(id, score, document.name()));
+            }
+        }
+
+        hits.sort(Comparator.comparingInt(Hit::score).reversed()
+                .thenComparing(Hit::name, String.CASE_INSENSITIVE_ORDER)
+                .thenComparingLong(Hit::productId));
+        return hits;
+    }
+
+    private Set<Long> candidatesFor(String term) {
+        if (term.length() <= MAX_GRAM) {
+            return postings.getOrDefault(term, Collections.emptySet());
+        }
+        Set<Long> result = null;
+        for (int i = 0; i + MAX_GRAM <= term.length(); i++) {
+            Set<Long> ids = postings.getOrDefault(term.substring(i, i + MAX_GRAM), Collections.emptySet());
+            result = result == null ? new HashSet<>(ids) : intersect(result, ids);
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static Set<Long> intersect(Set<Long> left, Set<Long> right) {
+        Set<Long> smaller = left.size() <= right.size() ? left : right;
+        Set<Long> larger = smaller == left ? right : left;
+        Set<Long> result = new HashSet<>();
+        for (Long id : smaller) {
+            if (larger.contains(id)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private static int score(Document document, String term) {
+        int best = 0;
+        for (String token : document.nameTokens()) {
+            if (token.equals(term)) {
+                return NAME_EXACT_SCORE;
+            }
+            if (token.startsWith(term)) {
+                best = Math.max(best, NAME_PREFIX_SCORE);
+            } else if (token.contains(term)) {
+                best = Math.max(best, NAME_PARTIAL_SCORE);
+            }
+        }
+        if (best > 0) {
+            return best;
+        }
+        for (String token : document.descriptionTokens()) {
+            if (token.contains(term)) {
+                return DESCRIPTION_SCORE;
+            }
+        }
+        return 0;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    static Set<String> grams(String token) {
+        Set<String> grams = new HashSet<>();
+        for (int n = 1; n <= MAX_GRAM; n++) {
+            for (int i = 0; i + n <= token.length(); i++) {
+                grams.add(token.substring(i, i + n));
+            }
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,190 @@
+package uz.itpu.teamwork.project.meal.catalog.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogChangedEvent;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogRefreshedEvent;
+import uz.itpu.teamwork.project.meal.catalog.mapper.CatalogMapper;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.catalog.repository.CatalogVersionRepository;
+import uz.itpu.teamwork.project.meal.category.repository.CategoryRepository;
+import uz.itpu.teamwork.project.meal.product.repository.IngredientRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ModifierRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ProductRepository;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link CatalogSnapshot} and swaps it atomically
+ * after every committed catalog write. Readers never block and never
+ * touch the database once the first snapshot is built.
+ * <p>
+ * Writes made on other instances are picked up through the shared
+ * {@code catalog_version} row: every write bumps it before committing, and
+ * each instance compares it with the value its snapshot was built from every
+ * {@code app.catalog.version-check-interval}. The same check evicts the
+ * node-local second-level cache, whose reference entities may have changed
+ * with it.
+ */
+@Slf4j
+@Service
+public class CatalogSnapshotService {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final IngredientRepository ingredientRepository;
+    private final ModifierRepository modifierRepository;
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private final Object rebuildLock = new Object();
+    private long lastVersion;
+    // shared catalog_version the current snapshot was built from
+    private volatile long sharedVersion = -1;
+
+    public CatalogSnapshotService(
+            ProductRepository productRepository,
+            CategoryRepository categoryRepository,
+            IngredientRepository ingredientRepository,
+            ModifierRepository modifierRepository,
+            CatalogVersionRepository catalogVersionRepository,
+            ApplicationEventPublisher eventPublisher,
+            EntityManagerFactory entityManagerFactory,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.modifierRepository = modifierRepository;
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.eventPublisher = eventPublisher;
+        this.entityManagerFactory = entityManagerFactory;
+
+        // REQUIRES_NEW: rebuilds run from afterCommit callbacks, where the
+        // writer's (already completed) transaction is still bound.
+        // REPEATABLE_READ: the version and the data come from one database
+        // snapshot, so equal shared versions mean equal catalogs on every instance.
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Current snapshot; builds the first one lazily if the warm-up has not run yet.
+     */
+    public CatalogSnapshot current() {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (rebuildLock) {
+            // concurrent first requests: only the first one builds
+            snapshot = current.get();
+            return snapshot != null ? snapshot : rebuild(null);
+        }
+    }
+
+    /**
+     * Shared {@code catalog_version} the current snapshot was built from, or -1
+     * before the first build. Unlike the snapshot's own version it is the same
+     * on every instance serving the same catalog.
+     */
+    public long sharedVersion() {
+        return sharedVersion;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild(null);
+    }
+
+    /**
+     * Runs inside the writer's transaction, so other instances see the new
+     * version no earlier than the write itself.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void publishVersion(CatalogChangedEvent event) {
+        catalogVersionRepository.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        log.debug("Catalog changed: {} id={}, rebuilding snapshot", event.getType(), event.getId());
+        rebuild(event);
+    }
+
+    /**
+     * Rebuilds when another instance has changed the catalog since the
+     * current snapshot was built. One primary-key read per run.
+     * <p>
+     * Every region is evicted first, so neither the rebuild nor later reads
+     * on this instance see categories, ingredients or modifiers as they were
+     * before the other instance's write.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.version-check-interval:5s}")
+    public void checkSharedVersion() {
+        if (current.get() == null) {
+            return;
+        }
+        try {
+            long shared = catalogVersionRepository.findCurrent().orElse(0L);
+            if (shared != sharedVersion) {
+                log.debug("Shared catalog version {} differs from {}, rebuilding snapshot", shared, sharedVersion);
+                entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+                rebuild(null);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Catalog version check failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reloads the catalog and publishes it as the new snapshot.
+     * Rebuilds are serialized so an older read can never overwrite a newer one,
+     * and {@link CatalogRefreshedEvent} listeners observe snapshots in order.
+     */
+    public CatalogSnapshot rebuild(CatalogChangedEvent cause) {
+        synchronized (rebuildLock) {
+            long started = System.nanoTime();
+            long[] builtFrom = new long[1];
+            CatalogSnapshot snapshot = readOnlyTransaction.execute(status -> {
+                builtFrom[0] = catalogVersionRepository.findCurrent().orElse(0L);
+                return new CatalogSnapshot(
+                        lastVersion + 1,
+                        productRepository.findAllForCatalog().stream().map(CatalogMapper::toProductResponse).toList(),
+                        categoryRepository.findAll().stream().map(CatalogMapper::toCategoryResponse).toList(),
+                        ingredientRepository.findAll().stream().map(CatalogMapper::toIngredientResponse).toList(),
+                        modifierRepository.findAll().stream().map(CatalogMapper::toModifierResponse).toList()
+                );
+            });
+
+            lastVersion = snapshot.getVersion();
+            current.set(snapshot);
+            eventPublisher.publishEvent(new CatalogRefreshedEvent(snapshot, cause));
+            // last: whoever sees the new shared version also sees everything built from it
+            sharedVersion = builtFrom[0];
+
+            log.info("Catalog snapshot v{} built: {} products, {} categories in {} ms",
+                    snapshot.getVersion(),
+                    snapshot.getProducts().size(),
+                    snapshot.getCategories().size(),
+                    (System.nanoTime() - started) / 1_000_000);
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package uz.itpu.teamwork.project.meal.catalog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import uz.itpu.teamwork.project.meal.catalog.dto.MenuCategoryResponse;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogRefreshedEvent;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.category.dto.response.CategoryResponse;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full menu (active categories in display order with their active products)
+ * prebuilt as JSON bytes, plain and gzip-compressed, for every country of the
+ * current catalog version. Serving a menu is a map lookup; nothing is
+ * serialized or compressed on the request path.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MenuService {
+
+    /**
+     * Menu key used when no country is requested: all active products.
+     */
+    private static final String ALL_COUNTRIES = "";
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ObjectMapper objectMapper;
+
+    private volatile Menus menus;
+
+    /**
+     * Encoded forms of one menu document.
+     */
+    public record MenuBody(long version, byte[] json, byte[] gzip) {
+    }
+
+    private record Menus(long version, Map<String, MenuBody> byCountry, MenuBody empty) {
+    }
+
+    /**
+     * Menu for {@code countryCode} (case-insensitive), or for all countries when null.
+     * A country with no available products gets an empty menu.
+     */
+    public MenuBody getMenu(String countryCode) {
+        Menus current = menus;
+        if (current == null) {
+            current = ensureBuilt(catalogSnapshotService.current());
+        }
+        String key = countryCode == null ? ALL_COUNTRIES : countryCode.toUpperCase(Locale.ROOT);
+        return current.byCountry().getOrDefault(key, current.empty());
+    }
+
+    @EventListener
+    public synchronized void onCatalogRefreshed(CatalogRefreshedEvent event) {
+        rebuild(event.getSnapshot());
+    }
+
+    private synchronized Menus ensureBuilt(CatalogSnapshot snapshot) {
+        return menus != null ? menus : rebuild(snapshot);
+    }
+
+    private synchronized Menus rebuild(CatalogSnapshot snapshot) {
+        Set<String> countries = new TreeSet<>();
+        for (ProductResponse product : snapshot.getActiveProducts()) {
+            if (product.getAvailability() != null) {
+                countries.addAll(product.getAvailability().keySet());
+            }
+        }
+
+        Map<String, MenuBody> byCountry = new HashMap<>();
+        byCountry.put(ALL_COUNTRIES, encode(snapshot.getVersion(), assemble(snapshot, null)));
+        for (String country : countries) {
+            byCountry.put(country.toUpperCase(Locale.ROOT), encode(snapshot.getVersion(), assemble(snapshot, country)));
+        }
+
+        Menus fresh = new Menus(snapshot.getVersion(), Map.copyOf(byCountry), encode(snapshot.getVersion(), List.of()));
+        menus = fresh;
+        log.debug("Menus rebuilt from catalog v{} for {} countries", snapshot.getVersion(), countries.size());
+        return fresh;
+    }
+
+    private List<MenuCategoryResponse> assemble(CatalogSnapshot snapshot, String countryCode) {
+        return snapshot.getActiveCategories().stream()
+                .map(category -> toMenuCategory(category, snapshot.getProductsByCategory(category.getId()).stream()
+                        .filter(product -> Boolean.TRUE.equals(product.getIsActive()))
+                        .filter(product -> countryCode == null || isAvailableIn(product, countryCode))
+                        .toList()))
+                .filter(category -> !category.getProducts().isEmpty())
+                .toList();
+    }
+
+    private static boolean isAvailableIn(ProductResponse product, String countryCode) {
+        ProductResponse.AvailabilityInfo availability =
+                product.getAvailability() != null ? product.getAvailability().get(countryCode) : null;
+        return availability != null && Boolean.TRUE.equals(availability.getIsAvailable());
+    }
+
+    private static MenuCategoryResponse toMenuCategory(CategoryResponse category, List<ProductResponse> products) {
+        return MenuCategoryResponse.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .description(category.getDescription())
+                .displayOrder(category.getDisplayOrder())
+                .products(products)
+                .build();
+    }
+
+    private MenuBody encode(long version, List<MenuCategoryResponse> menu) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(menu);
+            return new MenuBody(version, json, gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize menu", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4 + 64);
+        // built once per catalog version, so spend the CPU on the best ratio
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
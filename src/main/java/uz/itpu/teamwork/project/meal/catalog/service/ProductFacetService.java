@@ -0,0 +1,106 @@
+package uz.itpu.teamwork.project.meal.catalog.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import uz.itpu.teamwork.project.exception.BadRequestException;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogRefreshedEvent;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.catalog.search.ProductFacetIndex;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductFacetResponse;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Faceted browsing over the catalog snapshot, answered from a
+ * {@link ProductFacetIndex} rebuilt on every catalog refresh.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductFacetService {
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    private volatile Facets facets;
+
+    private record Facets(CatalogSnapshot snapshot, ProductFacetIndex index) {
+    }
+
+    public ProductFacetResponse browse(
+            Long categoryId,
+            String countryCode,
+            String priceBand,
+            boolean allergenFree,
+            int page,
+            int size
+    ) {
+        if (priceBand != null && ProductFacetIndex.priceBandIndex(priceBand) < 0) {
+            throw new BadRequestException("Unknown price band: " + priceBand
+                    + ". Expected one of " + ProductFacetIndex.PRICE_BANDS);
+        }
+
+        Facets current = facets;
+        if (current == null) {
+            current = ensureBuilt(catalogSnapshotService.current());
+        }
+        ProductFacetIndex index = current.index();
+
+        ProductFacetIndex.Result result = index.query(new ProductFacetIndex.Query(
+                categoryId,
+                countryCode != null ? countryCode.toUpperCase(Locale.ROOT) : null,
+                priceBand,
+                allergenFree,
+                true
+        ));
+
+        CatalogSnapshot snapshot = current.snapshot();
+        return ProductFacetResponse.builder()
+                .total(result.matches().cardinality())
+                .products(index.products(result.matches(), page * size, size))
+                .categories(snapshot.getActiveCategories().stream()
+                        .map(category -> ProductFacetResponse.FacetValue.builder()
+                                .value(String.valueOf(category.getId()))
+                                .label(category.getName())
+                                .count(result.categoryCounts().getOrDefault(category.getId(), 0))
+                                .build())
+                        .toList())
+                .countries(values(result.countryCounts(), index::countryName))
+                .priceBands(values(result.priceBandCounts(), band -> band))
+                .allergenFreeCount(result.allergenFreeCount())
+                .build();
+    }
+
+    @EventListener
+    public synchronized void onCatalogRefreshed(CatalogRefreshedEvent event) {
+        rebuild(event.getSnapshot());
+    }
+
+    private synchronized Facets ensureBuilt(CatalogSnapshot snapshot) {
+        return facets != null ? facets : rebuild(snapshot);
+    }
+
+    private synchronized Facets rebuild(CatalogSnapshot snapshot) {
+        Facets fresh = new Facets(snapshot, ProductFacetIndex.build(snapshot.getProducts()));
+        facets = fresh;
+        log.debug("Facet index rebuilt from catalog v{}", snapshot.getVersion());
+        return fresh;
+    }
+
+    private static <K> List<ProductFacetResponse.FacetValue> values(
+            Map<K, Integer> counts,
+            Function<K, String> label
+    ) {
+        return counts.entrySet().stream()
+                .map(entry -> ProductFacetResponse.FacetValue.builder()
+                        .value(String.valueOf(entry.getKey()))
+                        .label(label.apply(entry.getKey()))
+                        .count(entry.getValue())
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,88 @@
+package uz.itpu.teamwork.project.meal.catalog.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogChangedEvent;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogRefreshedEvent;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.catalog.search.ProductSearchIndex;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Full-text product search answered from {@link ProductSearchIndex}.
+ * The index follows the catalog snapshot: a single product write only
+ * re-indexes that product, any other refresh rebuilds it from the snapshot.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService {
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    private volatile ProductSearchIndex index;
+
+    public Page<ProductResponse> search(String query, Pageable pageable) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        ProductSearchIndex current = index;
+        if (current == null) {
+            current = ensureBuilt(snapshot);
+        }
+
+        List<ProductSearchIndex.Hit> hits = current.search(query);
+
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + pageable.getPageSize(), hits.size());
+        List<ProductResponse> content = hits.subList(from, to).stream()
+                .map(hit -> snapshot.findProduct(hit.productId()))
+                .flatMap(Optional::stream)
+                .toList();
+
+        return new PageImpl<>(content, pageable, hits.size());
+    }
+
+    @EventListener
+    public synchronized void onCatalogRefreshed(CatalogRefreshedEvent event) {
+        CatalogSnapshot snapshot = event.getSnapshot();
+        CatalogChangedEvent cause = event.getCause();
+
+        if (index == null || cause == null) {
+            rebuild(snapshot);
+        } else if (event.isSingleProductChange()) {
+            Long id = cause.getId();
+            snapshot.findProduct(id).ifPresentOrElse(
+                    product -> index.put(id, product.getName(), product.getDescription()),
+                    () -> index.remove(id)
+            );
+        } else if (cause.getType() == CatalogChangedEvent.Type.PRODUCT) {
+            rebuild(snapshot);
+        }
+        // category / ingredient / modifier writes never change indexed text
+    }
+
+    private synchronized ProductSearchIndex ensureBuilt(CatalogSnapshot snapshot) {
+        return index != null ? index : rebuild(snapshot);
+    }
+
+    /**
+     * Builds a fresh index off to the side and swaps it in, so searches never
+     * observe a half-built index.
+     */
+    private synchronized ProductSearchIndex rebuild(CatalogSnapshot snapshot) {
+        ProductSearchIndex fresh = new ProductSearchIndex();
+        for (ProductResponse product : snapshot.getProducts()) {
+            fresh.put(product.getId(), product.getName(), product.getDescription());
+        }
+        index = fresh;
+        log.debug("Search index rebuilt from catalog v{}: {} products", snapshot.getVersion(), fresh.size());
+        return fresh;
+    }
+}
@@ -0,0 +1,97 @@
+package uz.itpu.teamwork.project.meal.catalog.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogRefreshedEvent;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.catalog.search.PrefixSuggestionIndex;
+import uz.itpu.teamwork.project.meal.category.dto.response.CategoryResponse;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductSuggestionResponse;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typeahead suggestions over active product and category names, answered
+ * from a {@link PrefixSuggestionIndex} that is rebuilt on every catalog refresh.
+ * A category is offered in a country only while it holds an active product
+ * available there.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSuggestService {
+
+    public static final int MAX_LIMIT = 20;
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    private volatile PrefixSuggestionIndex index;
+
+    public List<ProductSuggestionResponse> suggest(String prefix, String countryCode, int limit) {
+        PrefixSuggestionIndex current = index;
+        if (current == null) {
+            current = ensureBuilt(catalogSnapshotService.current());
+        }
+
+        return current.suggest(prefix, countryCode, Math.min(Math.max(limit, 1), MAX_LIMIT)).stream()
+                .map(entry -> ProductSuggestionResponse.builder()
+                        .type(entry.kind().name())
+                        .id(entry.id())
+                        .name(entry.name())
+                        .imageUrl(entry.imageUrl())
+                        .build())
+                .toList();
+    }
+
+    @EventListener
+    public synchronized void onCatalogRefreshed(CatalogRefreshedEvent event) {
+        rebuild(event.getSnapshot());
+    }
+
+    private synchronized PrefixSuggestionIndex ensureBuilt(CatalogSnapshot snapshot) {
+        return index != null ? index : rebuild(snapshot);
+    }
+
+    private synchronized PrefixSuggestionIndex rebuild(CatalogSnapshot snapshot) {
+        PrefixSuggestionIndex.Builder builder = PrefixSuggestionIndex.builder();
+        Map<Long, Set<String>> categoryCountries = new HashMap<>();
+
+        for (ProductResponse product : snapshot.getActiveProducts()) {
+            Set<String> countries = availableCountries(product);
+            builder.add(PrefixSuggestionIndex.Kind.PRODUCT, product.getId(), product.getName(),
+                    product.getThumbnailUrl() != null ? product.getThumbnailUrl() : product.getImageUrl(),
+                    countries);
+            if (product.getCategoryId() != null) {
+                categoryCountries.computeIfAbsent(product.getCategoryId(), id -> new HashSet<>()).addAll(countries);
+            }
+        }
+        for (CategoryResponse category : snapshot.getActiveCategories()) {
+            builder.add(PrefixSuggestionIndex.Kind.CATEGORY, category.getId(), category.getName(),
+                    null, categoryCountries.getOrDefault(category.getId(), Set.of()));
+        }
+
+        PrefixSuggestionIndex fresh = builder.build();
+        index = fresh;
+        log.debug("Suggestion index rebuilt from catalog v{}: {} entries", snapshot.getVersion(), fresh.size());
+        return fresh;
+    }
+
+    private static Set<String> availableCountries(ProductResponse product) {
+        Set<String> countries = new HashSet<>();
+        if (product.getAvailability() != null) {
+            product.getAvailability().forEach((code, info) -> {
+                if (Boolean.TRUE.equals(info.getIsAvailable())) {
+                    countries.add(code);
+                }
+            });
+        }
+        return countries;
+    }
+}
@@ -0,0 +1,64 @@
+package uz.itpu.teamwork.project.meal.catalog.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
+
+import java.util.List;
+
+/**
+ * Conditional GET for catalog reads. Every catalog response is a function of
+ * the current snapshot, so the shared {@code catalog_version} it was built
+ * from is a strong validator for all of them, and one that every instance
+ * agrees on: a matching {@code If-None-Match} (or {@code If-Modified-Since}) is answered
+ * with 304 before the handler runs, i.e. without touching the database or
+ * serializing anything.
+ * <p>
+ * {@code GET /api/products} with {@code page}/{@code size} or
+ * {@code cursor}/{@code limit} pages through the database instead, so it gets
+ * no validator. Responses may be gzip-encoded (the menu is), so every answer,
+ * 304 included, carries {@code Vary: Accept-Encoding}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogConditionalGetInterceptor implements HandlerInterceptor {
+
+    private static final String PRODUCT_LIST_PATH = "/api/products";
+    private static final List<String> DATABASE_PAGING_PARAMS = List.of("page", "size", "cursor", "limit");
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return true;
+        }
+        if (pagesThroughDatabase(request)) {
+            return true;
+        }
+
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        // read after the snapshot: the body, rendered later still, is at least this new
+        String etag = "\"" + catalogSnapshotService.sharedVersion() + "\"";
+
+        // no-cache: clients may store the response but must revalidate it each time
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        return !new ServletWebRequest(request, response)
+                .checkNotModified(etag, snapshot.getBuiltAt().toEpochMilli());
+    }
+
+    private static boolean pagesThroughDatabase(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return PRODUCT_LIST_PATH.equals(path)
+                && DATABASE_PAGING_PARAMS.stream().anyMatch(param -> request.getParameter(param) != null);
+    }
+}
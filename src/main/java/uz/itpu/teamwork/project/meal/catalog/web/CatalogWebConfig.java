@@ -0,0 +1,38 @@
+package uz.itpu.teamwork.project.meal.catalog.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class CatalogWebConfig implements WebMvcConfigurer {
+
+    private final CatalogConditionalGetInterceptor catalogConditionalGetInterceptor;
+
+    /**
+     * Only endpoints answered from the catalog snapshot: their body cannot
+     * change without the snapshot version changing. Product listings that
+     * query the database ({@code /filter}, {@code /search}, and the paged or
+     * cursor variants of {@code /api/products}, see the interceptor) carry
+     * live stock and are left alone.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(catalogConditionalGetInterceptor)
+                .addPathPatterns(
+                        "/api/products",
+                        "/api/products/*",
+                        "/api/products/category/*",
+                        "/api/categories/**",
+                        "/api/ingredients/**",
+                        "/api/modifiers/**",
+                        "/api/menu"
+                )
+                .excludePathPatterns(
+                        "/api/products/filter",
+                        "/api/products/search"
+                );
+    }
+}
@@ -2,19 +2,21 @@ package uz.itpu.teamwork.project.meal.category.dto.response;
 
 import lombok.Builder;
 import lombok.Getter;
-import lombok.Setter;
 
 import java.time.LocalDateTime;
 
 @Getter
-@Setter
-@Builder
+@Builder(toBuilder = true)
 public class CategoryResponse {
     private Long id;
     private String name;
     private String description;
     private Integer displayOrder;
     private Boolean isActive;
+    /** All products in the category; filled in from the catalog snapshot. */
+    private Integer productCount;
+    /** Active products only, as shown in the storefront sidebar. */
+    private Integer activeProductCount;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -1,8 +1,12 @@
 package uz.itpu.teamwork.project.meal.category.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogChangedEvent;
+import uz.itpu.teamwork.project.meal.catalog.mapper.CatalogMapper;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
 import uz.itpu.teamwork.project.meal.category.dto.request.CategoryRequest;
 import uz.itpu.teamwork.project.meal.category.dto.response.CategoryResponse;
 import uz.itpu.teamwork.project.meal.category.model.Category;
@@ -11,34 +15,25 @@ import uz.itpu.teamwork.project.exception.ResourceAlreadyExistsException;
 import uz.itpu.teamwork.project.exception.ResourceNotFoundException;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Transactional(readOnly = true)
     public List<CategoryResponse> getAll() {
-        return categoryRepository.findAllOrdered()
-                .stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return catalogSnapshotService.current().getCategories();
     }
 
-    @Transactional(readOnly = true)
     public List<CategoryResponse> getActiveCategories() {
-        return categoryRepository.findByIsActiveTrue()
-                .stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return catalogSnapshotService.current().getActiveCategories();
     }
 
-    @Transactional(readOnly = true)
     public CategoryResponse getById(Long id) {
-        return categoryRepository.findById(id)
-                .map(this::toResponse)
+        return catalogSnapshotService.current().findCategory(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
     }
 
@@ -55,7 +50,9 @@ public class CategoryService {
                 .isActive(request.getIsActive() != null ? request.getIsActive() : true)
                 .build();
 
-        return toResponse(categoryRepository.save(category));
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.CATEGORY, saved.getId()));
+        return CatalogMapper.toCategoryResponse(saved);
     }
 
     @Transactional
@@ -81,7 +78,9 @@ public class CategoryService {
             existing.setIsActive(request.getIsActive());
         }
 
-        return toResponse(categoryRepository.save(existing));
+        Category saved = categoryRepository.save(existing);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.CATEGORY, id));
+        return CatalogMapper.toCategoryResponse(saved);
     }
 
     @Transactional
@@ -90,17 +89,6 @@ public class CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
 
         categoryRepository.deleteById(category.getId());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.CATEGORY, id));
     }
-
-    private CategoryResponse toResponse(Category c) {
-        return CategoryResponse.builder()
-                .id(c.getId())
-                .name(c.getName())
-                .description(c.getDescription())
-                .displayOrder(c.getDisplayOrder())
-                .isActive(c.getIsActive())
-                .createdAt(c.getCreatedAt())
-                .updatedAt(c.getUpdatedAt())
-                .build();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package uz.itpu.teamwork.project.meal.common.csv;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma separated, double-quoted fields
+ * may contain commas, line breaks and doubled quotes. Records are read one
+ * at a time, so arbitrarily large inputs never sit in memory at once.
+ */
+public class CsvReader {
+
+    private final Reader in;
+    private int lineNumber = 1;
+    private int recordLine;
+
+    public CsvReader(Reader reader) {
+        this.in = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Fields of the next record, or {@code null} at end of input. Blank lines are skipped.
+     */
+    public List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        recordLine = lineNumber;
+
+        int c;
+        while ((c = in.read()) != -1) {
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    in.mark(1);
+                    if (in.read() == '"') {
+                        field.append('"');
+                    } else {
+                        in.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (ch == '\n') {
+                        lineNumber++;
+                    }
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+                any = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                any = true;
+            } else if (ch == '\n') {
+                lineNumber++;
+                if (any || !field.isEmpty()) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                recordLine = lineNumber;
+            } else if (ch != '\r') {
+                field.append(ch);
+                any = true;
+            }
+        }
+
+        if (any || !field.isEmpty()) {
+            fields.add(field.toString());
+            return fields;
+        }
+        return null;
+    }
+
+    /**
+     * 1-based line on which the record last returned by {@link #next()} started.
+     */
+    public int getRecordLine() {
+        return recordLine;
+    }
+}
@@ -0,0 +1,40 @@
+package uz.itpu.teamwork.project.meal.common.pagination;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import uz.itpu.teamwork.project.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position: the sort key and id of the last row a client has seen.
+ * Clients only ever see the opaque URL-safe token produced by {@link #encode()}.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class Cursor {
+
+    private static final char SEPARATOR = ':';
+
+    private final String key;
+    private final long id;
+
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new Cursor(raw.substring(separator + 1), Long.parseLong(raw.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+}
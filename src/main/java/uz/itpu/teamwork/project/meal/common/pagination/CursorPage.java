@@ -0,0 +1,43 @@
+package uz.itpu.teamwork.project.meal.common.pagination;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One window of a keyset-paginated listing. {@code totalCount} is only
+ * filled when the caller asked for it, since counting costs a full scan.
+ */
+@Getter
+@Builder
+public class CursorPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+    private final boolean hasNext;
+    private final Long totalCount;
+
+    /**
+     * Builds a page from {@code rows} fetched with {@code limit + 1}: the extra
+     * row only signals that another page exists and is not returned.
+     */
+    public static <E, T> CursorPage<T> of(
+            List<E> rows,
+            int limit,
+            Function<E, Cursor> cursorOf,
+            Function<E, T> mapper,
+            Long totalCount
+    ) {
+        boolean hasNext = rows.size() > limit;
+        List<E> window = hasNext ? rows.subList(0, limit) : rows;
+
+        return CursorPage.<T>builder()
+                .items(window.stream().map(mapper).toList())
+                .nextCursor(hasNext ? cursorOf.apply(window.get(window.size() - 1)).encode() : null)
+                .hasNext(hasNext)
+                .totalCount(totalCount)
+                .build();
+    }
+}
@@ -0,0 +1,172 @@
+package uz.itpu.teamwork.project.meal.common.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import uz.itpu.teamwork.project.meal.common.storage.model.StoredBlob;
+import uz.itpu.teamwork.project.meal.common.storage.repository.StoredBlobRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Deduplicating variant of {@link LocalFileStorage}, enabled with
+ * {@code app.storage.mode=content-addressed}.
+ * <p>
+ * Content is hashed while it is copied to a temp file (one pass over the
+ * upload), then stored once as {@code blobs/ab/cd/<sha256><ext>} regardless
+ * of the requested folder. Every store adds a reference in
+ * {@link StoredBlob}; {@link #deleteFile} drops one and removes the file only
+ * with the last. Files stored before this mode was enabled are deleted as in
+ * the plain mode.
+ * <p>
+ * Releasing the last reference leaves the row at zero and removes row and file
+ * only after the caller's transaction commits, so a rollback never loses a
+ * file that is still referenced. The removal re-locks the row and skips the
+ * file if an upload took the blob again in between.
+ */
+@Service
+@Profile({"dev", "local", "default"})
+@ConditionalOnProperty(name = "app.storage.mode", havingValue = "content-addressed")
+@Slf4j
+public class ContentAddressedFileStorage extends LocalFileStorage {
+
+    static final String BLOB_FOLDER = "blobs";
+    static final String TEMP_FOLDER = BLOB_FOLDER + "/tmp";
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final TransactionTemplate removalTransaction;
+
+    public ContentAddressedFileStorage(StoredBlobRepository storedBlobRepository,
+                                       PlatformTransactionManager transactionManager) {
+        this.storedBlobRepository = storedBlobRepository;
+
+        // removals run after commit, like catalog rebuilds: see CatalogSnapshotService for REQUIRES_NEW
+        this.removalTransaction = new TransactionTemplate(transactionManager);
+        this.removalTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Same validation as the plain mode; this and {@link #uploadImage} are
+     * overridden only so the inner {@link #storeFile} call runs in a transaction.
+     */
+    @Override
+    @Transactional(rollbackFor = IOException.class)
+    public String uploadFile(MultipartFile file, String folder) throws IOException {
+        return super.uploadFile(file, folder);
+    }
+
+    @Override
+    @Transactional(rollbackFor = IOException.class)
+    public String uploadImage(InputStream content, String folder) throws IOException {
+        return super.uploadImage(content, folder);
+    }
+
+    @Override
+    @Transactional(rollbackFor = IOException.class)
+    public String storeFile(InputStream content, String folder, String extension) throws IOException {
+        Path tempDir = Files.createDirectories(baseDirectory().resolve(TEMP_FOLDER));
+        Path temp = Files.createTempFile(tempDir, "upload-", TEMP_SUFFIX);
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                size = writeTo(in, temp);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String name = hash + extension.toLowerCase(Locale.ROOT);
+            String relativePath = BLOB_FOLDER + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + name;
+
+            // waits for a concurrent release of the same blob, so the file check below is stable
+            storedBlobRepository.acquire(name, size);
+
+            Path target = baseDirectory().resolve(relativePath);
+            if (Files.notExists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                log.info("Stored new blob {}", name);
+            } else {
+                log.debug("Upload deduplicated onto existing blob {}", name);
+            }
+            return getPublicUrl(relativePath);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = IOException.class)
+    public void deleteFile(String fileUrl) throws IOException {
+        if (fileUrl == null || fileUrl.isEmpty()) {
+            return;
+        }
+        Path file = resolve(fileUrl);
+        if (!file.startsWith(blobRoot())) {
+            super.deleteFile(fileUrl);
+            return;
+        }
+
+        Optional<StoredBlob> locked = storedBlobRepository.findForUpdate(file.getFileName().toString());
+        if (locked.isEmpty()) {
+            log.warn("Delete of untracked blob {} ignored", file.getFileName());
+            return;
+        }
+        StoredBlob blob = locked.get();
+        if (blob.getRefCount() > 1) {
+            blob.setRefCount(blob.getRefCount() - 1);
+            return;
+        }
+        if (blob.getRefCount() == 0) {
+            log.debug("Blob {} already released, removal pending", blob.getName());
+            return;
+        }
+        blob.setRefCount(0);
+        afterCommit(() -> removeReleased(blob.getName(), file));
+    }
+
+    /**
+     * Removes a released blob unless an upload has referenced it again since;
+     * the row lock keeps new uploads of it waiting until the file is gone.
+     */
+    private void removeReleased(String name, Path file) {
+        removalTransaction.executeWithoutResult(status -> storedBlobRepository.findForUpdate(name)
+                .filter(blob -> blob.getRefCount() == 0)
+                .ifPresent(blob -> {
+                    storedBlobRepository.delete(blob);
+                    try {
+                        Files.deleteIfExists(file);
+                        log.info("Deleted blob {} after its last reference was released", name);
+                    } catch (IOException e) {
+                        // untracked from here on, so the orphan sweep picks it up
+                        log.warn("Failed to delete released blob {}: {}", name, e.getMessage());
+                    }
+                }));
+    }
+
+    private Path blobRoot() {
+        return baseDirectory().resolve(BLOB_FOLDER);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
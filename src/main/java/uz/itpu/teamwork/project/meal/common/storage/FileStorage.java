@@ -2,11 +2,30 @@ package uz.itpu.teamwork.project.meal.common.storage;
 
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.io.InputStream;
 
 
 public interface FileStorage {
     String uploadFile(MultipartFile file, String folder) throws IOException;
 
+    /**
+     * Stores an image read straight from a request body. The format, pixel
+     * dimensions and size limit are checked while the bytes are copied, and
+     * the extension comes from the detected format.
+     */
+    String uploadImage(InputStream content, String folder) throws IOException;
+
+    /**
+     * Stores already-validated content (e.g. a generated image variant) under a
+     * fresh name ending in {@code extension}, and returns its public URL.
+     */
+    String storeFile(InputStream content, String folder, String extension) throws IOException;
+
+    /**
+     * Opens a stored file by the public URL returned from an upload.
+     */
+    InputStream openFile(String fileUrl) throws IOException;
+
     void deleteFile(String fileUrl) throws IOException;
 
     String getPublicUrl(String filePath);
@@ -0,0 +1,54 @@
+package uz.itpu.teamwork.project.meal.common.storage;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Image formats accepted for upload, recognised by their leading bytes.
+ */
+public enum ImageFormat {
+
+    JPEG(".jpg"),
+    PNG(".png"),
+    WEBP(".webp");
+
+    /** Bytes needed to tell the formats apart. */
+    static final int SIGNATURE_LENGTH = 12;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private final String extension;
+
+    ImageFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Format whose signature starts {@code data}, or null if none matches.
+     * Needs at least {@link #SIGNATURE_LENGTH} bytes.
+     */
+    static ImageFormat detect(byte[] data, int length) {
+        if (length >= 3 && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8 && (data[2] & 0xFF) == 0xFF) {
+            return JPEG;
+        }
+        if (length >= PNG_SIGNATURE.length && startsWith(data, 0, PNG_SIGNATURE)) {
+            return PNG;
+        }
+        if (length >= SIGNATURE_LENGTH && startsWith(data, 0, "RIFF".getBytes(StandardCharsets.US_ASCII)) && startsWith(data, 8, "WEBP".getBytes(StandardCharsets.US_ASCII))) {
+            return WEBP;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, byte[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
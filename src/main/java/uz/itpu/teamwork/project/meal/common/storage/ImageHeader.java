@@ -0,0 +1,127 @@
+package uz.itpu.teamwork.project.meal.common.storage;
+
+import uz.itpu.teamwork.project.exception.FileUploadException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Format and pixel dimensions read from the first bytes of an image,
+ * without decoding any pixel data.
+ */
+record ImageHeader(ImageFormat format, int width, int height) {
+
+    /**
+     * Parses the header in {@code data[0..length)}.
+     *
+     * @return the header, or null if more bytes are needed to find the dimensions
+     * @throws FileUploadException if the bytes are not a supported image
+     */
+    static ImageHeader parse(byte[] data, int length) {
+        if (length < ImageFormat.SIGNATURE_LENGTH) {
+            return null;
+        }
+        ImageFormat format = ImageFormat.detect(data, length);
+        if (format == null) {
+            throw new FileUploadException("File content is not a JPEG, PNG or WebP image");
+        }
+        return switch (format) {
+            case PNG -> parsePng(data, length);
+            case WEBP -> parseWebp(data, length);
+            case JPEG -> parseJpeg(data, length);
+        };
+    }
+
+    private static ImageHeader parsePng(byte[] data, int length) {
+        if (length < 24) {
+            return null;
+        }
+        if (data[12] != 'I' || data[13] != 'H' || data[14] != 'D' || data[15] != 'R') {
+            throw new FileUploadException("Malformed PNG header");
+        }
+        return new ImageHeader(ImageFormat.PNG, int32(data, 16), int32(data, 20));
+    }
+
+    private static ImageHeader parseWebp(byte[] data, int length) {
+        if (length < 30) {
+            return null;
+        }
+        String chunk = new String(data, 12, 4, StandardCharsets.US_ASCII);
+        return switch (chunk) {
+            case "VP8 " -> {
+                if ((data[23] & 0xFF) != 0x9D || (data[24] & 0xFF) != 0x01 || (data[25] & 0xFF) != 0x2A) {
+                    throw new FileUploadException("Malformed WebP header");
+                }
+                yield new ImageHeader(ImageFormat.WEBP, uint16le(data, 26) & 0x3FFF, uint16le(data, 28) & 0x3FFF);
+            }
+            case "VP8L" -> {
+                if ((data[20] & 0xFF) != 0x2F) {
+                    throw new FileUploadException("Malformed WebP header");
+                }
+                int bits = (data[21] & 0xFF) | (data[22] & 0xFF) << 8 | (data[23] & 0xFF) << 16 | (data[24] & 0xFF) << 24;
+                yield new ImageHeader(ImageFormat.WEBP, (bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1);
+            }
+            case "VP8X" -> new ImageHeader(ImageFormat.WEBP, uint24le(data, 24) + 1, uint24le(data, 27) + 1);
+            default -> throw new FileUploadException("Unsupported WebP variant");
+        };
+    }
+
+    /**
+     * Walks the marker segments up to the first start-of-frame, which holds
+     * the dimensions. Entropy-coded data never has to be read.
+     */
+    private static ImageHeader parseJpeg(byte[] data, int length) {
+        int offset = 2;
+        while (true) {
+            while (offset < length && (data[offset] & 0xFF) == 0xFF && offset + 1 < length
+                    && (data[offset + 1] & 0xFF) == 0xFF) {
+                offset++; // fill bytes
+            }
+            if (offset + 4 > length) {
+                return null;
+            }
+            if ((data[offset] & 0xFF) != 0xFF) {
+                throw new FileUploadException("Malformed JPEG header");
+            }
+            int marker = data[offset + 1] & 0xFF;
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                offset += 2; // standalone markers carry no length
+                continue;
+            }
+            if (marker == 0xDA || marker == 0xD9) {
+                throw new FileUploadException("JPEG has no frame header");
+            }
+            int segmentLength = uint16be(data, offset + 2);
+            if (segmentLength < 2) {
+                throw new FileUploadException("Malformed JPEG header");
+            }
+            if (isStartOfFrame(marker)) {
+                if (offset + 9 > length) {
+                    return null;
+                }
+                return new ImageHeader(ImageFormat.JPEG, uint16be(data, offset + 7), uint16be(data, offset + 5));
+            }
+            offset += 2 + segmentLength;
+        }
+    }
+
+    private static boolean isStartOfFrame(int marker) {
+        return marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    private static int int32(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16
+                | (data[offset + 2] & 0xFF) << 8 | (data[offset + 3] & 0xFF);
+    }
+
+    private static int uint16be(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 8 | (data[offset + 1] & 0xFF);
+    }
+
+    private static int uint16le(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int uint24le(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8 | (data[offset + 2] & 0xFF) << 16;
+    }
+}
@@ -3,20 +3,30 @@ package uz.itpu.teamwork.project.meal.common.storage;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 import uz.itpu.teamwork.project.exception.FileUploadException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.UUID;
 
 @Service
 @Profile({"dev", "local", "default"})
+@ConditionalOnProperty(name = "app.storage.mode", havingValue = "uuid", matchIfMissing = true)
 @Slf4j
 public class LocalFileStorage implements FileStorage {
 
@@ -26,7 +36,12 @@ public class LocalFileStorage implements FileStorage {
     @Value("${app.storage.local.base-url:http://localhost:8080/uploads}")
     private String baseUrl;
 
+    // uploads are written to upload-*.part first and moved into place when complete
+    static final String TEMP_SUFFIX = ".part";
+
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024;
+    private static final int MAX_IMAGE_DIMENSION = 8000;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
     private static final String[] ALLOWED_EXTENSIONS = {".jpg", ".jpeg", ".png", ".webp"};
 
     @PostConstruct
@@ -44,37 +59,66 @@ public class LocalFileStorage implements FileStorage {
         
         validateFile(file);
 
+        String url = uploadImage(file.getInputStream(), folder);
+        log.info("File uploaded successfully: {}", url);
+
+        return url;
+    }
+
+    @Override
+    public String uploadImage(InputStream content, String folder) throws IOException {
+        try (ValidatingImageInputStream image = new ValidatingImageInputStream(content, MAX_FILE_SIZE, MAX_IMAGE_DIMENSION)) {
+            ImageFormat format = image.format();
+            return storeFile(image, folder, format.getExtension());
+        }
+    }
+
+    @Override
+    public String storeFile(InputStream content, String folder, String extension) throws IOException {
         Path uploadPath = Paths.get(basePath, folder);
         if (!Files.exists(uploadPath)) {
             Files.createDirectories(uploadPath);
         }
 
-        String originalFilename = file.getOriginalFilename();
-        String extension = getFileExtension(originalFilename);
         String uniqueFilename = UUID.randomUUID() + extension;
+        Path temp = Files.createTempFile(uploadPath, "upload-", TEMP_SUFFIX);
+        try {
+            writeTo(content, temp);
+            Files.move(temp, uploadPath.resolve(uniqueFilename), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
 
-        Path filePath = uploadPath.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        return getPublicUrl(folder + "/" + uniqueFilename);
+    }
 
-        String relativePath = folder + "/" + uniqueFilename;
-        log.info("File uploaded successfully: {}", relativePath);
-        
-        return getPublicUrl(relativePath);
+    @Override
+    public InputStream openFile(String fileUrl) throws IOException {
+        return Files.newInputStream(resolve(fileUrl));
     }
 
+    /**
+     * Removes the file once the caller's transaction commits (at once
+     * without one), so a rolled-back change never loses a file it still uses.
+     */
     @Override
     public void deleteFile(String fileUrl) throws IOException {
         if (fileUrl == null || fileUrl.isEmpty()) {
             return;
         }
 
-        String relativePath = fileUrl.replace(baseUrl + "/", "");
-        Path filePath = Paths.get(basePath, relativePath);
+        Path filePath = resolve(fileUrl);
 
-        if (Files.exists(filePath)) {
-            Files.delete(filePath);
-            log.info("File deleted: {}", relativePath);
-        }
+        afterCommit(() -> {
+            try {
+                if (Files.deleteIfExists(filePath)) {
+                    log.info("File deleted: {}", filePath);
+                }
+            } catch (IOException e) {
+                // left for the orphan sweep
+                log.warn("Failed to delete {}: {}", filePath, e.getMessage());
+            }
+        });
     }
 
     @Override
@@ -82,6 +126,54 @@ public class LocalFileStorage implements FileStorage {
         return baseUrl + "/" + filePath;
     }
 
+    protected Path baseDirectory() {
+        return Paths.get(basePath).toAbsolutePath().normalize();
+    }
+
+    protected Path resolve(String fileUrl) {
+        String relativePath = fileUrl.replace(baseUrl + "/", "");
+        Path base = baseDirectory();
+        Path filePath = base.resolve(relativePath).normalize();
+        if (!filePath.startsWith(base)) {
+            throw new FileUploadException("Invalid file path");
+        }
+        return filePath;
+    }
+
+    protected static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Copies {@code content} into {@code target} through a direct buffer, so
+     * the file channel writes without an extra heap-to-native copy. Readers
+     * never see {@code target}: callers move it into place once complete.
+     */
+    protected static long writeTo(InputStream content, Path target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+        long written = 0;
+        ReadableByteChannel source = Channels.newChannel(content);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+        return written;
+    }
+
     private void validateFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new FileUploadException("File is empty");
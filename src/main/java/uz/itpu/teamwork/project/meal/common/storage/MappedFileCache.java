@@ -0,0 +1,114 @@
+package uz.itpu.teamwork.project.meal.common.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small memory-mapped hot set for the most requested uploaded files.
+ * <p>
+ * Every request bumps a per-file counter; a file is mapped once it has been
+ * requested {@code admitAfter} times and fits the per-file and total limits.
+ * When the set is full the least requested entry is dropped to make room.
+ * Entries are keyed by path and validated against size and modification time,
+ * so a replaced or deleted file is never served from the mapping.
+ */
+public class MappedFileCache {
+
+    private static final int MAX_TRACKED_PATHS = 10_000;
+
+    private record Entry(MappedByteBuffer buffer, long size, long lastModified, AtomicLong hits) {
+    }
+
+    private final int maxEntries;
+    private final long maxFileSize;
+    private final long maxTotalBytes;
+    private final int admitAfter;
+
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Path, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    public MappedFileCache(int maxEntries, long maxFileSize, long maxTotalBytes, int admitAfter) {
+        this.maxEntries = maxEntries;
+        this.maxFileSize = maxFileSize;
+        this.maxTotalBytes = maxTotalBytes;
+        this.admitAfter = admitAfter;
+    }
+
+    /**
+     * Read-only view of the file's bytes if it is (or just became) part of the
+     * hot set, otherwise null and the caller streams from disk.
+     */
+    public ByteBuffer get(Path path, long size, long lastModified) {
+        Entry entry = entries.get(path);
+        if (entry != null) {
+            if (entry.size() == size && entry.lastModified() == lastModified) {
+                entry.hits().incrementAndGet();
+                return entry.buffer().asReadOnlyBuffer();
+            }
+            evict(path);
+        }
+
+        if (requestCounts.size() > MAX_TRACKED_PATHS) {
+            requestCounts.clear(); // counters only need to find the currently hot files
+        }
+        long requests = requestCounts.computeIfAbsent(path, p -> new AtomicLong()).incrementAndGet();
+        if (requests < admitAfter || size > maxFileSize || size == 0) {
+            return null;
+        }
+        Entry admitted = admit(path, size, lastModified, requests);
+        return admitted != null ? admitted.buffer().asReadOnlyBuffer() : null;
+    }
+
+    public void evict(Path path) {
+        Entry removed = entries.remove(path);
+        if (removed != null) {
+            totalBytes.addAndGet(-removed.size());
+        }
+        requestCounts.remove(path);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private synchronized Entry admit(Path path, long size, long lastModified, long requests) {
+        Entry existing = entries.get(path);
+        if (existing != null) {
+            return existing;
+        }
+        while (!entries.isEmpty() && (entries.size() >= maxEntries || totalBytes.get() + size > maxTotalBytes)) {
+            Map.Entry<Path, Entry> coldest = entries.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().hits().get()))
+                    .orElseThrow();
+            if (coldest.getValue().hits().get() >= requests) {
+                return null; // everything cached is hotter than this file
+            }
+            Entry removed = entries.remove(coldest.getKey());
+            if (removed != null) {
+                totalBytes.addAndGet(-removed.size());
+            }
+        }
+        if (totalBytes.get() + size > maxTotalBytes) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            Entry entry = new Entry(buffer, size, lastModified, new AtomicLong(requests));
+            entries.put(path, entry);
+            totalBytes.addAndGet(size);
+            return entry;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package uz.itpu.teamwork.project.meal.common.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import uz.itpu.teamwork.project.meal.common.storage.repository.StoredBlobRepository;
+
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Removes uploaded files that no product points to any more (replaced or
+ * deleted images, abandoned {@code .part} files).
+ * <p>
+ * The upload tree is walked with {@link Files#walkFileTree}; candidates are
+ * collected in batches of {@code batch-size}, each batch is checked with one
+ * reference query, and the sweep pauses between batches so it stays in the
+ * background of request I/O. Files younger than {@code min-age} are left
+ * alone, which covers an upload whose product row is not yet committed.
+ * Files are looked up by their path under the storage root, not by public
+ * URL, so a change of base URL cannot orphan the whole tree.
+ * <p>
+ * Content-addressed blobs that still have a {@code stored_blobs} row are
+ * never touched: their lifetime belongs to the reference count. In the
+ * default {@code quarantine} mode orphans are moved aside and only deleted
+ * once {@code quarantine-retention} has passed.
+ */
+@Component
+@Profile({"dev", "local", "default"})
+@ConditionalOnProperty(name = "app.storage.gc.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class OrphanFileSweeper {
+
+    private final StoredFileReferences storedFileReferences;
+    private final StoredBlobRepository storedBlobRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.storage.local.base-path:uploads}")
+    private String basePath;
+
+    @Value("${app.storage.gc.quarantine-path:uploads-quarantine}")
+    private String quarantinePath;
+
+    @Value("${app.storage.gc.delete:false}")
+    private boolean deleteOrphans;
+
+    @Value("${app.storage.gc.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.storage.gc.batch-pause:500ms}")
+    private Duration batchPause;
+
+    @Value("${app.storage.gc.min-age:1h}")
+    private Duration minAge;
+
+    @Value("${app.storage.gc.quarantine-retention:7d}")
+    private Duration quarantineRetention;
+
+    private final AtomicLong sweepProgress = new AtomicLong();
+    private final AtomicLong lastCompletedSweep = new AtomicLong();
+
+    private Counter scanned;
+    private Counter deleted;
+    private Counter quarantined;
+    private Counter purged;
+    private Counter bytesReclaimed;
+    private Timer sweepTimer;
+
+    @PostConstruct
+    public void init() {
+        scanned = Counter.builder("storage.gc.files.scanned")
+                .description("Uploaded files inspected by the orphan sweep")
+                .register(meterRegistry);
+        deleted = orphans("deleted");
+        quarantined = orphans("quarantined");
+        purged = orphans("purged");
+        bytesReclaimed = Counter.builder("storage.gc.bytes.reclaimed")
+                .baseUnit("bytes")
+                .description("Bytes freed by deleting orphaned or expired quarantined files")
+                .register(meterRegistry);
+        sweepTimer = Timer.builder("storage.gc.sweep.duration")
+                .description("Wall time of a complete orphan sweep, pauses included")
+                .register(meterRegistry);
+        Gauge.builder("storage.gc.sweep.progress", sweepProgress, AtomicLong::get)
+                .description("Files scanned so far by the running sweep (0 when idle)")
+                .register(meterRegistry);
+        Gauge.builder("storage.gc.last.completed", lastCompletedSweep, AtomicLong::get)
+                .baseUnit("seconds")
+                .description("Epoch second at which the last sweep finished")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.gc.interval:6h}", initialDelayString = "${app.storage.gc.initial-delay:10m}")
+    public void sweep() {
+        try {
+            sweepTimer.recordCallable(this::sweepOnce);
+        } catch (Exception e) {
+            log.warn("Orphan file sweep failed: {}", e.getMessage(), e);
+        } finally {
+            sweepProgress.set(0);
+        }
+    }
+
+    /**
+     * One full pass over the upload tree followed by the quarantine purge.
+     *
+     * @return number of orphans removed or quarantined
+     */
+    long sweepOnce() throws IOException, InterruptedException {
+        Path base = Paths.get(basePath).toAbsolutePath().normalize();
+        Path quarantine = Paths.get(quarantinePath).toAbsolutePath().normalize();
+        if (Files.notExists(base)) {
+            return 0;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(minAge));
+        Sweep sweep = new Sweep(base, quarantine, cutoff);
+
+        Files.walkFileTree(base, sweep);
+        if (sweep.interrupted) {
+            throw new InterruptedException("Orphan sweep interrupted");
+        }
+        sweep.flush();
+        purgeQuarantine(quarantine);
+
+        lastCompletedSweep.set(Instant.now().getEpochSecond());
+        log.info("Orphan sweep finished: {} files scanned, {} orphans {}",
+                sweepProgress.get(), sweep.removed, deleteOrphans ? "deleted" : "quarantined");
+        return sweep.removed;
+    }
+
+    private final class Sweep extends SimpleFileVisitor<Path> {
+
+        private final Path base;
+        private final Path quarantine;
+        private final FileTime cutoff;
+        private final Map<String, Path> batch = new LinkedHashMap<>();
+        private long removed;
+        private boolean interrupted;
+
+        private Sweep(Path base, Path quarantine, FileTime cutoff) {
+            this.base = base;
+            this.quarantine = quarantine;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            return dir.equals(quarantine) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+            sweepProgress.incrementAndGet();
+            scanned.increment();
+            if (!attrs.isRegularFile() || attrs.lastModifiedTime().compareTo(cutoff) > 0) {
+                return FileVisitResult.CONTINUE;
+            }
+            if (file.getFileName().toString().endsWith(LocalFileStorage.TEMP_SUFFIX)) {
+                // left behind by an upload that died before its atomic move
+                delete(file, attrs.size());
+                deleted.increment();
+                removed++;
+                return FileVisitResult.CONTINUE;
+            }
+
+            batch.put(relative(file), file);
+            if (batch.size() >= batchSize) {
+                flush();
+                try {
+                    Thread.sleep(batchPause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    interrupted = true;
+                    return FileVisitResult.TERMINATE;
+                }
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException e) {
+            log.debug("Skipping unreadable upload {}: {}", file, e.getMessage());
+            return FileVisitResult.CONTINUE;
+        }
+
+        private void flush() throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            Set<String> referenced = storedFileReferences.findReferenced(batch.keySet());
+
+            List<String> blobNames = new ArrayList<>();
+            for (Path file : batch.values()) {
+                if (isBlob(file)) {
+                    blobNames.add(file.getFileName().toString());
+                }
+            }
+            Set<String> trackedBlobs = blobNames.isEmpty() ? Set.of() : storedBlobRepository.findExistingNames(blobNames);
+
+            for (Map.Entry<String, Path> candidate : batch.entrySet()) {
+                Path file = candidate.getValue();
+                if (referenced.contains(candidate.getKey())
+                        || (isBlob(file) && trackedBlobs.contains(file.getFileName().toString()))) {
+                    continue;
+                }
+                dispose(file);
+                removed++;
+            }
+            batch.clear();
+        }
+
+        private void dispose(Path file) throws IOException {
+            if (deleteOrphans) {
+                delete(file, Files.size(file));
+                deleted.increment();
+                return;
+            }
+            Path target = quarantine.resolve(relative(file));
+            Files.createDirectories(target.getParent());
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+            // retention counts from the move, not from the upload
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            quarantined.increment();
+            log.debug("Quarantined orphaned upload {}", relative(file));
+        }
+
+        private boolean isBlob(Path file) {
+            return file.startsWith(base.resolve(ContentAddressedFileStorage.BLOB_FOLDER));
+        }
+
+        private String relative(Path file) {
+            return base.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+        }
+    }
+
+    private void purgeQuarantine(Path quarantine) throws IOException {
+        if (Files.notExists(quarantine)) {
+            return;
+        }
+        FileTime expiry = FileTime.from(Instant.now().minus(quarantineRetention));
+        Files.walkFileTree(quarantine, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.lastModifiedTime().compareTo(expiry) < 0) {
+                    delete(file, attrs.size());
+                    purged.increment();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                if (!dir.equals(quarantine)) {
+                    try {
+                        Files.deleteIfExists(dir);
+                    } catch (DirectoryNotEmptyException ignored) {
+                        // still holds files inside their retention window
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void delete(Path file, long size) throws IOException {
+        if (Files.deleteIfExists(file)) {
+            bytesReclaimed.increment(size);
+        }
+    }
+
+    private Counter orphans(String action) {
+        return Counter.builder("storage.gc.orphans")
+                .tag("action", action)
+                .description("Orphaned uploads removed by the sweep")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,19 @@
+package uz.itpu.teamwork.project.meal.common.storage;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Tells {@link OrphanFileSweeper} which stored files are still in use.
+ * Implemented by the modules that keep upload URLs in their tables.
+ */
+public interface StoredFileReferences {
+
+    /**
+     * The subset of {@code paths} (relative to the storage root, e.g.
+     * {@code products/a.jpg}) that some row still points to. Rows keep full
+     * URLs, so a path counts as referenced by any URL ending in {@code /path},
+     * whatever base URL it was stored under.
+     */
+    Set<String> findReferenced(Collection<String> paths);
+}
@@ -0,0 +1,167 @@
+package uz.itpu.teamwork.project.meal.common.storage;
+
+import uz.itpu.teamwork.project.exception.FileUploadException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Passes an image upload through while checking it as the bytes arrive:
+ * the total size is capped, and the leading bytes are kept only until the
+ * format signature and pixel dimensions can be read from them. Nothing is
+ * decoded, and the caller's copy fails at the first offending byte instead
+ * of after the whole body has been buffered.
+ */
+public class ValidatingImageInputStream extends FilterInputStream {
+
+    /** Leading bytes examined for the dimensions; covers large EXIF/ICC segments. */
+    static final int MAX_HEADER_BYTES = 256 * 1024;
+
+    private final long maxBytes;
+    private final int maxDimension;
+
+    private byte[] header = new byte[1024];
+    private int headerLength;
+    private ImageHeader parsed;
+    private long total;
+
+    // header bytes read ahead by format() and not yet returned to the caller
+    private int replayPosition;
+    private int replayEnd;
+
+    public ValidatingImageInputStream(InputStream in, long maxBytes, int maxDimension) {
+        super(in);
+        this.maxBytes = maxBytes;
+        this.maxDimension = maxDimension;
+    }
+
+    /**
+     * Reads just enough to recognise the format. Must be called before the
+     * content is consumed; the bytes it reads are returned by later reads.
+     */
+    public ImageFormat format() throws IOException {
+        if (total > replayEnd) {
+            throw new IllegalStateException("format() must be called before reading");
+        }
+        byte[] chunk = new byte[ImageFormat.SIGNATURE_LENGTH];
+        while (headerLength < ImageFormat.SIGNATURE_LENGTH) {
+            int read = in.read(chunk, 0, ImageFormat.SIGNATURE_LENGTH - headerLength);
+            if (read < 0) {
+                break;
+            }
+            accept(chunk, 0, read);
+        }
+        replayEnd = headerLength;
+        ImageFormat format = ImageFormat.detect(header, headerLength);
+        if (format == null) {
+            throw new FileUploadException(headerLength == 0
+                    ? "File is empty"
+                    : "File content is not a JPEG, PNG or WebP image");
+        }
+        return format;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (replayPosition < replayEnd) {
+            int count = Math.min(length, replayEnd - replayPosition);
+            System.arraycopy(header, replayPosition, buffer, offset, count);
+            replayPosition += count;
+            return count;
+        }
+        int read = in.read(buffer, offset, length);
+        if (read < 0) {
+            if (parsed == null) {
+                throw new FileUploadException(total == 0 ? "File is empty" : "Image is truncated before its dimensions");
+            }
+            return -1;
+        }
+        accept(buffer, offset, read);
+        return read;
+    }
+
+    /**
+     * Reads and discards, so skipped bytes are still counted and inspected.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] discard = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(discard, 0, (int) Math.min(discard.length, n - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Dimensions, once the header has been read far enough; otherwise null.
+     */
+    ImageHeader header() {
+        return parsed;
+    }
+
+    private static String readableSize(long bytes) {
+        return bytes >= 1024 * 1024 ? bytes / (1024 * 1024) + "MB" : bytes / 1024 + "KB";
+    }
+
+    private void accept(byte[] buffer, int offset, int length) {
+        total += length;
+        if (total > maxBytes) {
+            throw new FileUploadException("File size exceeds maximum allowed size (" + readableSize(maxBytes) + ")");
+        }
+        if (parsed != null) {
+            return;
+        }
+        if (headerLength + length > header.length) {
+            int needed = Math.min(Math.max(header.length * 2, headerLength + length), MAX_HEADER_BYTES);
+            if (needed < headerLength + length) {
+                throw new FileUploadException("Image dimensions not found in the first " + MAX_HEADER_BYTES / 1024 + "KB");
+            }
+            header = Arrays.copyOf(header, needed);
+        }
+        System.arraycopy(buffer, offset, header, headerLength, length);
+        headerLength += length;
+
+        parsed = ImageHeader.parse(header, headerLength);
+        if (parsed != null) {
+            if (parsed.width() < 1 || parsed.height() < 1
+                    || parsed.width() > maxDimension || parsed.height() > maxDimension) {
+                throw new FileUploadException("Image dimensions " + parsed.width() + "x" + parsed.height()
+                        + " are outside the allowed range (1-" + maxDimension + " px per side)");
+            }
+            if (replayPosition >= replayEnd) {
+                header = null; // no longer needed once replay is done
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package uz.itpu.teamwork.project.meal.common.storage.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import uz.itpu.teamwork.project.meal.common.storage.model.StoredBlob;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    /**
+     * Adds one reference, creating the row on first upload. The row stays
+     * locked until the caller commits, which orders it against a concurrent
+     * release of the last reference.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO stored_blobs (name, size, ref_count, created_at)
+            VALUES (:name, :size, 1, CURRENT_TIMESTAMP)
+            ON CONFLICT (name) DO UPDATE SET ref_count = stored_blobs.ref_count + 1
+            """)
+    void acquire(@Param("name") String name, @Param("size") long size);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StoredBlob b WHERE b.name = :name")
+    Optional<StoredBlob> findForUpdate(@Param("name") String name);
+
+    @Query("SELECT b.name FROM StoredBlob b WHERE b.name IN :names")
+    Set<String> findExistingNames(@Param("names") Collection<String> names);
+}
@@ -1,18 +1,32 @@
 package uz.itpu.teamwork.project.meal.country.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import uz.itpu.teamwork.project.meal.country.model.Country;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface CountryRepository extends JpaRepository<Country, Long> {
 
+    /**
+     * Served from the query cache; invalidated by any write to {@code countries}.
+     */
     @Query("SELECT c FROM Country c WHERE UPPER(c.code) = UPPER(:code)")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Country> findByCode(@Param("code") String code);
 
+    /**
+     * Set-based variant of {@link #findByCode}; {@code codes} must already be upper case.
+     */
+    @Query("SELECT c FROM Country c WHERE UPPER(c.code) IN :codes")
+    List<Country> findByCodeIn(@Param("codes") Collection<String> codes);
+
     List<Country> findByIsActiveTrue();
 
     @Query("SELECT COUNT(c) > 0 FROM Country c WHERE UPPER(c.code) = UPPER(:code)")
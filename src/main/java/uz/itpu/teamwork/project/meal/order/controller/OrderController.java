@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 import uz.itpu.teamwork.project.auth.security.UserPrincipal;
 import uz.itpu.teamwork.project.auth.dto.response.ApiResponse;
 import uz.itpu.teamwork.project.exception.AuthException;
+import uz.itpu.teamwork.project.meal.common.pagination.CursorPage;
 import uz.itpu.teamwork.project.meal.order.dto.request.CreateOrderRequest;
 import uz.itpu.teamwork.project.meal.order.dto.response.OrderResponse;
 import uz.itpu.teamwork.project.meal.order.service.OrderService;
@@ -27,6 +28,8 @@ import java.util.List;
 @Tag(name = "Orders", description = "Endpoints for cart checkout and user orders")
 public class OrderController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final OrderService orderService;
 
     /**
@@ -84,6 +87,26 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * Cancel one of the authenticated user's orders; its stock goes back on sale.
+     */
+    @PostMapping("/{orderId}/cancel")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(
+            summary = "Cancel order",
+            description = "Cancels a NEW or CONFIRMED order of the authenticated user and releases its stock"
+    )
+    public ResponseEntity<ApiResponse<OrderResponse>> cancelOrder(
+            @PathVariable Long orderId
+    ) {
+        Long userId = getCurrentUserId();
+        log.info("CancelOrder request orderId={} by userId={}", orderId, userId);
+
+        OrderResponse response = orderService.cancelOrder(orderId, userId);
+
+        return ResponseEntity.ok(ApiResponse.success(response, "Order cancelled successfully"));
+    }
+
     /**
      * Get all orders for currently authenticated user.
      */
@@ -101,4 +124,27 @@ public class OrderController {
 
         return ResponseEntity.ok(ApiResponse.success(orders));
     }
+
+    /**
+     * Keyset-paginated orders of the authenticated user, newest first.
+     */
+    @GetMapping("/my/page")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(
+            summary = "Get user's orders page",
+            description = "Returns one cursor page of the authenticated user's orders, newest first"
+    )
+    public ResponseEntity<ApiResponse<CursorPage<OrderResponse>>> getMyOrdersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        Long userId = getCurrentUserId();
+        log.info("GetMyOrdersPage request from userId={}", userId);
+
+        CursorPage<OrderResponse> orders = orderService.getOrdersForUser(
+                userId, cursor, Math.min(Math.max(limit, 1), MAX_PAGE_SIZE), includeTotal);
+
+        return ResponseEntity.ok(ApiResponse.success(orders));
+    }
 }
@@ -1,5 +1,6 @@
 package uz.itpu.teamwork.project.meal.order.dto.request;
 
+import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -43,6 +44,8 @@ public class CreateOrderRequest {
     private String deliveryZip;
     private String deliveryInstructions;
 
+    // stock is kept per country, so every order has to name one
+    @NotBlank(message = "Country code is required")
     private String countryCode;
 
     private List<OrderItemRequest> items;
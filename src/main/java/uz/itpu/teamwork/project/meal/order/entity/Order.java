@@ -17,7 +17,7 @@ import java.util.List;
 @Table(
         name = "orders",
         indexes = {
-                @Index(name = "idx_orders_user_id", columnList = "user_id"),
+                @Index(name = "idx_orders_user_created_at_id", columnList = "user_id, created_at, id"),
                 @Index(name = "idx_orders_order_number", columnList = "order_number"),
                 @Index(name = "idx_orders_status", columnList = "status")
         }
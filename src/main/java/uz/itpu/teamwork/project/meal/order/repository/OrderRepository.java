@@ -1,6 +1,10 @@
 package uz.itpu.teamwork.project.meal.order.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uz.itpu.teamwork.project.meal.order.entity.Order;
 import uz.itpu.teamwork.project.meal.order.enums.OrderStatus;
@@ -17,6 +21,46 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      */
     List<Order> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    /**
+     * First keyset page of a user's orders, newest first (id breaks ties).
+     */
+    List<Order> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Limit limit);
+
+    /**
+     * Keyset page of a user's orders strictly older than the given (createdAt, id) position.
+     * Served by the (user_id, created_at, id) index.
+     */
+    @Query("""
+            SELECT o FROM Order o
+            WHERE o.user.id = :userId
+              AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id))
+            ORDER BY o.createdAt DESC, o.id DESC
+            """)
+    List<Order> findByUserIdBefore(
+            @Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Limit limit
+    );
+
+    long countByUserId(Long userId);
+
+    /**
+     * Moves the order to {@code to} only if it is currently in one of {@code from};
+     * returns 0 when another request got there first.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE Order o
+            SET o.status = :to, o.updatedAt = CURRENT_TIMESTAMP
+            WHERE o.id = :id AND o.status IN :from
+            """)
+    int updateStatus(
+            @Param("id") Long id,
+            @Param("from") Set<OrderStatus> from,
+            @Param("to") OrderStatus to
+    );
+
     /**
      * Orders in a given date range (used by sales reports).
      * Uses order_date field from database.
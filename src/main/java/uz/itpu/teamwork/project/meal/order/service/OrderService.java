@@ -1,5 +1,6 @@
 package uz.itpu.teamwork.project.meal.order.service;
 
+import uz.itpu.teamwork.project.meal.common.pagination.CursorPage;
 import uz.itpu.teamwork.project.meal.order.dto.request.CreateOrderRequest;
 import uz.itpu.teamwork.project.meal.order.dto.response.OrderResponse;
 
@@ -21,4 +22,15 @@ public interface OrderService {
      * Get all orders for a given user (for profile "My Orders" page).
      */
     List<OrderResponse> getOrdersForUser(Long userId);
+
+    /**
+     * Keyset page of a user's orders, newest first. {@code cursor} is the
+     * {@code nextCursor} of the previous page, or null for the first page.
+     */
+    CursorPage<OrderResponse> getOrdersForUser(Long userId, String cursor, int limit, boolean includeTotal);
+
+    /**
+     * Cancel a NEW or CONFIRMED order of the given user and return its stock.
+     */
+    OrderResponse cancelOrder(Long orderId, Long userId);
 }
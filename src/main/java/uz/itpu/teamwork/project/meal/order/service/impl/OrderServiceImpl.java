@@ -2,11 +2,18 @@ package uz.itpu.teamwork.project.meal.order.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import uz.itpu.teamwork.project.auth.entity.User;
 import uz.itpu.teamwork.project.auth.repository.UserRepository;
+import uz.itpu.teamwork.project.exception.BadRequestException;
+import uz.itpu.teamwork.project.exception.ForbiddenException;
+import uz.itpu.teamwork.project.exception.InvalidOperationException;
 import uz.itpu.teamwork.project.exception.ResourceNotFoundException;
+import uz.itpu.teamwork.project.meal.cart.service.CartService;
+import uz.itpu.teamwork.project.meal.common.pagination.Cursor;
+import uz.itpu.teamwork.project.meal.common.pagination.CursorPage;
 import uz.itpu.teamwork.project.meal.order.dto.request.CreateOrderRequest;
 import uz.itpu.teamwork.project.meal.order.dto.request.OrderItemRequest;
 import uz.itpu.teamwork.project.meal.order.dto.response.OrderItemResponse;
@@ -19,10 +26,15 @@ import uz.itpu.teamwork.project.meal.order.repository.OrderRepository;
 import uz.itpu.teamwork.project.meal.order.service.OrderService;
 import uz.itpu.teamwork.project.meal.product.model.Product;
 import uz.itpu.teamwork.project.meal.product.repository.ProductRepository;
+import uz.itpu.teamwork.project.meal.product.service.StockReservationService;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -31,10 +43,14 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
+    private static final Set<OrderStatus> CANCELLABLE = EnumSet.of(OrderStatus.NEW, OrderStatus.CONFIRMED);
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final StockReservationService stockReservationService;
+    private final CartService cartService;
 
     @Override
     @Transactional
@@ -47,12 +63,18 @@ public class OrderServiceImpl implements OrderService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
+        // Persist the cart being checked out (held write-behind in memory)
+        cartService.flushCart(userId);
+
         // 2) Build order items
         List<OrderItem> orderItems = request.getItems().stream()
                 .map(this::createOrderItemFromRequest)
                 .collect(Collectors.toList());
 
-        // 3) Backend totals
+        // 3) Take stock in the order's country; throws (and rolls back) if anything is short
+        stockReservationService.reserve(request.getCountryCode(), quantitiesByProduct(orderItems));
+
+        // 4) Backend totals
         BigDecimal itemsSubtotal = orderItems.stream()
                 .map(OrderItem::getSubtotal)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -66,7 +88,7 @@ public class OrderServiceImpl implements OrderService {
                 .add(vatAmount)
                 .add(deliveryFee);
 
-        // 4) Build Order entity
+        // 5) Build Order entity
         LocalDateTime orderDateTime = request.getOrderDate() != null
                 ? request.getOrderDate().atStartOfDay()
                 : LocalDateTime.now();
@@ -107,13 +129,13 @@ public class OrderServiceImpl implements OrderService {
         orderItems.forEach(i -> i.setOrder(order));
         order.setItems(orderItems);
 
-        // 5) Save order + items
+        // 6) Save order + items
         Order saved = orderRepository.save(order);
         orderItemRepository.saveAll(orderItems);
 
         log.info("Order created. orderId={}, orderNumber={}", saved.getId(), saved.getOrderNumber());
 
-        // 6) Map to response
+        // 7) Map to response
         return mapToOrderResponse(saved);
     }
 
@@ -134,8 +156,70 @@ public class OrderServiceImpl implements OrderService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<OrderResponse> getOrdersForUser(Long userId, String cursor, int limit, boolean includeTotal) {
+        Limit fetch = Limit.of(limit + 1);
+
+        List<Order> orders;
+        if (cursor == null) {
+            orders = orderRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, fetch);
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            orders = orderRepository.findByUserIdBefore(userId, parseCreatedAt(position.getKey()), position.getId(), fetch);
+        }
+
+        return CursorPage.of(
+                orders,
+                limit,
+                order -> new Cursor(order.getCreatedAt().toString(), order.getId()),
+                this::mapToOrderResponse,
+                includeTotal ? orderRepository.countByUserId(userId) : null
+        );
+    }
+
+    @Override
+    @Transactional
+    public OrderResponse cancelOrder(Long orderId, Long userId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        if (!order.getUser().getId().equals(userId)) {
+            throw new ForbiddenException("Order " + orderId + " belongs to another user");
+        }
+
+        // Conditional status change: of two concurrent cancels only one releases the stock
+        int changed = orderRepository.updateStatus(orderId, CANCELLABLE, OrderStatus.CANCELLED);
+        if (changed == 0) {
+            throw new InvalidOperationException("Order " + orderId + " can no longer be cancelled");
+        }
+
+        Order cancelled = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        stockReservationService.release(cancelled.getCountryCode(), quantitiesByProduct(cancelled.getItems()));
+
+        log.info("Order cancelled. orderId={}, orderNumber={}", orderId, cancelled.getOrderNumber());
+        return mapToOrderResponse(cancelled);
+    }
+
     // ----------------- Helpers -----------------
 
+    private Map<Long, Integer> quantitiesByProduct(List<OrderItem> items) {
+        return items.stream()
+                .collect(Collectors.toMap(
+                        item -> item.getProduct().getId(),
+                        OrderItem::getQuantity,
+                        Integer::sum
+                ));
+    }
+
+    private LocalDateTime parseCreatedAt(String key) {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+
     private OrderItem createOrderItemFromRequest(OrderItemRequest req) {
 
         Product product = productRepository.findById(req.getProductId())
@@ -1,18 +1,29 @@
 package uz.itpu.teamwork.project.meal.product.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import uz.itpu.teamwork.project.exception.BadRequestException;
+import uz.itpu.teamwork.project.meal.common.pagination.CursorPage;
+import uz.itpu.teamwork.project.meal.product.dto.request.ProductImportRequest;
 import uz.itpu.teamwork.project.meal.product.dto.request.ProductRequest;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductFacetResponse;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductImportResponse;
 import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductSuggestionResponse;
+import uz.itpu.teamwork.project.meal.product.enums.ProductSortField;
+import uz.itpu.teamwork.project.meal.product.service.ProductImportService;
 import uz.itpu.teamwork.project.meal.product.service.ProductService;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -21,19 +32,34 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
     @GetMapping
     public ResponseEntity<?> getProducts(
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer size,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false) String sortDir
+            @RequestParam(required = false) String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal
     ) {
+        ProductSortField sortField = ProductSortField.fromParam(sortBy);
+        Sort.Direction direction = sortDirection(sortDir);
+
+        if (cursor != null || limit != null) {
+            int pageSize = Math.min(Math.max(limit != null ? limit : 20, 1), MAX_PAGE_SIZE);
+            CursorPage<ProductResponse> products =
+                    productService.getProductsAfter(sortField, direction, cursor, pageSize, includeTotal);
+            return ResponseEntity.ok(products);
+        }
+
         if (page != null && size != null) {
-            Sort sort = Sort.by(Sort.Direction.fromString(sortDir != null ? sortDir : "ASC"),
-                    sortBy != null ? sortBy : "id");
-            Pageable pageable = PageRequest.of(page, size, sort);
+            Pageable pageable = pageRequest(page, size)
+                    .withSort(Sort.by(direction, sortField.getProperty()).and(Sort.by(direction, "id")));
             Page<ProductResponse> products = productService.getProducts(pageable);
             return ResponseEntity.ok(products);
         }
@@ -58,24 +84,60 @@ public class ProductController {
     }
 
     @GetMapping("/search")
-    public List<ProductResponse> searchProducts(@RequestParam String q) {
-        return productService.searchProducts(q);
+    public Page<ProductResponse> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return productService.searchProducts(q, pageRequest(page, size));
+    }
+
+    @GetMapping("/suggest")
+    public List<ProductSuggestionResponse> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(required = false) String countryCode,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return productService.suggestProducts(prefix, countryCode, limit);
+    }
+
+    /**
+     * Active products narrowed by the selected facets, plus counts for every facet value.
+     */
+    @GetMapping("/facets")
+    public ProductFacetResponse browseFacets(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String countryCode,
+            @RequestParam(required = false) String priceBand,
+            @RequestParam(defaultValue = "false") boolean allergenFree,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        PageRequest pageRequest = pageRequest(page, size);
+        return productService.browseFacets(categoryId, countryCode, priceBand, allergenFree,
+                pageRequest.getPageNumber(), pageRequest.getPageSize());
     }
 
     @GetMapping("/filter")
-    public List<ProductResponse> filterProducts(
+    public Page<ProductResponse> filterProducts(
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) String countryCode,
-            @RequestParam(required = false) Boolean isActive
+            @RequestParam(required = false) Boolean isActive,
+            @RequestParam(required = false) List<Long> excludeIngredients,
+            @RequestParam(defaultValue = "false") boolean allergenFree,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
     ) {
 
         if (countryCode != null) {
             countryCode = countryCode.toUpperCase();
         }
 
-        return productService.filterProducts(categoryId, minPrice, maxPrice, countryCode, isActive);
+        Pageable pageable = pageRequest(page, size).withSort(Sort.by("id"));
+        return productService.filterProducts(categoryId, minPrice, maxPrice, countryCode, isActive,
+                excludeIngredients, allergenFree, pageable);
     }
 
     @PostMapping
@@ -85,6 +147,25 @@ public class ProductController {
         return ResponseEntity.status(201).body(response);
     }
 
+    /**
+     * Bulk create/update; rows with an {@code id} update that product. Invalid
+     * rows are reported in the response instead of failing the whole import.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ProductImportResponse importProducts(@RequestBody List<ProductImportRequest> rows) {
+        return productImportService.importProducts(rows);
+    }
+
+    /**
+     * CSV flavour of {@link #importProducts}; the body is streamed, not buffered.
+     */
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ProductImportResponse importProductsCsv(HttpServletRequest request) throws IOException {
+        return productImportService.importCsv(request.getReader());
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     public ProductResponse updateProduct(
@@ -100,4 +181,16 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    private Sort.Direction sortDirection(String sortDir) {
+        if (sortDir == null) {
+            return Sort.Direction.ASC;
+        }
+        return Sort.Direction.fromOptionalString(sortDir)
+                .orElseThrow(() -> new BadRequestException("Unsupported sort direction: " + sortDir));
+    }
+
+    private PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+}
@@ -1,6 +1,8 @@
 package uz.itpu.teamwork.project.meal.product.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -29,8 +31,27 @@ public class ProductImageController {
     ) {
         try {
             String imageUrl = fileStorage.uploadFile(file, "products");
-            ProductResponse response = productService.updateProductImage(id, imageUrl);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(attach(id, imageUrl));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upload image: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Raw-body upload: the image is validated and written to disk as it
+     * streams in, without multipart buffering.
+     */
+    @PutMapping(value = "/{id}/image", consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE, "image/webp"})
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<ProductResponse> streamProductImage(
+            @PathVariable Long id,
+            HttpServletRequest request
+    ) {
+        // fail before reading the body if the product is missing
+        productService.getProductById(id);
+        try {
+            String imageUrl = fileStorage.uploadImage(request.getInputStream(), "products");
+            return ResponseEntity.ok(attach(id, imageUrl));
         } catch (IOException e) {
             throw new RuntimeException("Failed to upload image: " + e.getMessage());
         }
@@ -42,16 +63,22 @@ public class ProductImageController {
         ProductResponse product = productService.getProductById(id);
 
         if (product.getImageUrl() != null) {
-            try {
-                fileStorage.deleteFile(product.getImageUrl());
-                productService.updateProductImage(id, null);
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to delete image: " + e.getMessage());
-            }
+            // releases the image and its variants along with the product change
+            productService.updateProductImage(id, null);
         }
 
         Map<String, String> response = new HashMap<>();
         response.put("message", "Image deleted successfully");
         return ResponseEntity.ok(response);
     }
+
+    private ProductResponse attach(Long id, String imageUrl) throws IOException {
+        try {
+            return productService.updateProductImage(id, imageUrl);
+        } catch (RuntimeException e) {
+            // the product never took the upload over
+            fileStorage.deleteFile(imageUrl);
+            throw e;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package uz.itpu.teamwork.project.meal.product.dto.request;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One row of a bulk import: a product with an id is updated, one without is created.
+ */
+@Getter
+@Setter
+public class ProductImportRequest extends ProductRequest {
+
+    private Long id;
+}
@@ -0,0 +1,29 @@
+package uz.itpu.teamwork.project.meal.product.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class ProductFacetResponse {
+    private int total;
+    private List<ProductResponse> products;
+
+    private List<FacetValue> categories;
+    private List<FacetValue> countries;
+    private List<FacetValue> priceBands;
+    private int allergenFreeCount;
+
+    @Getter
+    @Setter
+    @Builder
+    public static class FacetValue {
+        private String value;
+        private String label;
+        private int count;
+    }
+}
@@ -0,0 +1,27 @@
+package uz.itpu.teamwork.project.meal.product.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class ProductImportResponse {
+    private int total;
+    private int created;
+    private int updated;
+    private int failed;
+    private List<RowError> errors;
+
+    @Getter
+    @Setter
+    @Builder
+    public static class RowError {
+        private int row;
+        private String name;
+        private String message;
+    }
+}
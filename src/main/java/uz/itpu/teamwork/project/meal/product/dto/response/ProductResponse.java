@@ -2,7 +2,7 @@ package uz.itpu.teamwork.project.meal.product.dto.response;
 
 import lombok.Builder;
 import lombok.Getter;
-import lombok.Setter;
+import lombok.Singular;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -10,7 +10,6 @@ import java.util.List;
 import java.util.Map;
 
 @Getter
-@Setter
 @Builder
 public class ProductResponse {
     private Long id;
@@ -20,18 +19,24 @@ public class ProductResponse {
     private String categoryName;
     private BigDecimal basePrice;
     private String imageUrl;
+    // variants are null until generated, and always for WebP originals: show imageUrl instead
+    private String thumbnailUrl;
+    private String mediumUrl;
     private Boolean isActive;
     private BigDecimal rating;
     private Integer ratingCount;
 
+    // no setters and unmodifiable collections: catalog snapshots hand the same instances to every reader
+    @Singular(ignoreNullCollections = true)
     private List<IngredientInfo> ingredients;
+    @Singular(value = "countryAvailability", ignoreNullCollections = true)
     private Map<String, AvailabilityInfo> availability;
+    @Singular(ignoreNullCollections = true)
     private List<ModifierInfo> modifiers;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
     @Getter
-    @Setter
     @Builder
     public static class IngredientInfo {
         private Long id;
@@ -41,7 +46,6 @@ public class ProductResponse {
     }
 
     @Getter
-    @Setter
     @Builder
     public static class AvailabilityInfo {
         private Boolean isAvailable;
@@ -50,7 +54,6 @@ public class ProductResponse {
     }
 
     @Getter
-    @Setter
     @Builder
     public static class ModifierInfo {
         private Long id;
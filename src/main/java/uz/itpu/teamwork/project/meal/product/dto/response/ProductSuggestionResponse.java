@@ -0,0 +1,15 @@
+package uz.itpu.teamwork.project.meal.product.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class ProductSuggestionResponse {
+    private String type;
+    private Long id;
+    private String name;
+    private String imageUrl;
+}
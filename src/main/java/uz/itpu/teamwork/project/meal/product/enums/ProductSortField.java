@@ -0,0 +1,57 @@
+package uz.itpu.teamwork.project.meal.product.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import uz.itpu.teamwork.project.exception.BadRequestException;
+import uz.itpu.teamwork.project.meal.product.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Columns product listings may be sorted by. Each one is non-null and backed
+ * by a ({@code column}, {@code id}) index, so keyset pages stay index range scans.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ProductSortField {
+
+    ID("id", Product::getId, Long::valueOf),
+    NAME("name", Product::getName, Function.identity()),
+    BASE_PRICE("basePrice", Product::getBasePrice, BigDecimal::new),
+    CREATED_AT("createdAt", Product::getCreatedAt, LocalDateTime::parse);
+
+    private final String property;
+    private final Function<Product, ? extends Comparable<?>> extractor;
+    private final Function<String, ? extends Comparable<?>> parser;
+
+    /**
+     * Accepts the entity property ({@code basePrice}) or the constant name
+     * ({@code BASE_PRICE}); {@code null} means {@link #ID}.
+     */
+    public static ProductSortField fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return ID;
+        }
+        return Arrays.stream(values())
+                .filter(field -> field.property.equalsIgnoreCase(value) || field.name().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Unsupported sort field: " + value));
+    }
+
+    public String formatKey(Product product) {
+        Object key = extractor.apply(product);
+        return key instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(key);
+    }
+
+    public Comparable<?> parseKey(String key) {
+        try {
+            return parser.apply(key);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package uz.itpu.teamwork.project.meal.product.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a product gets a new original image; variants are
+ * generated for {@code imageUrl} once the surrounding transaction commits.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductImageChangedEvent {
+
+    private final Long productId;
+
+    private final String imageUrl;
+}
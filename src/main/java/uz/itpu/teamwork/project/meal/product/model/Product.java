@@ -6,6 +6,7 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import uz.itpu.teamwork.project.meal.category.model.Category;
@@ -16,7 +17,31 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "products")
+@Table(
+        name = "products",
+        indexes = {
+                @Index(name = "idx_products_name_id", columnList = "name, id"),
+                @Index(name = "idx_products_base_price_id", columnList = "base_price, id"),
+                @Index(name = "idx_products_created_at_id", columnList = "created_at, id")
+        }
+)
+@NamedEntityGraph(
+        name = Product.GRAPH_LIST,
+        attributeNodes = @NamedAttributeNode("category")
+)
+@NamedEntityGraph(
+        name = Product.GRAPH_DETAIL,
+        attributeNodes = {
+                @NamedAttributeNode("category"),
+                @NamedAttributeNode(value = "productIngredients", subgraph = "ingredients"),
+                @NamedAttributeNode(value = "productAvailabilities", subgraph = "availabilities"),
+                @NamedAttributeNode("modifiers")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "ingredients", attributeNodes = @NamedAttributeNode("ingredient")),
+                @NamedSubgraph(name = "availabilities", attributeNodes = @NamedAttributeNode("country"))
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,6 +50,16 @@ import java.util.Set;
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Product {
 
+    /**
+     * Listing plan: category joined, child collections batch-loaded (see {@link BatchSize}).
+     */
+    public static final String GRAPH_LIST = "Product.list";
+
+    /**
+     * Single-product plan: everything {@code toProductResponse} touches in one query.
+     */
+    public static final String GRAPH_DETAIL = "Product.detail";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -48,6 +83,16 @@ public class Product {
     @Column(name = "image_url", length = 500)
     private String imageUrl;
 
+    /**
+     * Downscaled copies of {@link #imageUrl} for list and detail views,
+     * filled in asynchronously after an upload; null until generated.
+     */
+    @Column(name = "thumbnail_url", length = 500)
+    private String thumbnailUrl;
+
+    @Column(name = "medium_url", length = 500)
+    private String mediumUrl;
+
     @Column(name = "is_active")
     @Builder.Default
     private Boolean isActive = true;
@@ -61,10 +106,12 @@ public class Product {
     private Integer ratingCount = 0;
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     @Builder.Default
     private Set<ProductIngredient> productIngredients = new HashSet<>();
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     @Builder.Default
     private Set<ProductAvailability> productAvailabilities = new HashSet<>();
 
@@ -74,6 +121,7 @@ public class Product {
             joinColumns = @JoinColumn(name = "product_id"),
             inverseJoinColumns = @JoinColumn(name = "modifier_id")
     )
+    @BatchSize(size = 100)
     @Builder.Default
     private Set<Modifier> modifiers = new HashSet<>();
 
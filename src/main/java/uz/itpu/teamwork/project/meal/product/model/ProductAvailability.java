@@ -12,6 +12,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "product_availability", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"product_id", "country_id"})
+}, indexes = {
+        @Index(name = "idx_product_availability_country", columnList = "country_id, is_available")
 })
 @Getter
 @Setter
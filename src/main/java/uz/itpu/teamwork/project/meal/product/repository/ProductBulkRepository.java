@@ -0,0 +1,169 @@
+package uz.itpu.teamwork.project.meal.product.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import uz.itpu.teamwork.project.meal.product.dto.request.ProductImportRequest;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based product writes for bulk imports. Every method is a single JDBC
+ * batch (or a single statement), bypassing the persistence context: products
+ * use IDENTITY ids, which stop Hibernate from batching inserts.
+ * Callers run inside a transaction and publish the catalog change themselves.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductBulkRepository {
+
+    private static final String INSERT_PRODUCT = """
+            INSERT INTO products (name, description, category_id, base_price, is_active,
+                                  rating, rating_count, created_at, updated_at)
+            VALUES (:name, :description, :categoryId, :basePrice, :isActive, 0, 0, :now, :now)
+            """;
+
+    private static final String UPDATE_PRODUCT = """
+            UPDATE products
+            SET name = :name, description = :description, category_id = :categoryId,
+                base_price = :basePrice, is_active = :isActive, updated_at = :now
+            WHERE id = :id
+            """;
+
+    private static final String INSERT_INGREDIENT = """
+            INSERT INTO product_ingredients (product_id, ingredient_id, quantity)
+            VALUES (:productId, :ingredientId, :quantity)
+            """;
+
+    /**
+     * Upsert keeps the stock of countries that stay in the availability map.
+     */
+    private static final String UPSERT_AVAILABILITY = """
+            INSERT INTO product_availability (product_id, country_id, is_available, created_at, updated_at)
+            VALUES (:productId, :countryId, :isAvailable, :now, :now)
+            ON CONFLICT (product_id, country_id)
+            DO UPDATE SET is_available = EXCLUDED.is_available, updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String INSERT_MODIFIER = """
+            INSERT INTO product_modifiers (product_id, modifier_id)
+            VALUES (:productId, :modifierId)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record IngredientLink(long productId, long ingredientId, String quantity) {
+    }
+
+    public record AvailabilityLink(long productId, long countryId, boolean available) {
+    }
+
+    public record ModifierLink(long productId, long modifierId) {
+    }
+
+    /**
+     * Inserts all rows in one batch and returns the generated ids in row order.
+     */
+    public List<Long> insertProducts(List<? extends ProductImportRequest> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        SqlParameterSource[] batch = rows.stream()
+                .map(row -> productParameters(row, now))
+                .toArray(SqlParameterSource[]::new);
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, batch, keys, new String[]{"id"});
+        return keys.getKeyList().stream()
+                .map(key -> ((Number) key.get("id")).longValue())
+                .toList();
+    }
+
+    public void updateProducts(List<? extends ProductImportRequest> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_PRODUCT, rows.stream()
+                .map(row -> productParameters(row, now).addValue("id", row.getId()))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    /**
+     * Drops the current ingredients of {@code clearedProductIds}, then inserts {@code links}.
+     */
+    public void replaceIngredients(Collection<Long> clearedProductIds, List<IngredientLink> links) {
+        if (!clearedProductIds.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM product_ingredients WHERE product_id IN (:ids)",
+                    Map.of("ids", clearedProductIds));
+        }
+        jdbcTemplate.batchUpdate(INSERT_INGREDIENT, links.stream()
+                .map(link -> new MapSqlParameterSource()
+                        .addValue("productId", link.productId())
+                        .addValue("ingredientId", link.ingredientId())
+                        .addValue("quantity", link.quantity()))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    /**
+     * Makes {@code links} the complete availability of {@code clearedProductIds}
+     * (and of any new product in {@code links}): countries no longer listed are removed.
+     */
+    public void replaceAvailability(Collection<Long> clearedProductIds, List<AvailabilityLink> links) {
+        if (!clearedProductIds.isEmpty()) {
+            if (links.isEmpty()) {
+                jdbcTemplate.update("DELETE FROM product_availability WHERE product_id IN (:ids)",
+                        Map.of("ids", clearedProductIds));
+            } else {
+                List<Object[]> kept = links.stream()
+                        .map(link -> new Object[]{link.productId(), link.countryId()})
+                        .toList();
+                jdbcTemplate.update("""
+                                DELETE FROM product_availability
+                                WHERE product_id IN (:ids) AND (product_id, country_id) NOT IN (:kept)
+                                """,
+                        new MapSqlParameterSource().addValue("ids", clearedProductIds).addValue("kept", kept));
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_AVAILABILITY, links.stream()
+                .map(link -> new MapSqlParameterSource()
+                        .addValue("productId", link.productId())
+                        .addValue("countryId", link.countryId())
+                        .addValue("isAvailable", link.available())
+                        .addValue("now", now))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    public void replaceModifiers(Collection<Long> clearedProductIds, List<ModifierLink> links) {
+        if (!clearedProductIds.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM product_modifiers WHERE product_id IN (:ids)",
+                    Map.of("ids", clearedProductIds));
+        }
+        jdbcTemplate.batchUpdate(INSERT_MODIFIER, links.stream()
+                .map(link -> new MapSqlParameterSource()
+                        .addValue("productId", link.productId())
+                        .addValue("modifierId", link.modifierId()))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    private static MapSqlParameterSource productParameters(ProductImportRequest row, Timestamp now) {
+        return new MapSqlParameterSource()
+                .addValue("name", row.getName())
+                .addValue("description", row.getDescription())
+                .addValue("categoryId", row.getCategoryId())
+                .addValue("basePrice", row.getBasePrice())
+                .addValue("isActive", row.getIsActive() != null ? row.getIsActive() : Boolean.TRUE)
+                .addValue("now", now);
+    }
+}
@@ -0,0 +1,48 @@
+package uz.itpu.teamwork.project.meal.product.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import uz.itpu.teamwork.project.meal.common.storage.StoredFileReferences;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Product image URLs (original and both variants) for the orphan-file sweep:
+ * one statement per batch of candidate files instead of a lookup per file.
+ * <p>
+ * Candidates are matched on the URL's trailing path rather than on the whole
+ * URL, so changing {@code app.storage.local.base-url} does not make every
+ * stored image look orphaned.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductImageReferenceRepository implements StoredFileReferences {
+
+    private static final String FIND_REFERENCED = """
+            SELECT candidate.path
+            FROM (VALUES :paths) AS candidate(path)
+            WHERE EXISTS (
+                SELECT 1 FROM products p
+                WHERE RIGHT(p.image_url, LENGTH(candidate.path) + 1) = '/' || candidate.path
+                   OR RIGHT(p.thumbnail_url, LENGTH(candidate.path) + 1) = '/' || candidate.path
+                   OR RIGHT(p.medium_url, LENGTH(candidate.path) + 1) = '/' || candidate.path
+            )
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Set<String> findReferenced(Collection<String> paths) {
+        if (paths.isEmpty()) {
+            return Set.of();
+        }
+        // a list of arrays expands to (?), (?), ... for the VALUES rows
+        List<Object[]> rows = paths.stream().map(path -> new Object[]{path}).toList();
+        return new HashSet<>(jdbcTemplate.queryForList(FIND_REFERENCED, Map.of("paths", rows), String.class));
+    }
+}
@@ -1,13 +1,22 @@
 package uz.itpu.teamwork.project.meal.product.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import uz.itpu.teamwork.project.meal.product.model.Product;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
@@ -18,12 +27,58 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.isActive = true")
     List<Product> findActiveByCategoryId(@Param("categoryId") Long categoryId);
 
-    @Query("SELECT p FROM Product p WHERE " +
-            "LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Product> searchProducts(@Param("searchTerm") String searchTerm);
-
     @Query("SELECT p FROM Product p WHERE p.basePrice BETWEEN :minPrice AND :maxPrice")
     List<Product> findByPriceRange(@Param("minPrice") BigDecimal minPrice,
                                    @Param("maxPrice") BigDecimal maxPrice);
-}
\ No newline at end of file
+
+    /**
+     * Whole catalog for the snapshot rebuild: one query for products + categories,
+     * then one batched query per child collection.
+     */
+    @EntityGraph(Product.GRAPH_LIST)
+    @Query("SELECT p FROM Product p")
+    List<Product> findAllForCatalog();
+
+    /**
+     * Single product with every association the response needs, in one query.
+     */
+    @EntityGraph(Product.GRAPH_DETAIL)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findWithDetailsById(@Param("id") Long id);
+
+    /**
+     * Which of {@code ids} exist, without loading the products.
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Records generated image variants, but only while {@code sourceUrl} is still
+     * the product's image; returns 0 if the image was replaced in the meantime.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE Product p
+            SET p.thumbnailUrl = :thumbnailUrl, p.mediumUrl = :mediumUrl
+            WHERE p.id = :id AND p.imageUrl = :sourceUrl
+            """)
+    int updateImageVariants(
+            @Param("id") Long id,
+            @Param("sourceUrl") String sourceUrl,
+            @Param("thumbnailUrl") String thumbnailUrl,
+            @Param("mediumUrl") String mediumUrl
+    );
+
+    @Override
+    @EntityGraph(Product.GRAPH_LIST)
+    Page<Product> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(Product.GRAPH_LIST)
+    List<Product> findAll(Specification<Product> spec);
+
+    @Override
+    @EntityGraph(Product.GRAPH_LIST)
+    Page<Product> findAll(Specification<Product> spec, Pageable pageable);
+}
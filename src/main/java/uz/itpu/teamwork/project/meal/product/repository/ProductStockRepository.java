@@ -0,0 +1,103 @@
+package uz.itpu.teamwork.project.meal.product.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Per-country stock counters on {@code product_availability}. Each write is a
+ * single conditional UPDATE, so the check and the decrement happen under the
+ * row lock and concurrent orders can never take the same unit twice.
+ * <p>
+ * A NULL {@code stock_quantity} means the product is not stock-tracked in that
+ * country: it can always be reserved and its counter is left NULL.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductStockRepository {
+
+    /**
+     * Matches only when the product is available and (if tracked) has enough
+     * stock; the row is switched off when it reaches zero. SET expressions see
+     * the pre-update values.
+     */
+    private static final String RESERVE = """
+            UPDATE product_availability
+            SET stock_quantity = CASE WHEN stock_quantity IS NULL THEN NULL ELSE stock_quantity - :quantity END,
+                is_available = CASE WHEN stock_quantity IS NULL THEN is_available ELSE stock_quantity > :quantity END,
+                updated_at = :now
+            WHERE product_id = :productId
+              AND country_id = (SELECT id FROM countries WHERE code = :countryCode)
+              AND is_available = TRUE
+              AND (stock_quantity IS NULL OR stock_quantity >= :quantity)
+            """;
+
+    /**
+     * Gives stock back; a row switched off by running out is switched back on,
+     * one disabled by staff while still stocked stays off.
+     */
+    private static final String RELEASE = """
+            UPDATE product_availability
+            SET stock_quantity = stock_quantity + :quantity,
+                is_available = CASE WHEN stock_quantity = 0 THEN TRUE ELSE is_available END,
+                updated_at = :now
+            WHERE product_id = :productId
+              AND country_id = (SELECT id FROM countries WHERE code = :countryCode)
+              AND stock_quantity IS NOT NULL
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record StockLine(long productId, int quantity) {
+    }
+
+    /**
+     * Reserves every line in one batch. The result holds the update count of
+     * each line in order; 0 means that line could not be reserved and the
+     * caller must roll back.
+     */
+    public int[] reserve(String countryCode, List<StockLine> lines) {
+        return jdbcTemplate.batchUpdate(RESERVE, parameters(countryCode, lines));
+    }
+
+    public void release(String countryCode, List<StockLine> lines) {
+        jdbcTemplate.batchUpdate(RELEASE, parameters(countryCode, lines));
+    }
+
+    /**
+     * Which of {@code productIds} are out of stock in the country.
+     */
+    public List<Long> findSoldOut(String countryCode, Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList("""
+                        SELECT pa.product_id
+                        FROM product_availability pa
+                        JOIN countries c ON c.id = pa.country_id
+                        WHERE c.code = :countryCode AND pa.product_id IN (:ids) AND pa.stock_quantity = 0
+                        """,
+                new MapSqlParameterSource()
+                        .addValue("countryCode", countryCode)
+                        .addValue("ids", productIds),
+                Long.class);
+    }
+
+    private static SqlParameterSource[] parameters(String countryCode, List<StockLine> lines) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return lines.stream()
+                .map(line -> new MapSqlParameterSource()
+                        .addValue("productId", line.productId())
+                        .addValue("quantity", line.quantity())
+                        .addValue("countryCode", countryCode)
+                        .addValue("now", now))
+                .toArray(SqlParameterSource[]::new);
+    }
+}
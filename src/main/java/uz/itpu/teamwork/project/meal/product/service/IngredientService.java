@@ -1,41 +1,38 @@
 package uz.itpu.teamwork.project.meal.product.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogChangedEvent;
+import uz.itpu.teamwork.project.meal.catalog.mapper.CatalogMapper;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
 import uz.itpu.teamwork.project.meal.product.dto.request.IngredientRequest;
 import uz.itpu.teamwork.project.meal.product.dto.response.IngredientResponse;
 import uz.itpu.teamwork.project.meal.product.model.Ingredient;
 import uz.itpu.teamwork.project.meal.product.repository.IngredientRepository;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class IngredientService {
 
     private final IngredientRepository ingredientRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Transactional(readOnly = true)
     public List<IngredientResponse> getAllIngredients() {
-        return ingredientRepository.findAll().stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return catalogSnapshotService.current().getIngredients();
     }
 
-    @Transactional(readOnly = true)
     public IngredientResponse getIngredientById(Long id) {
-        Ingredient ingredient = ingredientRepository.findById(id)
+        return catalogSnapshotService.current().findIngredient(id)
                 .orElseThrow(() -> new RuntimeException("Ingredient not found with id: " + id));
-        return toResponse(ingredient);
     }
 
-    @Transactional(readOnly = true)
     public List<IngredientResponse> getAllergens() {
-        return ingredientRepository.findByIsAllergenTrue().stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return catalogSnapshotService.current().getAllergens();
     }
 
     @Transactional
@@ -50,7 +47,8 @@ public class IngredientService {
                 .build();
 
         Ingredient saved = ingredientRepository.save(ingredient);
-        return toResponse(saved);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.INGREDIENT, saved.getId()));
+        return CatalogMapper.toIngredientResponse(saved);
     }
 
     @Transactional
@@ -67,7 +65,8 @@ public class IngredientService {
         ingredient.setIsAllergen(request.getIsAllergen());
 
         Ingredient updated = ingredientRepository.save(ingredient);
-        return toResponse(updated);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.INGREDIENT, id));
+        return CatalogMapper.toIngredientResponse(updated);
     }
 
     @Transactional
@@ -76,14 +75,6 @@ public class IngredientService {
             throw new RuntimeException("Ingredient not found with id: " + id);
         }
         ingredientRepository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.INGREDIENT, id));
     }
-
-    private IngredientResponse toResponse(Ingredient i) {
-        return IngredientResponse.builder()
-                .id(i.getId())
-                .name(i.getName())
-                .isAllergen(i.getIsAllergen())
-                .createdAt(i.getCreatedAt())
-                .build();
-    }
-}
\ No newline at end of file
+}
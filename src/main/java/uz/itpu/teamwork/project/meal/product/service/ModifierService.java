@@ -1,41 +1,38 @@
 package uz.itpu.teamwork.project.meal.product.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogChangedEvent;
+import uz.itpu.teamwork.project.meal.catalog.mapper.CatalogMapper;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
 import uz.itpu.teamwork.project.meal.product.dto.request.ModifierRequest;
 import uz.itpu.teamwork.project.meal.product.dto.response.ModifierResponse;
 import uz.itpu.teamwork.project.meal.product.model.Modifier;
 import uz.itpu.teamwork.project.meal.product.repository.ModifierRepository;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ModifierService {
 
     private final ModifierRepository modifierRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Transactional(readOnly = true)
     public List<ModifierResponse> getAllModifiers() {
-        return modifierRepository.findAll().stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return catalogSnapshotService.current().getModifiers();
     }
 
-    @Transactional(readOnly = true)
     public List<ModifierResponse> getActiveModifiers() {
-        return modifierRepository.findByIsActiveTrue().stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return catalogSnapshotService.current().getActiveModifiers();
     }
 
-    @Transactional(readOnly = true)
     public ModifierResponse getModifierById(Long id) {
-        Modifier modifier = modifierRepository.findById(id)
+        return catalogSnapshotService.current().findModifier(id)
                 .orElseThrow(() -> new RuntimeException("Modifier not found with id: " + id));
-        return toResponse(modifier);
     }
 
     @Transactional
@@ -48,7 +45,8 @@ public class ModifierService {
                 .build();
 
         Modifier saved = modifierRepository.save(modifier);
-        return toResponse(saved);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.MODIFIER, saved.getId()));
+        return CatalogMapper.toModifierResponse(saved);
     }
 
     @Transactional
@@ -62,7 +60,8 @@ public class ModifierService {
         modifier.setIsActive(request.getIsActive());
 
         Modifier updated = modifierRepository.save(modifier);
-        return toResponse(updated);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.MODIFIER, id));
+        return CatalogMapper.toModifierResponse(updated);
     }
 
     @Transactional
@@ -71,16 +70,6 @@ public class ModifierService {
             throw new RuntimeException("Modifier not found with id: " + id);
         }
         modifierRepository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.MODIFIER, id));
     }
-
-    private ModifierResponse toResponse(Modifier m) {
-        return ModifierResponse.builder()
-                .id(m.getId())
-                .name(m.getName())
-                .description(m.getDescription())
-                .priceAdjustment(m.getPriceAdjustment())
-                .isActive(m.getIsActive())
-                .createdAt(m.getCreatedAt())
-                .build();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,201 @@
+package uz.itpu.teamwork.project.meal.product.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogChangedEvent;
+import uz.itpu.teamwork.project.meal.common.storage.FileStorage;
+import uz.itpu.teamwork.project.meal.common.storage.ImageFormat;
+import uz.itpu.teamwork.project.meal.product.event.ProductImageChangedEvent;
+import uz.itpu.teamwork.project.meal.product.repository.ProductRepository;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Generates downscaled variants of product images off the request thread.
+ * <p>
+ * After an image change commits, a worker reads the original once, writes a
+ * thumbnail (list views) and a medium image (detail views) and records their
+ * URLs on the product. If the product's image was replaced while the job ran,
+ * the stale variants are deleted instead.
+ * <p>
+ * A full decode of an 8000x8000 upload is ~256 MB of heap, so jobs run on
+ * {@link #WORKERS} platform threads rather than one virtual thread each, and
+ * large originals are subsampled while decoding to no more than twice the
+ * medium size.
+ * <p>
+ * The JDK ships no WebP reader, so WebP originals get no variants: they are
+ * skipped up front and keep null variant URLs, which readers replace with the
+ * original image. Variants themselves are always JPEG.
+ */
+@Slf4j
+@Service
+public class ProductImageVariantService {
+
+    static final int THUMBNAIL_SIZE = 320;
+    static final int MEDIUM_SIZE = 960;
+    static final int DECODE_SIZE = 2 * MEDIUM_SIZE;
+
+    private static final int WORKERS = 2;
+
+    private static final String FOLDER = "products";
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private final FileStorage fileStorage;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService executor = Executors.newFixedThreadPool(
+            WORKERS, Thread.ofPlatform().name("image-variants-", 0).daemon().factory());
+
+    public ProductImageVariantService(
+            FileStorage fileStorage,
+            ProductRepository productRepository,
+            ApplicationEventPublisher eventPublisher
+    ) {
+        this.fileStorage = fileStorage;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageChanged(ProductImageChangedEvent event) {
+        executor.execute(() -> generate(event.getProductId(), event.getImageUrl()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    void generate(Long productId, String imageUrl) {
+        if (imageUrl.toLowerCase(Locale.ROOT).endsWith(ImageFormat.WEBP.getExtension())) {
+            log.info("WebP image {} cannot be decoded, product {} is served the original for every size",
+                    imageUrl, productId);
+            return;
+        }
+        try {
+            BufferedImage original;
+            try (InputStream in = fileStorage.openFile(imageUrl)) {
+                original = decode(in, DECODE_SIZE);
+            }
+            if (original == null) {
+                log.info("No decoder for image {}, product {} keeps only the original", imageUrl, productId);
+                return;
+            }
+
+            String thumbnailUrl = store(resize(original, THUMBNAIL_SIZE));
+            String mediumUrl = store(resize(original, MEDIUM_SIZE));
+
+            if (productRepository.updateImageVariants(productId, imageUrl, thumbnailUrl, mediumUrl) == 0) {
+                log.debug("Image of product {} changed during variant generation, discarding variants", productId);
+                fileStorage.deleteFile(thumbnailUrl);
+                fileStorage.deleteFile(mediumUrl);
+                return;
+            }
+
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, productId));
+            log.info("Image variants ready for product {}: {}, {}", productId, thumbnailUrl, mediumUrl);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to generate image variants for product {} from {}", productId, imageUrl, e);
+        }
+    }
+
+    /**
+     * Decodes the first image in {@code in}, reading only every n-th pixel
+     * when the longer side exceeds {@code minSide} by a factor of n or more,
+     * so the result keeps at least {@code minSide} on its longer side.
+     *
+     * @return the image, or {@code null} if no installed reader understands it
+     */
+    static BufferedImage decode(InputStream in, int minSide) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            if (stream == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / minSide);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales the longer side down to {@code maxSide} (never up), halving in
+     * steps so bilinear filtering keeps detail on large reductions.
+     */
+    static BufferedImage resize(BufferedImage source, int maxSide) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxSide / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        // JPEG has no alpha: flatten onto white so transparent PNGs do not turn black
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private String store(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return fileStorage.storeFile(new ByteArrayInputStream(bytes.toByteArray()), FOLDER, ".jpg");
+    }
+}
@@ -0,0 +1,464 @@
+package uz.itpu.teamwork.project.meal.product.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.itpu.teamwork.project.exception.BadRequestException;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogChangedEvent;
+import uz.itpu.teamwork.project.meal.category.model.Category;
+import uz.itpu.teamwork.project.meal.category.repository.CategoryRepository;
+import uz.itpu.teamwork.project.meal.common.csv.CsvReader;
+import uz.itpu.teamwork.project.meal.country.model.Country;
+import uz.itpu.teamwork.project.meal.country.repository.CountryRepository;
+import uz.itpu.teamwork.project.meal.product.dto.request.ProductImportRequest;
+import uz.itpu.teamwork.project.meal.product.dto.request.ProductIngredientRequest;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductImportResponse;
+import uz.itpu.teamwork.project.meal.product.model.Ingredient;
+import uz.itpu.teamwork.project.meal.product.model.Modifier;
+import uz.itpu.teamwork.project.meal.product.repository.IngredientRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ModifierRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ProductBulkRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ProductRepository;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk create/update of products from a JSON array or a CSV stream.
+ * <p>
+ * Rows are processed in chunks: every category, ingredient, country, modifier
+ * and product a chunk references is resolved with one query per kind, invalid
+ * rows are reported and skipped, and the valid ones are written through
+ * {@link ProductBulkRepository} JDBC batches in one transaction per chunk.
+ * Should the database still reject a chunk, its rows are retried one by one.
+ * The catalog is refreshed once at the end.
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private static final BigDecimal MIN_PRICE = new BigDecimal("0.01");
+
+    // column limits of products.name, products.base_price numeric(10, 2) and product_ingredients.quantity
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+    private static final int PRICE_SCALE = 2;
+    private static final int MAX_QUANTITY_LENGTH = 50;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final IngredientRepository ingredientRepository;
+    private final CountryRepository countryRepository;
+    private final ModifierRepository modifierRepository;
+    private final ProductBulkRepository productBulkRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+
+    public ProductImportService(
+            ProductRepository productRepository,
+            CategoryRepository categoryRepository,
+            IngredientRepository ingredientRepository,
+            CountryRepository countryRepository,
+            ModifierRepository modifierRepository,
+            ProductBulkRepository productBulkRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.countryRepository = countryRepository;
+        this.modifierRepository = modifierRepository;
+        this.productBulkRepository = productBulkRepository;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    private record Row(int number, ProductImportRequest request, String error) {
+    }
+
+    /**
+     * Everything a chunk references that actually exists.
+     */
+    private record References(
+            Set<Long> productIds,
+            Set<Long> categoryIds,
+            Set<Long> ingredientIds,
+            Map<String, Long> countryIds,
+            Set<Long> modifierIds
+    ) {
+    }
+
+    private static final class ImportRun {
+        private final Set<Long> seenIds = new HashSet<>();
+        private final List<ProductImportResponse.RowError> errors = new ArrayList<>();
+        private int total;
+        private int created;
+        private int updated;
+
+        void saved(List<Row> rows) {
+            int updates = (int) rows.stream().filter(row -> row.request().getId() != null).count();
+            updated += updates;
+            created += rows.size() - updates;
+        }
+
+        void fail(Row row, String message) {
+            errors.add(ProductImportResponse.RowError.builder()
+                    .row(row.number())
+                    .name(row.request() != null ? row.request().getName() : null)
+                    .message(message)
+                    .build());
+        }
+
+        ProductImportResponse toResponse() {
+            return ProductImportResponse.builder()
+                    .total(total)
+                    .created(created)
+                    .updated(updated)
+                    .failed(errors.size())
+                    .errors(errors)
+                    .build();
+        }
+    }
+
+    public ProductImportResponse importProducts(List<ProductImportRequest> requests) {
+        ImportRun run = new ImportRun();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < requests.size(); i++) {
+            ProductImportRequest request = requests.get(i);
+            chunk.add(new Row(i + 1, request, request == null ? "Row is empty" : null));
+            if (chunk.size() == CHUNK_SIZE) {
+                importChunk(chunk, run);
+                chunk.clear();
+            }
+        }
+        return finish(chunk, run);
+    }
+
+    /**
+     * CSV with a header row. Recognised columns (any order, case-insensitive):
+     * {@code id, name, description, categoryId, basePrice, isActive, ingredients,
+     * availability, modifierIds}. List columns are separated by {@code ;}:
+     * ingredients as {@code ingredientId[:quantity]}, availability as
+     * {@code CODE[:true|false]}. Row numbers in errors are CSV line numbers.
+     */
+    public ProductImportResponse importCsv(Reader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new BadRequestException("CSV is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).strip().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("baseprice")) {
+            throw new BadRequestException("CSV header must contain name and basePrice columns");
+        }
+
+        ImportRun run = new ImportRun();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            chunk.add(parseCsvRow(csv.getRecordLine(), columns, fields));
+            if (chunk.size() == CHUNK_SIZE) {
+                importChunk(chunk, run);
+                chunk.clear();
+            }
+        }
+        return finish(chunk, run);
+    }
+
+    private ProductImportResponse finish(List<Row> lastChunk, ImportRun run) {
+        if (!lastChunk.isEmpty()) {
+            importChunk(lastChunk, run);
+        }
+        if (run.created + run.updated > 0) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, null));
+        }
+        log.info("Product import finished: {} rows, {} created, {} updated, {} failed",
+                run.total, run.created, run.updated, run.errors.size());
+        return run.toResponse();
+    }
+
+    private void importChunk(List<Row> chunk, ImportRun run) {
+        run.total += chunk.size();
+        References references = resolve(chunk);
+
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            String error = row.error() != null ? row.error() : validate(row.request(), references, run.seenIds);
+            if (error != null) {
+                run.fail(row, error);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            transaction.executeWithoutResult(status -> write(valid, references));
+            run.saved(valid);
+        } catch (DataAccessException e) {
+            // something validate() cannot see: retry alone so only the rows at fault are reported
+            log.warn("Product import chunk of {} rows rolled back, retrying row by row", valid.size(), e);
+            for (Row row : valid) {
+                try {
+                    transaction.executeWithoutResult(status -> write(List.of(row), references));
+                    run.saved(List.of(row));
+                } catch (DataAccessException rowFailure) {
+                    run.fail(row, "Not saved: " + rowFailure.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private References resolve(List<Row> chunk) {
+        List<ProductImportRequest> requests = chunk.stream()
+                .filter(row -> row.error() == null)
+                .map(Row::request)
+                .toList();
+
+        Set<Long> productIds = requests.stream()
+                .map(ProductImportRequest::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> categoryIds = requests.stream()
+                .map(ProductImportRequest::getCategoryId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> ingredientIds = requests.stream()
+                .filter(request -> request.getIngredients() != null)
+                .flatMap(request -> request.getIngredients().stream())
+                .map(ProductIngredientRequest::getIngredientId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> countryCodes = requests.stream()
+                .filter(request -> request.getAvailability() != null)
+                .flatMap(request -> request.getAvailability().keySet().stream())
+                .filter(Objects::nonNull)
+                .map(code -> code.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        Set<Long> modifierIds = requests.stream()
+                .filter(request -> request.getModifierIds() != null)
+                .flatMap(request -> request.getModifierIds().stream())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        return new References(
+                productIds.isEmpty() ? Set.of() : productRepository.findExistingIds(productIds),
+                categoryRepository.findAllById(categoryIds).stream().map(Category::getId).collect(Collectors.toSet()),
+                ingredientRepository.findAllById(ingredientIds).stream().map(Ingredient::getId).collect(Collectors.toSet()),
+                countryCodes.isEmpty() ? Map.of() : countryRepository.findByCodeIn(countryCodes).stream()
+                        .collect(Collectors.toMap(c -> c.getCode().toUpperCase(Locale.ROOT), Country::getId, (a, b) -> a)),
+                modifierRepository.findAllById(modifierIds).stream().map(Modifier::getId).collect(Collectors.toSet())
+        );
+    }
+
+    private String validate(ProductImportRequest request, References references, Set<Long> seenIds) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            return "Product name is required";
+        }
+        if (request.getBasePrice() == null) {
+            return "Base price is required";
+        }
+        if (request.getName().length() > MAX_NAME_LENGTH) {
+            return "Product name must be at most " + MAX_NAME_LENGTH + " characters";
+        }
+        if (request.getBasePrice().compareTo(MIN_PRICE) < 0) {
+            return "Price must be greater than 0";
+        }
+        if (request.getBasePrice().compareTo(MAX_PRICE) > 0) {
+            return "Price must be at most " + MAX_PRICE.toPlainString();
+        }
+        if (request.getBasePrice().stripTrailingZeros().scale() > PRICE_SCALE) {
+            return "Price must have at most " + PRICE_SCALE + " decimal places";
+        }
+        if (request.getId() != null && !references.productIds().contains(request.getId())) {
+            return notFound("Product", "id", request.getId());
+        }
+        if (request.getCategoryId() != null && !references.categoryIds().contains(request.getCategoryId())) {
+            return notFound("Category", "id", request.getCategoryId());
+        }
+        if (request.getIngredients() != null) {
+            for (ProductIngredientRequest ingredient : request.getIngredients()) {
+                if (ingredient.getIngredientId() == null) {
+                    return "Ingredient ID is required";
+                }
+                if (!references.ingredientIds().contains(ingredient.getIngredientId())) {
+                    return notFound("Ingredient", "id", ingredient.getIngredientId());
+                }
+                if (ingredient.getQuantity() != null && ingredient.getQuantity().length() > MAX_QUANTITY_LENGTH) {
+                    return "Ingredient quantity must be at most " + MAX_QUANTITY_LENGTH + " characters";
+                }
+            }
+        }
+        if (request.getAvailability() != null) {
+            for (String code : request.getAvailability().keySet()) {
+                if (code == null || !references.countryIds().containsKey(code.toUpperCase(Locale.ROOT))) {
+                    return notFound("Country", "code", code);
+                }
+            }
+        }
+        if (request.getModifierIds() != null) {
+            for (Long modifierId : request.getModifierIds()) {
+                if (modifierId == null || !references.modifierIds().contains(modifierId)) {
+                    return notFound("Modifier", "id", modifierId);
+                }
+            }
+        }
+        if (request.getId() != null && !seenIds.add(request.getId())) {
+            return "Product " + request.getId() + " appears more than once in this import";
+        }
+        return null;
+    }
+
+    private void write(List<Row> rows, References references) {
+        List<ProductImportRequest> creates = new ArrayList<>();
+        List<ProductImportRequest> updates = new ArrayList<>();
+        for (Row row : rows) {
+            (row.request().getId() == null ? creates : updates).add(row.request());
+        }
+
+        List<Long> createdIds = productBulkRepository.insertProducts(creates);
+        productBulkRepository.updateProducts(updates);
+
+        Map<ProductImportRequest, Long> productIds = new LinkedHashMap<>();
+        for (int i = 0; i < creates.size(); i++) {
+            productIds.put(creates.get(i), createdIds.get(i));
+        }
+        updates.forEach(request -> productIds.put(request, request.getId()));
+
+        List<Long> ingredientsCleared = new ArrayList<>();
+        List<Long> availabilityCleared = new ArrayList<>();
+        List<Long> modifiersCleared = new ArrayList<>();
+        List<ProductBulkRepository.IngredientLink> ingredients = new ArrayList<>();
+        List<ProductBulkRepository.AvailabilityLink> availability = new ArrayList<>();
+        List<ProductBulkRepository.ModifierLink> modifiers = new ArrayList<>();
+
+        productIds.forEach((request, productId) -> {
+            boolean existing = request.getId() != null;
+
+            if (request.getIngredients() != null) {
+                if (existing) {
+                    ingredientsCleared.add(productId);
+                }
+                // one row per ingredient (unique constraint); the last quantity wins
+                Map<Long, String> quantities = new LinkedHashMap<>();
+                request.getIngredients().forEach(i -> quantities.put(i.getIngredientId(), i.getQuantity()));
+                quantities.forEach((ingredientId, quantity) ->
+                        ingredients.add(new ProductBulkRepository.IngredientLink(productId, ingredientId, quantity)));
+            }
+
+            if (request.getAvailability() != null) {
+                if (existing) {
+                    availabilityCleared.add(productId);
+                }
+                Map<Long, Boolean> byCountry = new LinkedHashMap<>();
+                request.getAvailability().forEach((code, available) ->
+                        byCountry.put(references.countryIds().get(code.toUpperCase(Locale.ROOT)), !Boolean.FALSE.equals(available)));
+                byCountry.forEach((countryId, available) ->
+                        availability.add(new ProductBulkRepository.AvailabilityLink(productId, countryId, available)));
+            }
+
+            if (request.getModifierIds() != null) {
+                if (existing) {
+                    modifiersCleared.add(productId);
+                }
+                new LinkedHashSet<>(request.getModifierIds()).forEach(modifierId ->
+                        modifiers.add(new ProductBulkRepository.ModifierLink(productId, modifierId)));
+            }
+        });
+
+        productBulkRepository.replaceIngredients(ingredientsCleared, ingredients);
+        productBulkRepository.replaceAvailability(availabilityCleared, availability);
+        productBulkRepository.replaceModifiers(modifiersCleared, modifiers);
+    }
+
+    private Row parseCsvRow(int line, Map<String, Integer> columns, List<String> fields) {
+        ProductImportRequest request = new ProductImportRequest();
+        try {
+            String id = field(columns, fields, "id");
+            request.setId(id != null ? Long.valueOf(id) : null);
+            request.setName(field(columns, fields, "name"));
+            request.setDescription(field(columns, fields, "description"));
+            String categoryId = field(columns, fields, "categoryid");
+            request.setCategoryId(categoryId != null ? Long.valueOf(categoryId) : null);
+            String basePrice = field(columns, fields, "baseprice");
+            request.setBasePrice(basePrice != null ? new BigDecimal(basePrice) : null);
+            String isActive = field(columns, fields, "isactive");
+            request.setIsActive(isActive == null || Boolean.parseBoolean(isActive));
+
+            String ingredients = field(columns, fields, "ingredients");
+            if (ingredients != null) {
+                List<ProductIngredientRequest> parsed = new ArrayList<>();
+                for (String item : listItems(ingredients)) {
+                    String[] parts = item.split(":", 2);
+                    ProductIngredientRequest ingredient = new ProductIngredientRequest();
+                    ingredient.setIngredientId(Long.valueOf(parts[0].strip()));
+                    ingredient.setQuantity(parts.length > 1 ? parts[1].strip() : null);
+                    parsed.add(ingredient);
+                }
+                request.setIngredients(parsed);
+            }
+
+            String availability = field(columns, fields, "availability");
+            if (availability != null) {
+                Map<String, Boolean> parsed = new LinkedHashMap<>();
+                for (String item : listItems(availability)) {
+                    String[] parts = item.split(":", 2);
+                    parsed.put(parts[0].strip(), parts.length == 1 || Boolean.parseBoolean(parts[1].strip()));
+                }
+                request.setAvailability(parsed);
+            }
+
+            String modifierIds = field(columns, fields, "modifierids");
+            if (modifierIds != null) {
+                request.setModifierIds(listItems(modifierIds).stream().map(Long::valueOf).toList());
+            }
+        } catch (NumberFormatException e) {
+            return new Row(line, request, "Invalid number: " + e.getMessage());
+        }
+        return new Row(line, request, null);
+    }
+
+    private static String field(Map<String, Integer> columns, List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<String> listItems(String value) {
+        return Arrays.stream(value.split(";"))
+                .map(String::strip)
+                .filter(item -> !item.isEmpty())
+                .toList();
+    }
+
+    private static String notFound(String resource, String field, Object value) {
+        return String.format("%s not found with %s: '%s'", resource, field, value);
+    }
+}
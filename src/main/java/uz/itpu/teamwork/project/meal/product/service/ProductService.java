@@ -1,29 +1,58 @@
 package uz.itpu.teamwork.project.meal.product.service;
 
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogChangedEvent;
+import uz.itpu.teamwork.project.meal.catalog.mapper.CatalogMapper;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
+import uz.itpu.teamwork.project.meal.catalog.service.ProductFacetService;
+import uz.itpu.teamwork.project.meal.catalog.service.ProductSearchService;
+import uz.itpu.teamwork.project.meal.catalog.service.ProductSuggestService;
 import uz.itpu.teamwork.project.meal.category.model.Category;
 import uz.itpu.teamwork.project.meal.category.repository.CategoryRepository;
+import uz.itpu.teamwork.project.meal.common.pagination.Cursor;
+import uz.itpu.teamwork.project.meal.common.pagination.CursorPage;
+import uz.itpu.teamwork.project.meal.common.storage.FileStorage;
 import uz.itpu.teamwork.project.meal.country.model.Country;
 import uz.itpu.teamwork.project.meal.country.repository.CountryRepository;
 import uz.itpu.teamwork.project.exception.ResourceNotFoundException;
 import uz.itpu.teamwork.project.meal.product.dto.request.ProductIngredientRequest;
 import uz.itpu.teamwork.project.meal.product.dto.request.ProductRequest;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductFacetResponse;
 import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductSuggestionResponse;
+import uz.itpu.teamwork.project.meal.product.enums.ProductSortField;
+import uz.itpu.teamwork.project.meal.product.event.ProductImageChangedEvent;
 import uz.itpu.teamwork.project.meal.product.model.*;
 import uz.itpu.teamwork.project.meal.product.repository.IngredientRepository;
 import uz.itpu.teamwork.project.meal.product.repository.ModifierRepository;
 import uz.itpu.teamwork.project.meal.product.repository.ProductRepository;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,55 +64,112 @@ public class ProductService {
     private final IngredientRepository ingredientRepository;
     private final ModifierRepository modifierRepository;
     private final CountryRepository countryRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ProductSearchService productSearchService;
+    private final ProductSuggestService productSuggestService;
+    private final ProductFacetService productFacetService;
+    private final FileStorage fileStorage;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Transactional(readOnly = true)
     public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return catalogSnapshotService.current().getProducts();
     }
 
     @Transactional(readOnly = true)
     public Page<ProductResponse> getProducts(Pageable pageable) {
         return productRepository.findAll(pageable)
-                .map(this::toResponse);
+                .map(CatalogMapper::toProductResponse);
     }
 
+    /**
+     * Keyset page of products ordered by {@code sortField} then id. Fetches one
+     * row more than asked to detect a next page, so no count query runs unless
+     * {@code includeTotal} is set.
+     */
     @Transactional(readOnly = true)
+    public CursorPage<ProductResponse> getProductsAfter(
+            ProductSortField sortField,
+            Sort.Direction direction,
+            String cursor,
+            int limit,
+            boolean includeTotal
+    ) {
+        Specification<Product> spec = cursor == null
+                ? (root, query, cb) -> cb.conjunction()
+                : after(sortField, direction, Cursor.decode(cursor));
+        Sort sort = Sort.by(direction, sortField.getProperty()).and(Sort.by(direction, "id"));
+
+        List<Product> rows = productRepository.findBy(spec, q -> q.sortBy(sort).limit(limit + 1).all());
+        Long total = includeTotal ? productRepository.count() : null;
+
+        return CursorPage.of(
+                rows,
+                limit,
+                product -> new Cursor(sortField.formatKey(product), product.getId()),
+                CatalogMapper::toProductResponse,
+                total
+        );
+    }
+
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
+        return catalogSnapshotService.current().findProduct(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
-        return toResponse(product);
     }
 
-    @Transactional(readOnly = true)
     public List<ProductResponse> getProductsByCategory(Long categoryId) {
-        return productRepository.findByCategoryId(categoryId).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return catalogSnapshotService.current().getProductsByCategory(categoryId);
     }
 
-    @Transactional(readOnly = true)
     public List<ProductResponse> getActiveProducts() {
-        return productRepository.findByIsActiveTrue().stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return catalogSnapshotService.current().getActiveProducts();
+    }
+
+    public Page<ProductResponse> searchProducts(String searchTerm, Pageable pageable) {
+        return productSearchService.search(searchTerm, pageable);
+    }
+
+    public List<ProductSuggestionResponse> suggestProducts(String prefix, String countryCode, int limit) {
+        return productSuggestService.suggest(prefix, countryCode, limit);
+    }
+
+    public ProductFacetResponse browseFacets(
+            Long categoryId,
+            String countryCode,
+            String priceBand,
+            boolean allergenFree,
+            int page,
+            int size
+    ) {
+        return productFacetService.browse(categoryId, countryCode, priceBand, allergenFree, page, size);
     }
 
     @Transactional(readOnly = true)
-    public List<ProductResponse> searchProducts(String searchTerm) {
-        return productRepository.searchProducts(searchTerm).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+    public Page<ProductResponse> filterProducts(
+            Long categoryId,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            String countryCode,
+            Boolean isActive,
+            Pageable pageable
+    ) {
+        return filterProducts(categoryId, minPrice, maxPrice, countryCode, isActive, null, false, pageable);
     }
 
+    /**
+     * As above, additionally dropping products that contain any of
+     * {@code excludeIngredientIds}, or any allergen when {@code allergenFree} is set.
+     * The exclusion is a NOT EXISTS anti-join, so its size follows the request, not the catalog.
+     */
     @Transactional(readOnly = true)
-    public List<ProductResponse> filterProducts(
+    public Page<ProductResponse> filterProducts(
             Long categoryId,
             BigDecimal minPrice,
             BigDecimal maxPrice,
             String countryCode,
-            Boolean isActive
+            Boolean isActive,
+            Collection<Long> excludeIngredientIds,
+            boolean allergenFree,
+            Pageable pageable
     ) {
         Specification<Product> spec = null;
 
@@ -91,7 +177,7 @@ public class ProductService {
             spec = byCategory(categoryId);
         }
 
-        if (minPrice != null && maxPrice != null) {
+        if (minPrice != null || maxPrice != null) {
             spec = (spec == null ? byPriceRange(minPrice, maxPrice) : spec.and(byPriceRange(minPrice, maxPrice)));
         }
 
@@ -99,19 +185,45 @@ public class ProductService {
             spec = (spec == null ? byActive(isActive) : spec.and(byActive(isActive)));
         }
 
-        List<Product> products = (spec == null)
-                ? productRepository.findAll()
-                : productRepository.findAll(spec);
-
         if (countryCode != null) {
-            products = products.stream()
-                    .filter(p -> isProductAvailableInCountry(p, countryCode))
-                    .toList();
+            spec = (spec == null ? availableInCountry(countryCode) : spec.and(availableInCountry(countryCode)));
+        }
+
+        if (allergenFree || (excludeIngredientIds != null && !excludeIngredientIds.isEmpty())) {
+            Specification<Product> without = withoutIngredients(excludeIngredientIds, allergenFree);
+            spec = (spec == null ? without : spec.and(without));
         }
 
-        return products.stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        Page<Product> products = (spec == null)
+                ? productRepository.findAll(pageable)
+                : productRepository.findAll(spec, pageable);
+
+        return products.map(CatalogMapper::toProductResponse);
+    }
+
+    /**
+     * Rows strictly past the cursor in (sort key, id) order:
+     * {@code key > k OR (key = k AND id > lastId)}, mirrored for descending order.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Specification<Product> after(ProductSortField sortField, Sort.Direction direction, Cursor cursor) {
+        boolean ascending = direction.isAscending();
+        if (sortField == ProductSortField.ID) {
+            return (root, query, cb) -> ascending
+                    ? cb.greaterThan(root.get("id"), cursor.getId())
+                    : cb.lessThan(root.get("id"), cursor.getId());
+        }
+
+        Comparable key = sortField.parseKey(cursor.getKey());
+        return (root, query, cb) -> {
+            Path<Comparable> sortKey = root.get(sortField.getProperty());
+            Path<Long> id = root.get("id");
+            return ascending
+                    ? cb.or(cb.greaterThan(sortKey, key),
+                            cb.and(cb.equal(sortKey, key), cb.greaterThan(id, cursor.getId())))
+                    : cb.or(cb.lessThan(sortKey, key),
+                            cb.and(cb.equal(sortKey, key), cb.lessThan(id, cursor.getId())));
+        };
     }
 
     private Specification<Product> byCategory(Long categoryId) {
@@ -119,13 +231,59 @@ public class ProductService {
     }
 
     private Specification<Product> byPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return (root, query, cb) -> cb.between(root.get("basePrice"), minPrice, maxPrice);
+        return (root, query, cb) -> {
+            if (minPrice != null && maxPrice != null) {
+                return cb.between(root.get("basePrice"), minPrice, maxPrice);
+            }
+            return minPrice != null
+                    ? cb.greaterThanOrEqualTo(root.get("basePrice"), minPrice)
+                    : cb.lessThanOrEqualTo(root.get("basePrice"), maxPrice);
+        };
     }
 
     private Specification<Product> byActive(Boolean isActive) {
         return (root, query, cb) -> cb.equal(root.get("isActive"), isActive);
     }
 
+    /**
+     * Anti-join on product_ingredients/ingredients: no line naming one of
+     * {@code ingredientIds}, nor any allergen when {@code allergenFree} is set.
+     */
+    private Specification<Product> withoutIngredients(Collection<Long> ingredientIds, boolean allergenFree) {
+        return (root, query, cb) -> {
+            Subquery<Long> contained = query.subquery(Long.class);
+            Root<ProductIngredient> line = contained.from(ProductIngredient.class);
+            Join<ProductIngredient, Ingredient> ingredient = line.join("ingredient");
+
+            List<Predicate> excluded = new ArrayList<>();
+            if (ingredientIds != null && !ingredientIds.isEmpty()) {
+                excluded.add(ingredient.get("id").in(ingredientIds));
+            }
+            if (allergenFree) {
+                excluded.add(cb.isTrue(ingredient.get("isAllergen")));
+            }
+
+            contained.select(line.get("id"))
+                    .where(cb.equal(line.get("product"), root), cb.or(excluded.toArray(Predicate[]::new)));
+            return cb.not(cb.exists(contained));
+        };
+    }
+
+    /**
+     * Inner join on product_availability/countries. The (product_id, country_id)
+     * unique constraint guarantees at most one row per product, so no DISTINCT is needed.
+     */
+    private Specification<Product> availableInCountry(String countryCode) {
+        return (root, query, cb) -> {
+            Join<Product, ProductAvailability> availability = root.join("productAvailabilities");
+            Join<ProductAvailability, Country> country = availability.join("country");
+            return cb.and(
+                    cb.equal(country.get("code"), countryCode),
+                    cb.isTrue(availability.get("isAvailable"))
+            );
+        };
+    }
+
 
     @Transactional
     public ProductResponse createProduct(ProductRequest request) {
@@ -162,66 +320,110 @@ public class ProductService {
             savedProduct = productRepository.save(savedProduct);
         }
 
-        return toResponse(savedProduct);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, savedProduct.getId()));
+        return CatalogMapper.toProductResponse(savedProduct);
     }
 
+    /**
+     * Applies only what differs from the stored product: children are matched by
+     * ingredient id / country code and updated in place, added or removed, so
+     * unchanged rows are never rewritten. An update that changes nothing issues
+     * no SQL and does not refresh the catalog.
+     */
     @Transactional
     public ProductResponse updateProduct(Long id, ProductRequest request) {
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
 
-        product.setName(request.getName());
-        product.setDescription(request.getDescription());
-        product.setBasePrice(request.getBasePrice());
-        product.setIsActive(request.getIsActive());
+        boolean changed = false;
+        if (!Objects.equals(product.getName(), request.getName())) {
+            product.setName(request.getName());
+            changed = true;
+        }
+        if (!Objects.equals(product.getDescription(), request.getDescription())) {
+            product.setDescription(request.getDescription());
+            changed = true;
+        }
+        if (product.getBasePrice() == null || request.getBasePrice() == null
+                || product.getBasePrice().compareTo(request.getBasePrice()) != 0) {
+            product.setBasePrice(request.getBasePrice());
+            changed = true;
+        }
+        if (!Objects.equals(product.getIsActive(), request.getIsActive())) {
+            product.setIsActive(request.getIsActive());
+            changed = true;
+        }
 
-        if (request.getCategoryId() != null) {
-            Category category = categoryRepository.findById(request.getCategoryId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Category", "id", request.getCategoryId()));
-            product.setCategory(category);
-        } else {
-            product.setCategory(null);
+        Long currentCategoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        if (!Objects.equals(currentCategoryId, request.getCategoryId())) {
+            product.setCategory(request.getCategoryId() == null ? null
+                    : categoryRepository.findById(request.getCategoryId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Category", "id", request.getCategoryId())));
+            changed = true;
         }
 
         if (request.getIngredients() != null) {
-            product.getProductIngredients().clear();
-            productRepository.saveAndFlush(product);
-            addIngredientsToProduct(product, request.getIngredients());
+            changed |= syncIngredients(product, request.getIngredients());
         }
-
         if (request.getAvailability() != null) {
-            product.getProductAvailabilities().clear();
-            productRepository.saveAndFlush(product);
-            addAvailabilityToProduct(product, request.getAvailability());
+            changed |= syncAvailability(product, request.getAvailability());
         }
-
         if (request.getModifierIds() != null) {
-            Set<Modifier> modifiers = new HashSet<>(
-                    modifierRepository.findAllById(request.getModifierIds())
-            );
-            product.setModifiers(modifiers);
+            changed |= syncModifiers(product, request.getModifierIds());
         }
 
-        Product updated = productRepository.save(product);
-        return toResponse(updated);
+        // the product is managed: dirty checking flushes exactly the changes made above
+        if (changed) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, id));
+        }
+        return CatalogMapper.toProductResponse(product);
     }
 
     @Transactional
     public void deleteProduct(Long id) {
-        if (!productRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Product", "id", id);
-        }
-        productRepository.deleteById(id);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        productRepository.delete(product);
+        releaseImages(product.getImageUrl(), product.getThumbnailUrl(), product.getMediumUrl());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, id));
     }
 
+    /**
+     * Sets the product's original image and takes over the storage reference
+     * {@code imageUrl} was stored with. The previous image and its variants
+     * are released; their files go only once this transaction commits.
+     */
     @Transactional
     public ProductResponse updateProductImage(Long id, String imageUrl) {
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
 
+        if (Objects.equals(product.getImageUrl(), imageUrl)) {
+            // the same content stored again (content-addressed mode): keep one reference
+            releaseImages(imageUrl);
+        } else {
+            // variants of the previous image no longer apply; new ones follow asynchronously
+            releaseImages(product.getImageUrl(), product.getThumbnailUrl(), product.getMediumUrl());
+            product.setThumbnailUrl(null);
+            product.setMediumUrl(null);
+        }
         product.setImageUrl(imageUrl);
         Product updated = productRepository.save(product);
-        return toResponse(updated);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, id));
+        if (imageUrl != null && product.getThumbnailUrl() == null) {
+            eventPublisher.publishEvent(new ProductImageChangedEvent(id, imageUrl));
+        }
+        return CatalogMapper.toProductResponse(updated);
+    }
+
+    private void releaseImages(String... fileUrls) {
+        for (String fileUrl : fileUrls) {
+            try {
+                fileStorage.deleteFile(fileUrl);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 
     private void addIngredientsToProduct(Product product, List<ProductIngredientRequest> ingredientRequests) {
@@ -239,6 +441,100 @@ public class ProductService {
         }
     }
 
+    private boolean syncIngredients(Product product, List<ProductIngredientRequest> requests) {
+        Map<Long, String> wanted = new LinkedHashMap<>();
+        requests.forEach(req -> wanted.put(req.getIngredientId(), req.getQuantity()));
+
+        boolean changed = product.getProductIngredients()
+                .removeIf(pi -> !wanted.containsKey(pi.getIngredient().getId()));
+
+        Map<Long, ProductIngredient> existing = product.getProductIngredients().stream()
+                .collect(Collectors.toMap(pi -> pi.getIngredient().getId(), Function.identity()));
+        List<Long> missing = new ArrayList<>();
+        for (Map.Entry<Long, String> entry : wanted.entrySet()) {
+            ProductIngredient current = existing.get(entry.getKey());
+            if (current == null) {
+                missing.add(entry.getKey());
+            } else if (!Objects.equals(current.getQuantity(), entry.getValue())) {
+                current.setQuantity(entry.getValue());
+                changed = true;
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Long, Ingredient> found = ingredientRepository.findAllById(missing).stream()
+                    .collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+            for (Long ingredientId : missing) {
+                Ingredient ingredient = Optional.ofNullable(found.get(ingredientId))
+                        .orElseThrow(() -> new ResourceNotFoundException("Ingredient", "id", ingredientId));
+                product.getProductIngredients().add(ProductIngredient.builder()
+                        .product(product)
+                        .ingredient(ingredient)
+                        .quantity(wanted.get(ingredientId))
+                        .build());
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    private boolean syncAvailability(Product product, Map<String, Boolean> availability) {
+        Map<String, Boolean> wanted = new LinkedHashMap<>();
+        availability.forEach((code, available) -> wanted.put(code.toUpperCase(Locale.ROOT), available));
+
+        boolean changed = product.getProductAvailabilities()
+                .removeIf(pa -> !wanted.containsKey(pa.getCountry().getCode().toUpperCase(Locale.ROOT)));
+
+        Map<String, ProductAvailability> existing = product.getProductAvailabilities().stream()
+                .collect(Collectors.toMap(pa -> pa.getCountry().getCode().toUpperCase(Locale.ROOT), Function.identity()));
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, Boolean> entry : wanted.entrySet()) {
+            ProductAvailability current = existing.get(entry.getKey());
+            if (current == null) {
+                missing.add(entry.getKey());
+            } else if (!Objects.equals(current.getIsAvailable(), entry.getValue())) {
+                current.setIsAvailable(entry.getValue());
+                changed = true;
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, Country> found = countryRepository.findByCodeIn(missing).stream()
+                    .collect(Collectors.toMap(c -> c.getCode().toUpperCase(Locale.ROOT), Function.identity(), (a, b) -> a));
+            for (String code : missing) {
+                Country country = Optional.ofNullable(found.get(code))
+                        .orElseThrow(() -> new ResourceNotFoundException("Country", "code", code));
+                product.getProductAvailabilities().add(ProductAvailability.builder()
+                        .product(product)
+                        .country(country)
+                        .isAvailable(wanted.get(code))
+                        .build());
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    private boolean syncModifiers(Product product, List<Long> modifierIds) {
+        Set<Long> wanted = new HashSet<>(modifierIds);
+        Set<Long> current = product.getModifiers().stream()
+                .map(Modifier::getId)
+                .collect(Collectors.toSet());
+        if (wanted.equals(current)) {
+            return false;
+        }
+
+        Map<Long, Modifier> found = modifierRepository.findAllById(wanted).stream()
+                .collect(Collectors.toMap(Modifier::getId, Function.identity()));
+        Set<Modifier> modifiers = new HashSet<>();
+        for (Long modifierId : wanted) {
+            modifiers.add(Optional.ofNullable(found.get(modifierId))
+                    .orElseThrow(() -> new ResourceNotFoundException("Modifier", "id", modifierId)));
+        }
+        product.setModifiers(modifiers);
+        return true;
+    }
+
     private void addAvailabilityToProduct(Product product, Map<String, Boolean> availability) {
         for (Map.Entry<String, Boolean> entry : availability.entrySet()) {
             Country country = countryRepository.findByCode(entry.getKey())
@@ -253,60 +549,4 @@ public class ProductService {
             product.getProductAvailabilities().add(productAvailability);
         }
     }
-
-    private boolean isProductAvailableInCountry(Product product, String countryCode) {
-        return product.getProductAvailabilities().stream()
-                .anyMatch(pa -> pa.getCountry().getCode().equals(countryCode) && pa.getIsAvailable());
-    }
-
-    private ProductResponse toResponse(Product p) {
-        Map<String, ProductResponse.AvailabilityInfo> availabilityMap = p.getProductAvailabilities().stream()
-                .collect(Collectors.toMap(
-                        pa -> pa.getCountry().getCode(),
-                        pa -> ProductResponse.AvailabilityInfo.builder()
-                                .isAvailable(pa.getIsAvailable())
-                                .stockQuantity(pa.getStockQuantity())
-                                .countryName(pa.getCountry().getName())
-                                .build()
-                ));
-
-        List<ProductResponse.IngredientInfo> ingredients = p.getProductIngredients().stream()
-                .map(pi -> ProductResponse.IngredientInfo.builder()
-                        .id(pi.getIngredient().getId())
-                        .name(pi.getIngredient().getName())
-                        .quantity(pi.getQuantity())
-                        .isAllergen(pi.getIngredient().getIsAllergen())
-                        .build())
-                .collect(Collectors.toList());
-
-        List<ProductResponse.ModifierInfo> modifiers = p.getModifiers().stream()
-                .map(m -> ProductResponse.ModifierInfo.builder()
-                        .id(m.getId())
-                        .name(m.getName())
-                        .description(m.getDescription())
-                        .priceAdjustment(m.getPriceAdjustment())
-                        .isActive(m.getIsActive())
-                        .build())
-                .collect(Collectors.toList());
-
-        return ProductResponse.builder()
-                .id(p.getId())
-                .name(p.getName())
-                .description(p.getDescription())
-                .categoryId(p.getCategory() != null ? p.getCategory().getId() : null)
-                .categoryName(p.getCategory() != null ? p.getCategory().getName() : null)
-                .basePrice(p.getBasePrice())
-                .imageUrl(p.getImageUrl())
-                .isActive(p.getIsActive())
-                .rating(p.getRating() != null ? p.getRating() : BigDecimal.ZERO)
-                .ratingCount(p.getRatingCount() != null ? p.getRatingCount() : 0)
-
-                .ingredients(ingredients)
-                .availability(availabilityMap)
-                .modifiers(modifiers)
-                .createdAt(p.getCreatedAt())
-                .updatedAt(p.getUpdatedAt())
-                .build();
-    }
-
-}
\ No newline at end of file
+}
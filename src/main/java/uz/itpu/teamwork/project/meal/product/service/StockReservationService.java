@@ -0,0 +1,97 @@
+package uz.itpu.teamwork.project.meal.product.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uz.itpu.teamwork.project.exception.BadRequestException;
+import uz.itpu.teamwork.project.exception.InvalidOperationException;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogChangedEvent;
+import uz.itpu.teamwork.project.meal.product.repository.ProductStockRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ProductStockRepository.StockLine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Takes and returns per-country stock for orders. Runs inside the caller's
+ * transaction: a failed reservation throws, rolling back the lines already
+ * taken together with the order itself.
+ * <p>
+ * Lines are applied in product id order so two orders sharing products lock
+ * their rows in the same order and cannot deadlock. The catalog is refreshed
+ * only when a product sells out or comes back; plain decrements leave the
+ * snapshot's stock figures to catch up with the next catalog write.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private final ProductStockRepository productStockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * @param quantities product id → quantity; repeated products must already be summed
+     * @throws BadRequestException if no country is given
+     * @throws InvalidOperationException if any product is unavailable or short of stock
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(String countryCode, Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        if (countryCode == null || countryCode.isBlank()) {
+            throw new BadRequestException("Country code is required to reserve stock");
+        }
+        String code = countryCode.toUpperCase(Locale.ROOT);
+        List<StockLine> lines = lines(quantities);
+
+        int[] updated = productStockRepository.reserve(code, lines);
+
+        List<Long> rejected = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (updated[i] == 0) {
+                rejected.add(lines.get(i).productId());
+            }
+        }
+        if (!rejected.isEmpty()) {
+            log.info("Stock reservation rejected in {} for products {}", code, rejected);
+            throw new InvalidOperationException("Insufficient stock in " + code + " for products " + rejected);
+        }
+
+        List<Long> soldOut = productStockRepository.findSoldOut(code, quantities.keySet());
+        if (!soldOut.isEmpty()) {
+            log.info("Products {} sold out in {}", soldOut, code);
+            publishChange(soldOut);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(String countryCode, Map<Long, Integer> quantities) {
+        // orders placed before a country was required never took any stock
+        if (countryCode == null || quantities.isEmpty()) {
+            return;
+        }
+        productStockRepository.release(countryCode.toUpperCase(Locale.ROOT), lines(quantities));
+        publishChange(List.copyOf(quantities.keySet()));
+    }
+
+    private void publishChange(List<Long> productIds) {
+        eventPublisher.publishEvent(new CatalogChangedEvent(
+                CatalogChangedEvent.Type.PRODUCT,
+                productIds.size() == 1 ? productIds.get(0) : null
+        ));
+    }
+
+    private static List<StockLine> lines(Map<Long, Integer> quantities) {
+        return new TreeMap<>(quantities).entrySet().stream()
+                .map(entry -> new StockLine(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+}
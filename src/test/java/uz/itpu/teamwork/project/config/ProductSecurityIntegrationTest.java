@@ -23,6 +23,7 @@ import uz.itpu.teamwork.project.auth.security.JwtAuthenticationFilter;
 import uz.itpu.teamwork.project.meal.product.controller.ProductController;
 import uz.itpu.teamwork.project.meal.product.dto.request.ProductRequest;
 import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+import uz.itpu.teamwork.project.meal.product.service.ProductImportService;
 import uz.itpu.teamwork.project.meal.product.service.ProductService;
 
 import java.math.BigDecimal;
@@ -55,6 +56,9 @@ class ProductSecurityIntegrationTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductImportService productImportService;
+
     @MockBean
     private CustomUserDetailsService customUserDetailsService;
 
@@ -0,0 +1,229 @@
+package uz.itpu.teamwork.project.meal.cart.controller;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import uz.itpu.teamwork.project.auth.security.UserPrincipal;
+import uz.itpu.teamwork.project.exception.BadRequestException;
+import uz.itpu.teamwork.project.meal.cart.dto.request.CartOperationRequest;
+import uz.itpu.teamwork.project.meal.cart.dto.request.CartOperationRequest.Operation;
+import uz.itpu.teamwork.project.meal.cart.dto.request.CartPatchRequest;
+import uz.itpu.teamwork.project.meal.cart.dto.response.CartItemResponse;
+import uz.itpu.teamwork.project.meal.cart.dto.response.CartResponse;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.NewLine;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.StoredCart;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.StoredLine;
+import uz.itpu.teamwork.project.meal.cart.service.CartService;
+import uz.itpu.teamwork.project.meal.cart.service.CartStore;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * PATCH /api/cart through the controller, service and in-memory store, with
+ * only the JDBC layer mocked: steps apply in order, a bad step names its
+ * index and leaves the cart as it was, and the request is capped at 100 steps.
+ */
+@ExtendWith(MockitoExtension.class)
+class CartControllerPatchTest {
+
+    private static final long USER_ID = 7L;
+    private static final BigDecimal PRICE = new BigDecimal("4.50");
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @Mock
+    private CartLineRepository cartLineRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    private CartController controller;
+
+    @BeforeAll
+    static void createValidator() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        CartStore store = new CartStore(cartLineRepository, transactionManager);
+        ReflectionTestUtils.setField(store, "flushBatchSize", 500);
+        ReflectionTestUtils.setField(store, "idleTimeout", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(store, "stickyRouting", true);
+        controller = new CartController(new CartService(store, catalogSnapshotService));
+    }
+
+    @Test
+    void patchCart_ShouldApplyEveryOperationInOrder() {
+        givenStoredCartAndCatalog();
+        when(cartLineRepository.upsertItems(1L, List.of(new NewLine(3L, 1, PRICE))))
+                .thenReturn(List.of(new StoredLine(200L, 3L, 1, PRICE)));
+
+        CartResponse cart = patch(
+                add(1L, 2),
+                setQuantity(11L, 5),
+                add(3L, 1),
+                remove(10L));
+
+        assertThat(cart.getItems())
+                .extracting(CartItemResponse::getId, CartItemResponse::getProductId, CartItemResponse::getQuantity)
+                .containsExactly(tuple(11L, 2L, 5), tuple(200L, 3L, 1));
+        assertThat(cart.getTotalItems()).isEqualTo(6);
+        assertThat(cart.getTotalPrice()).isEqualByComparingTo("27.00");
+    }
+
+    @Test
+    void patchCart_UnknownItem_ShouldNameFailingStepAndChangeNothing() {
+        givenStoredCartAndCatalog();
+
+        assertThatThrownBy(() -> patch(
+                add(3L, 1),
+                remove(10L),
+                setQuantity(99L, 2)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Operation 2");
+
+        verify(cartLineRepository, never()).upsertItems(anyLong(), anyList());
+        assertUnchanged();
+    }
+
+    @Test
+    void patchCart_IncompleteStep_ShouldNameItBeforeAnyStepApplies() {
+        givenStoredCartAndCatalog();
+
+        assertThatThrownBy(() -> patch(
+                remove(10L),
+                CartOperationRequest.builder().op(Operation.ADD).productId(1L).build()))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Operation 1: ADD needs product_id and quantity");
+
+        assertUnchanged();
+    }
+
+    @Test
+    void patchRequest_HundredOperations_ShouldBeValid() {
+        assertThat(validator.validate(request(operations(100)))).isEmpty();
+    }
+
+    @Test
+    void patchRequest_MoreThanHundredOperations_ShouldBeRejected() {
+        Set<ConstraintViolation<CartPatchRequest>> violations = validator.validate(request(operations(101)));
+
+        assertThat(violations)
+                .extracting(ConstraintViolation::getMessage)
+                .containsExactly("At most 100 operations per request");
+    }
+
+    @Test
+    void patchRequest_NoOperations_ShouldBeRejected() {
+        assertThat(validator.validate(request(List.of())))
+                .extracting(ConstraintViolation::getMessage)
+                .containsExactly("At least one operation is required");
+    }
+
+    @Test
+    void patchRequest_InvalidStep_ShouldReportItsIndex() {
+        Set<ConstraintViolation<CartPatchRequest>> violations =
+                validator.validate(request(List.of(add(1L, 1), add(2L, 0))));
+
+        assertThat(violations)
+                .extracting(violation -> violation.getPropertyPath().toString(), ConstraintViolation::getMessage)
+                .containsExactly(tuple("operations[1].quantity", "Quantity must be at least 1"));
+    }
+
+    private void givenStoredCartAndCatalog() {
+        when(cartLineRepository.findByUserId(USER_ID)).thenReturn(Optional.of(new StoredCart(1L, null, List.of(
+                new StoredLine(10L, 1L, 1, PRICE),
+                new StoredLine(11L, 2L, 2, PRICE)))));
+        when(catalogSnapshotService.current()).thenReturn(new CatalogSnapshot(1L,
+                List.of(product(1L), product(2L), product(3L)), List.of(), List.of(), List.of()));
+    }
+
+    private void assertUnchanged() {
+        CartResponse cart = cartOf(controller.getCart(principal(), new MockHttpSession()));
+        assertThat(cart.getItems())
+                .extracting(CartItemResponse::getId, CartItemResponse::getQuantity)
+                .containsExactly(tuple(10L, 1), tuple(11L, 2));
+    }
+
+    private CartResponse patch(CartOperationRequest... operations) {
+        return cartOf(controller.patchCart(principal(), request(List.of(operations)), new MockHttpSession()));
+    }
+
+    private static CartResponse cartOf(ResponseEntity<Map<String, Object>> response) {
+        return (CartResponse) response.getBody().get("data");
+    }
+
+    private static CartPatchRequest request(List<CartOperationRequest> operations) {
+        return CartPatchRequest.builder().operations(operations).build();
+    }
+
+    private static List<CartOperationRequest> operations(int count) {
+        List<CartOperationRequest> operations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            operations.add(add(1L, 1));
+        }
+        return operations;
+    }
+
+    private static CartOperationRequest add(long productId, int quantity) {
+        return CartOperationRequest.builder().op(Operation.ADD).productId(productId).quantity(quantity).build();
+    }
+
+    private static CartOperationRequest setQuantity(long itemId, int quantity) {
+        return CartOperationRequest.builder().op(Operation.SET_QUANTITY).itemId(itemId).quantity(quantity).build();
+    }
+
+    private static CartOperationRequest remove(long itemId) {
+        return CartOperationRequest.builder().op(Operation.REMOVE).itemId(itemId).build();
+    }
+
+    private static ProductResponse product(long id) {
+        return ProductResponse.builder().id(id).name("Product " + id).basePrice(PRICE).isActive(true).build();
+    }
+
+    private static UserPrincipal principal() {
+        return new UserPrincipal(USER_ID, "user@example.com", "hash", List.of(), true, false);
+    }
+}
@@ -0,0 +1,182 @@
+package uz.itpu.teamwork.project.meal.cart.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.util.ReflectionTestUtils;
+import uz.itpu.teamwork.project.auth.security.UserPrincipal;
+import uz.itpu.teamwork.project.meal.cart.dto.request.UpdateCartItemRequest;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository;
+import uz.itpu.teamwork.project.meal.cart.service.CartService;
+import uz.itpu.teamwork.project.meal.cart.service.CartStore;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counts the statements a cart request costs. The principal already carries
+ * the user id, so no request may read the users table. With sticky routing a
+ * loaded cart is served from memory; with the default non-sticky routing each
+ * request loads the cart once and writes its changes through.
+ */
+@ExtendWith(MockitoExtension.class)
+class CartControllerQueryCountTest {
+
+    private static final long USER_WITH_CART = 7L;
+    private static final long USER_WITHOUT_CART = 8L;
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    private JdbcTemplate jdbc;
+    private CountingDataSource dataSource;
+    private CartStore store;
+    private CartController controller;
+    private long itemId;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource h2 = new DriverManagerDataSource("jdbc:h2:mem:cart-query-count;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(h2);
+        jdbc.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, email VARCHAR(255))");
+        jdbc.execute("""
+                CREATE TABLE carts (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    user_id BIGINT UNIQUE REFERENCES users (id),
+                    session_id VARCHAR(255) UNIQUE,
+                    created_at TIMESTAMP,
+                    updated_at TIMESTAMP
+                )
+                """);
+        jdbc.execute("""
+                CREATE TABLE cart_items (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    cart_id BIGINT NOT NULL REFERENCES carts (id),
+                    product_id BIGINT NOT NULL,
+                    quantity INT NOT NULL,
+                    price_snapshot NUMERIC(10, 2),
+                    created_at TIMESTAMP,
+                    updated_at TIMESTAMP,
+                    CONSTRAINT uk_cart_items_cart_product UNIQUE (cart_id, product_id)
+                )
+                """);
+        jdbc.update("INSERT INTO users (id, email) VALUES (?, 'with-cart@example.com'), (?, 'no-cart@example.com')",
+                USER_WITH_CART, USER_WITHOUT_CART);
+        jdbc.update("INSERT INTO carts (user_id) VALUES (?)", USER_WITH_CART);
+        jdbc.update("""
+                INSERT INTO cart_items (cart_id, product_id, quantity, price_snapshot)
+                SELECT id, 3, 1, 4.50 FROM carts WHERE user_id = ?
+                """, USER_WITH_CART);
+        itemId = jdbc.queryForObject("SELECT id FROM cart_items", Long.class);
+
+        dataSource = new CountingDataSource(h2);
+        store = new CartStore(
+                new CartLineRepository(new NamedParameterJdbcTemplate(dataSource)),
+                new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(store, "flushBatchSize", 500);
+        ReflectionTestUtils.setField(store, "idleTimeout", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(store, "stickyRouting", true);
+        controller = new CartController(new CartService(store, catalogSnapshotService));
+        when(catalogSnapshotService.current()).thenReturn(CatalogSnapshot.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void getCart_RepeatedRequestsWithStickyRouting_ShouldLoadCartOnceAndNeverTheUser() {
+        controller.getCart(principal(USER_WITH_CART), new MockHttpSession());
+        controller.getCart(principal(USER_WITH_CART), new MockHttpSession());
+        controller.updateItem(principal(USER_WITH_CART), itemId, new UpdateCartItemRequest(2), new MockHttpSession());
+
+        assertThat(dataSource.statements).hasSize(1);
+        assertThat(dataSource.statements.get(0)).contains("from carts");
+        assertThat(dataSource.statements).noneMatch(sql -> sql.contains("users"));
+    }
+
+    @Test
+    void getCart_RepeatedRequestsWithDefaultRouting_ShouldLoadPerRequestAndWriteThrough() {
+        ReflectionTestUtils.setField(store, "stickyRouting", false);
+
+        controller.getCart(principal(USER_WITH_CART), new MockHttpSession());
+        controller.getCart(principal(USER_WITH_CART), new MockHttpSession());
+        controller.updateItem(principal(USER_WITH_CART), itemId, new UpdateCartItemRequest(2), new MockHttpSession());
+
+        // two reads at one load each; the update loads, writes the line and touches the cart
+        assertThat(dataSource.statements).hasSize(5);
+        assertThat(dataSource.statements).filteredOn(sql -> sql.contains("from carts")).hasSize(3);
+        assertThat(dataSource.statements.get(3)).startsWith("update cart_items");
+        assertThat(dataSource.statements.get(4)).startsWith("update carts");
+        assertThat(dataSource.statements).noneMatch(sql -> sql.contains("users"));
+        assertThat(jdbc.queryForObject("SELECT quantity FROM cart_items WHERE id = ?", Integer.class, itemId))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void getCart_UserWithoutCart_ShouldCreateCartFromIdOnly() {
+        controller.getCart(principal(USER_WITHOUT_CART), new MockHttpSession());
+
+        assertThat(dataSource.statements).hasSize(2);
+        assertThat(dataSource.statements.get(1)).contains("insert into carts");
+        assertThat(dataSource.statements).noneMatch(sql -> sql.contains("users"));
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM carts WHERE user_id = ?", Integer.class, USER_WITHOUT_CART))
+                .isEqualTo(1);
+    }
+
+    private static UserPrincipal principal(long userId) {
+        return new UserPrincipal(userId, "user" + userId + "@example.com", "hash", List.of(), true, false);
+    }
+
+    /**
+     * Records the SQL of every statement prepared through it, lower-cased.
+     */
+    private static final class CountingDataSource extends DelegatingDataSource {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        private CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") && args != null && args[0] instanceof String sql) {
+                            statements.add(sql.toLowerCase(Locale.ROOT));
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
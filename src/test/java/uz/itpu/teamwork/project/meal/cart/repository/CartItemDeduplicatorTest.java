@@ -0,0 +1,83 @@
+package uz.itpu.teamwork.project.meal.cart.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+class CartItemDeduplicatorTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:cart-dedup;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+        // as left behind by the schema before the unique key existed
+        jdbc.execute("""
+                CREATE TABLE cart_items (
+                    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    cart_id BIGINT NOT NULL,
+                    product_id BIGINT NOT NULL,
+                    quantity INT NOT NULL,
+                    price_snapshot NUMERIC(10, 2)
+                )
+                """);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void deduplicate_ShouldMergeOntoOldestRowSoTheConstraintFits() {
+        insert(1, 10, 2, "4.50");
+        insert(1, 10, 3, "5.00");
+        insert(1, 10, 1, "5.50");
+        insert(1, 11, 1, "2.00");
+        insert(2, 10, 4, "4.50");
+
+        int removed = new CartItemDeduplicator(dataSource).deduplicate();
+
+        assertThat(removed).isEqualTo(2);
+        List<Map<String, Object>> rows = jdbc.queryForList(
+                "SELECT id, cart_id, product_id, quantity, price_snapshot FROM cart_items ORDER BY id");
+        assertThat(rows).extracting(row -> row.get("ID")).containsExactly(1L, 4L, 5L);
+        assertThat(rows.get(0).get("QUANTITY")).isEqualTo(6);
+        assertThat(rows.get(0).get("PRICE_SNAPSHOT").toString()).isEqualTo("4.50");
+        assertThatCode(() -> jdbc.execute(
+                "ALTER TABLE cart_items ADD CONSTRAINT uk_cart_items_cart_product UNIQUE (cart_id, product_id)"))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void deduplicate_ConstraintInPlace_ShouldNotTouchTheTable() {
+        jdbc.execute("ALTER TABLE cart_items ADD CONSTRAINT uk_cart_items_cart_product UNIQUE (cart_id, product_id)");
+        insert(1, 10, 2, "4.50");
+
+        assertThat(new CartItemDeduplicator(dataSource).deduplicate()).isZero();
+        assertThat(jdbc.queryForObject("SELECT quantity FROM cart_items", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    void deduplicate_FreshDatabase_ShouldSkip() {
+        jdbc.execute("DROP TABLE cart_items");
+
+        assertThat(new CartItemDeduplicator(dataSource).deduplicate()).isZero();
+    }
+
+    private void insert(long cartId, long productId, int quantity, String price) {
+        jdbc.update("INSERT INTO cart_items (cart_id, product_id, quantity, price_snapshot) VALUES (?, ?, ?, ?)",
+                cartId, productId, quantity, new BigDecimal(price));
+    }
+}
@@ -0,0 +1,97 @@
+package uz.itpu.teamwork.project.meal.cart.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.StoredLine;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers one cart line with concurrent adds. Runs against a PostgreSQL
+ * started in-process because the upsert relies on its ON CONFLICT DO UPDATE;
+ * the schema is shared with {@link CartLineRepositoryUpsertTest}.
+ */
+class CartLineRepositoryConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ADDS_PER_THREAD = 50;
+    private static final BigDecimal PRICE = new BigDecimal("3.20");
+    private static final Resource CART_SCHEMA = new ClassPathResource("db/cart-schema.sql");
+
+    private static EmbeddedPostgres postgres;
+
+    private JdbcTemplate jdbc;
+    private CartLineRepository repository;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = postgres.getPostgresDatabase();
+        jdbc = new JdbcTemplate(dataSource);
+        new ResourceDatabasePopulator(CART_SCHEMA).execute(dataSource);
+        repository = new CartLineRepository(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @Test
+    void upsertItem_ConcurrentAdds_ShouldKeepOneRowAndEveryIncrement() throws Exception {
+        long cartId = repository.create(7L, null).cartId();
+        Set<Integer> observedQuantities = ConcurrentHashMap.newKeySet();
+        Set<Long> itemIds = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                    StoredLine line = repository.upsertItem(cartId, 1L, 1, PRICE);
+                    observedQuantities.add(line.quantity());
+                    itemIds.add(line.itemId());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        pool.shutdown();
+
+        int total = THREADS * ADDS_PER_THREAD;
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM cart_items", Integer.class)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT quantity FROM cart_items", Integer.class)).isEqualTo(total);
+        // every add saw its own post-increment value: no increment was lost or applied twice
+        assertThat(observedQuantities).hasSize(total);
+        assertThat(itemIds).hasSize(1);
+    }
+}
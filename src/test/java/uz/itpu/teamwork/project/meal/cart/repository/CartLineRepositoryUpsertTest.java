@@ -0,0 +1,129 @@
+package uz.itpu.teamwork.project.meal.cart.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.NewLine;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.StoredCart;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.StoredLine;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Upsert semantics, and the guest cart load that goes through an UPDATE, on
+ * a real PostgreSQL started in-process, so they are checked without Docker;
+ * H2 has neither {@code ON CONFLICT DO UPDATE ... RETURNING} nor data-modifying
+ * CTEs. The concurrent variant lives in {@link CartLineRepositoryConcurrencyTest}.
+ */
+class CartLineRepositoryUpsertTest {
+
+    private static final BigDecimal PRICE = new BigDecimal("3.20");
+    private static final BigDecimal NEW_PRICE = new BigDecimal("9.99");
+    private static final Resource CART_SCHEMA = new ClassPathResource("db/cart-schema.sql");
+
+    private static EmbeddedPostgres postgres;
+
+    private JdbcTemplate jdbc;
+    private CartLineRepository repository;
+    private long cartId;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = postgres.getPostgresDatabase();
+        jdbc = new JdbcTemplate(dataSource);
+        new ResourceDatabasePopulator(CART_SCHEMA).execute(dataSource);
+        repository = new CartLineRepository(new NamedParameterJdbcTemplate(dataSource));
+        cartId = repository.create(7L, null).cartId();
+    }
+
+    @Test
+    void upsertItem_NewProduct_ShouldInsertLine() {
+        StoredLine line = repository.upsertItem(cartId, 1L, 2, PRICE);
+
+        assertThat(line.productId()).isEqualTo(1L);
+        assertThat(line.quantity()).isEqualTo(2);
+        assertThat(line.priceSnapshot()).isEqualByComparingTo(PRICE);
+        assertThat(jdbc.queryForObject("SELECT id FROM cart_items", Long.class)).isEqualTo(line.itemId());
+    }
+
+    @Test
+    void upsertItem_ExistingLine_ShouldAddQuantityAndKeepPriceSnapshot() {
+        StoredLine first = repository.upsertItem(cartId, 2L, 1, PRICE);
+        StoredLine second = repository.upsertItem(cartId, 2L, 2, NEW_PRICE);
+
+        assertThat(second.itemId()).isEqualTo(first.itemId());
+        assertThat(second.quantity()).isEqualTo(3);
+        assertThat(second.priceSnapshot()).isEqualByComparingTo(PRICE);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM cart_items", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void upsertItems_MixedNewAndExisting_ShouldReturnEveryRowAsStored() {
+        StoredLine existing = repository.upsertItem(cartId, 1L, 1, PRICE);
+
+        List<StoredLine> stored = repository.upsertItems(cartId, List.of(
+                new NewLine(1L, 4, NEW_PRICE),
+                new NewLine(2L, 2, NEW_PRICE),
+                new NewLine(3L, 1, NEW_PRICE)));
+
+        assertThat(stored)
+                .extracting(StoredLine::productId, StoredLine::quantity)
+                .containsExactlyInAnyOrder(tuple(1L, 5), tuple(2L, 2), tuple(3L, 1));
+        assertThat(stored).filteredOn(line -> line.productId() == 1L)
+                .singleElement()
+                .satisfies(line -> {
+                    assertThat(line.itemId()).isEqualTo(existing.itemId());
+                    assertThat(line.priceSnapshot()).isEqualByComparingTo(PRICE);
+                });
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM cart_items", Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    void upsertItems_SameProductInAnotherCart_ShouldNotConflict() {
+        long otherCartId = repository.create(8L, null).cartId();
+
+        StoredLine mine = repository.upsertItem(cartId, 1L, 1, PRICE);
+        StoredLine theirs = repository.upsertItem(otherCartId, 1L, 1, PRICE);
+
+        assertThat(theirs.itemId()).isNotEqualTo(mine.itemId());
+        assertThat(theirs.quantity()).isEqualTo(1);
+    }
+
+    @Test
+    void findBySessionId_ShouldLoadLinesAndStampTheCart() {
+        long guestCartId = repository.create(null, "guest").cartId();
+        repository.upsertItem(guestCartId, 4L, 2, PRICE);
+        jdbc.update("UPDATE carts SET updated_at = TIMESTAMP '2020-01-01 00:00' WHERE id = ?", guestCartId);
+
+        StoredCart cart = repository.findBySessionId("guest").orElseThrow();
+
+        assertThat(cart.cartId()).isEqualTo(guestCartId);
+        assertThat(cart.lines()).extracting(StoredLine::productId, StoredLine::quantity).containsExactly(tuple(4L, 2));
+        assertThat(jdbc.queryForObject("SELECT updated_at > TIMESTAMP '2020-01-01 00:00' FROM carts WHERE id = ?",
+                Boolean.class, guestCartId)).isTrue();
+        assertThat(repository.findBySessionId("unknown")).isEmpty();
+    }
+}
@@ -0,0 +1,437 @@
+package uz.itpu.teamwork.project.meal.cart.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import uz.itpu.teamwork.project.exception.BadRequestException;
+import uz.itpu.teamwork.project.exception.ResourceNotFoundException;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.LineUpdate;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.NewLine;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.StoredCart;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.StoredLine;
+import uz.itpu.teamwork.project.meal.cart.service.CartStore.CartKey;
+import uz.itpu.teamwork.project.meal.cart.service.CartStore.Contents;
+import uz.itpu.teamwork.project.meal.cart.service.CartStore.Mutation;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CartStoreTest {
+
+    private static final CartKey USER = CartKey.forUser(42L);
+    private static final BigDecimal PRICE = new BigDecimal("4.50");
+
+    @Mock
+    private CartLineRepository cartLineRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CartStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new CartStore(cartLineRepository, transactionManager);
+        ReflectionTestUtils.setField(store, "flushBatchSize", 500);
+        ReflectionTestUtils.setField(store, "idleTimeout", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(store, "stickyRouting", true);
+        // every cart row still exists unless a test says otherwise
+        lenient().when(cartLineRepository.touchCarts(anyCollection()))
+                .thenAnswer(invocation -> invocation.getArgument(0, Collection.class).size());
+    }
+
+    @Test
+    void getOrCreate_ShouldLoadOnceThenServeFromMemory() {
+        when(cartLineRepository.findByUserId(42L)).thenReturn(Optional.of(storedCart()));
+
+        store.getOrCreate(USER);
+        Contents cart = store.getOrCreate(USER);
+
+        assertThat(cart.lines()).extracting(CartStore.Line::itemId).containsExactly(10L, 11L);
+        verify(cartLineRepository, times(1)).findByUserId(42L);
+    }
+
+    @Test
+    void getOrCreate_ConcurrentFirstRequests_ShouldShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(cartLineRepository.findByUserId(42L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.of(storedCart());
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Contents> first = executor.submit(() -> store.getOrCreate(USER));
+            loading.await();
+            Future<Contents> second = executor.submit(() -> store.getOrCreate(USER));
+            // the map stays usable while the load is in flight
+            assertThat(store.holds(USER)).isFalse();
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS).cartId()).isEqualTo(1L);
+            assertThat(second.get(5, TimeUnit.SECONDS).cartId()).isEqualTo(1L);
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(cartLineRepository, times(1)).findByUserId(42L);
+    }
+
+    @Test
+    void getOrCreate_UnknownGuest_ShouldCreateCart() {
+        CartKey guest = CartKey.forSession("abc");
+        when(cartLineRepository.findBySessionId("abc")).thenReturn(Optional.empty());
+        when(cartLineRepository.create(null, "abc")).thenReturn(new StoredCart(7L, "abc", List.of()));
+
+        Contents cart = store.getOrCreate(guest);
+
+        assertThat(cart.cartId()).isEqualTo(7L);
+        assertThat(cart.lines()).isEmpty();
+    }
+
+    @Test
+    void discard_DeletedGuestCart_ShouldStartFreshCartOnNextRequest() {
+        CartKey guest = CartKey.forSession("abc");
+        when(cartLineRepository.findBySessionId("abc"))
+                .thenReturn(Optional.of(new StoredCart(7L, "abc", List.of(new StoredLine(70L, 1L, 1, PRICE)))))
+                .thenReturn(Optional.empty());
+        when(cartLineRepository.create(null, "abc")).thenReturn(new StoredCart(8L, "abc", List.of()));
+        store.getOrCreate(guest);
+        assertThat(store.holds(guest)).isTrue();
+
+        store.discard(List.of(guest));
+        Contents cart = store.getOrCreate(guest);
+
+        assertThat(cart.cartId()).isEqualTo(8L);
+        assertThat(cart.lines()).isEmpty();
+    }
+
+    @Test
+    void flushDirty_CartDeletedUnderneath_ShouldDropIt() {
+        CartKey guest = CartKey.forSession("abc");
+        when(cartLineRepository.findBySessionId("abc")).thenReturn(Optional.of(
+                new StoredCart(7L, "abc", List.of(new StoredLine(70L, 1L, 1, PRICE)))));
+        // expired by a sweep on another node
+        when(cartLineRepository.touchCarts(List.of(7L))).thenReturn(0);
+        when(cartLineRepository.findExistingCartIds(List.of(7L))).thenReturn(Set.of());
+
+        store.setQuantity(guest, 70L, 3);
+        store.flushDirty();
+
+        assertThat(store.holds(guest)).isFalse();
+    }
+
+    @Test
+    void add_CartDeletedUnderneath_ShouldStartNewCart() {
+        CartKey guest = CartKey.forSession("abc");
+        when(cartLineRepository.findBySessionId("abc"))
+                .thenReturn(Optional.of(new StoredCart(7L, "abc", List.of())))
+                .thenReturn(Optional.empty());
+        when(cartLineRepository.upsertItem(7L, 5L, 1, PRICE))
+                .thenThrow(new DataIntegrityViolationException("fk_cart_items_cart"));
+        when(cartLineRepository.findExistingCartIds(List.of(7L))).thenReturn(Set.of());
+        when(cartLineRepository.create(null, "abc")).thenReturn(new StoredCart(8L, "abc", List.of()));
+        when(cartLineRepository.upsertItem(8L, 5L, 1, PRICE)).thenReturn(new StoredLine(80L, 5L, 1, PRICE));
+
+        store.getOrCreate(guest);
+        Contents cart = store.add(guest, 5L, 1, PRICE);
+
+        assertThat(cart.cartId()).isEqualTo(8L);
+        assertThat(cart.lines()).extracting(CartStore.Line::itemId).containsExactly(80L);
+    }
+
+    @Test
+    void add_ConstraintViolationOnLiveCart_ShouldPropagate() {
+        when(cartLineRepository.findByUserId(42L)).thenReturn(Optional.of(new StoredCart(1L, null, List.of())));
+        when(cartLineRepository.upsertItem(1L, 5L, 1, PRICE))
+                .thenThrow(new DataIntegrityViolationException("fk_cart_items_product"));
+        when(cartLineRepository.findExistingCartIds(List.of(1L))).thenReturn(Set.of(1L));
+
+        assertThatThrownBy(() -> store.add(USER, 5L, 1, PRICE))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(store.holds(USER)).isTrue();
+    }
+
+    @Test
+    void find_UnknownCart_ShouldNotCreate() {
+        when(cartLineRepository.findByUserId(42L)).thenReturn(Optional.empty());
+
+        assertThat(store.find(USER)).isEmpty();
+        verify(cartLineRepository, never()).create(any(), any());
+    }
+
+    @Test
+    void mutations_ShouldOnlyBeWrittenByFlush() {
+        when(cartLineRepository.findByUserId(42L)).thenReturn(Optional.of(storedCart()));
+
+        store.setQuantity(USER, 10L, 5);
+        Contents cart = store.remove(USER, 11L);
+
+        assertThat(cart.lines()).singleElement().satisfies(line -> assertThat(line.quantity()).isEqualTo(5));
+        verify(cartLineRepository, never()).updateLines(anyList());
+        verify(cartLineRepository, never()).deleteItems(anyCollection());
+
+        assertThat(store.flushDirty()).isEqualTo(1);
+        verify(cartLineRepository).deleteItems(List.of(11L));
+        verify(cartLineRepository).updateLines(List.of(new LineUpdate(10L, 5, PRICE)));
+        verify(cartLineRepository).touchCarts(List.of(1L));
+
+        // nothing left to write
+        assertThat(store.flushDirty()).isZero();
+    }
+
+    @Test
+    void flushDirty_FailedBatch_ShouldKeepCartAndRetry() {
+        ReflectionTestUtils.setField(store, "idleTimeout", Duration.ZERO);
+        when(cartLineRepository.findByUserId(42L)).thenReturn(Optional.of(storedCart()));
+        doThrow(new DataAccessResourceFailureException("connection lost"))
+                .doNothing()
+                .when(cartLineRepository).updateLines(anyList());
+
+        store.setQuantity(USER, 10L, 3);
+
+        assertThat(store.flushDirty()).isZero();
+        // still dirty, so not evicted despite the zero idle timeout
+        assertThat(store.activeCarts()).isEqualTo(1);
+
+        assertThat(store.flushDirty()).isEqualTo(1);
+        verify(cartLineRepository, times(2)).updateLines(List.of(new LineUpdate(10L, 3, PRICE)));
+        assertThat(store.activeCarts()).isZero();
+    }
+
+    @Test
+    void flush_WhileAnotherCartIsBeingWritten_ShouldNotWait() throws Exception {
+        CartKey other = CartKey.forUser(43L);
+        ReflectionTestUtils.setField(store, "flushBatchSize", 1);
+        when(cartLineRepository.findByUserId(42L)).thenReturn(Optional.of(storedCart()));
+        when(cartLineRepository.findByUserId(43L)).thenReturn(Optional.of(
+                new StoredCart(3L, null, List.of(new StoredLine(30L, 1L, 1, PRICE)))));
+        store.setQuantity(USER, 10L, 2);
+        store.setQuantity(other, 30L, 2);
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> firstWritten = new ArrayList<>();
+        doAnswer(invocation -> {
+            if (writing.getCount() > 0) {
+                List<LineUpdate> updates = invocation.getArgument(0);
+                firstWritten.add(updates.get(0).itemId());
+                writing.countDown();
+                release.await();
+            }
+            return null;
+        }).when(cartLineRepository).updateLines(anyList());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> background = executor.submit(store::flushDirty);
+            writing.await();
+            CartKey notBeingWritten = firstWritten.get(0) == 10L ? other : USER;
+
+            // checkout of the other cart completes while the background batch is stuck
+            Thread checkout = Thread.ofPlatform().start(() -> store.flush(notBeingWritten));
+            checkout.join(5000);
+            assertThat(checkout.isAlive()).isFalse();
+
+            release.countDown();
+            background.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        verify(cartLineRepository, times(2)).updateLines(anyList());
+    }
+
+    @Test
+    void setQuantity_WithoutStickyRouting_ShouldWriteThroughAndKeepNoCopy() {
+        ReflectionTestUtils.setField(store, "stickyRouting", false);
+        when(cartLineRepository.findByUserId(42L)).thenReturn(Optional.of(storedCart()));
+
+        store.setQuantity(USER, 10L, 5);
+
+        verify(cartLineRepository).updateLines(List.of(new LineUpdate(10L, 5, PRICE)));
+        assertThat(store.holds(USER)).isFalse();
+
+        store.getOrCreate(USER);
+        verify(cartLineRepository, times(2)).findByUserId(42L);
+    }
+
+    @Test
+    void setQuantity_GuestWithoutStickyRouting_ShouldStayWriteBehind() {
+        ReflectionTestUtils.setField(store, "stickyRouting", false);
+        CartKey guest = CartKey.forSession("abc");
+        when(cartLineRepository.findBySessionId("abc")).thenReturn(Optional.of(
+                new StoredCart(7L, "abc", List.of(new StoredLine(70L, 1L, 1, PRICE)))));
+
+        store.setQuantity(guest, 70L, 3);
+
+        verify(cartLineRepository, never()).updateLines(anyList());
+        assertThat(store.holds(guest)).isTrue();
+    }
+
+    @Test
+    void add_ConcurrentlyToOneCart_ShouldNotLoseIncrements() throws Exception {
+        when(cartLineRepository.findByUserId(42L)).thenReturn(Optional.of(new StoredCart(1L, null, List.of())));
+        when(cartLineRepository.upsertItem(1L, 5L, 1, PRICE)).thenReturn(new StoredLine(100L, 5L, 1, PRICE));
+
+        int threads = 16;
+        int addsPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < addsPerThread; i++) {
+                    store.add(USER, 5L, 1, PRICE);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(store.getOrCreate(USER).lines())
+                .singleElement()
+                .satisfies(line -> assertThat(line.quantity()).isEqualTo(threads * addsPerThread));
+        verify(cartLineRepository, times(1)).upsertItem(anyLong(), anyLong(), eq(1), any());
+        verify(cartLineRepository, times(1)).findByUserId(42L);
+    }
+
+    @Test
+    void add_AfterUnflushedRemove_ShouldReuseRow() {
+        when(cartLineRepository.findByUserId(42L)).thenReturn(Optional.of(storedCart()));
+
+        store.remove(USER, 11L);
+        store.add(USER, 2L, 4, PRICE);
+        store.flushDirty();
+
+        verify(cartLineRepository, never()).upsertItem(anyLong(), anyLong(), eq(4), any());
+        verify(cartLineRepository).deleteItems(List.of());
+        verify(cartLineRepository).updateLines(List.of(new LineUpdate(11L, 4, PRICE)));
+    }
+
+    @Test
+    void clear_ShouldDeleteEveryLineOnFlush() {
+        when(cartLineRepository.findByUserId(42L)).thenReturn(Optional.of(storedCart()));
+        store.clear(USER);
+
+        assertThat(store.getOrCreate(USER).lines()).isEmpty();
+        store.flushDirty();
+        verify(cartLineRepository).deleteItems(argThat(ids -> ids.containsAll(List.of(10L, 11L))));
+    }
+
+    @Test
+    void add_LineAlreadyStored_ShouldTakeQuantityFromDatabase() {
+        when(cartLineRepository.findByUserId(42L)).thenReturn(Optional.of(new StoredCart(1L, null, List.of())));
+        // another writer added the product first
+        when(cartLineRepository.upsertItem(1L, 5L, 2, PRICE)).thenReturn(new StoredLine(100L, 5L, 5, PRICE));
+
+        Contents cart = store.add(USER, 5L, 2, PRICE);
+
+        assertThat(cart.lines()).singleElement().satisfies(line -> {
+            assertThat(line.itemId()).isEqualTo(100L);
+            assertThat(line.quantity()).isEqualTo(5);
+        });
+    }
+
+    @Test
+    void apply_ShouldUpsertNewProductsOnceAndWriteTheRestBehind() {
+        when(cartLineRepository.findByUserId(42L)).thenReturn(Optional.of(storedCart()));
+        when(cartLineRepository.upsertItems(1L, List.of(new NewLine(7L, 2, PRICE), new NewLine(8L, 3, PRICE))))
+                .thenReturn(List.of(new StoredLine(200L, 7L, 2, PRICE), new StoredLine(201L, 8L, 3, PRICE)));
+
+        Contents cart = store.apply(USER, List.of(
+                add(1L, 2),
+                new Mutation(Mutation.Kind.SET_QUANTITY, null, 11L, 5, null),
+                add(7L, 1),
+                add(8L, 3),
+                add(7L, 1)
+        ));
+
+        assertThat(cart.lines())
+                .extracting(CartStore.Line::itemId, CartStore.Line::quantity)
+                .containsExactly(
+                        tuple(10L, 3),
+                        tuple(11L, 5),
+                        tuple(200L, 2),
+                        tuple(201L, 3));
+
+        store.flushDirty();
+        verify(cartLineRepository).updateLines(List.of(new LineUpdate(10L, 3, PRICE), new LineUpdate(11L, 5, PRICE)));
+    }
+
+    @Test
+    void apply_InvalidStep_ShouldLeaveCartUntouched() {
+        when(cartLineRepository.findByUserId(42L)).thenReturn(Optional.of(storedCart()));
+
+        assertThatThrownBy(() -> store.apply(USER, List.of(
+                add(7L, 1),
+                new Mutation(Mutation.Kind.REMOVE, null, 10L, null, null),
+                new Mutation(Mutation.Kind.SET_QUANTITY, null, 10L, 4, null)
+        )))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Operation 2");
+
+        verify(cartLineRepository, never()).upsertItems(anyLong(), anyList());
+        assertThat(store.getOrCreate(USER).lines()).extracting(CartStore.Line::itemId).containsExactly(10L, 11L);
+        assertThat(store.flushDirty()).isZero();
+    }
+
+    @Test
+    void setQuantity_UnknownItem_ShouldThrow() {
+        when(cartLineRepository.findByUserId(42L)).thenReturn(Optional.of(storedCart()));
+
+        assertThatThrownBy(() -> store.setQuantity(USER, 99L, 2))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private static Mutation add(long productId, int quantity) {
+        return new Mutation(Mutation.Kind.ADD, productId, null, quantity, PRICE);
+    }
+
+    private static StoredCart storedCart() {
+        return new StoredCart(1L, null, List.of(
+                new StoredLine(10L, 1L, 1, PRICE),
+                new StoredLine(11L, 2L, 2, PRICE)
+        ));
+    }
+}
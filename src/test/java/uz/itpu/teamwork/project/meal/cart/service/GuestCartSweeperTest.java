@@ -0,0 +1,103 @@
+package uz.itpu.teamwork.project.meal.cart.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.DeletedRows;
+import uz.itpu.teamwork.project.meal.cart.repository.CartLineRepository.ExpiredCart;
+import uz.itpu.teamwork.project.meal.cart.service.CartStore.CartKey;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GuestCartSweeperTest {
+
+    @Mock
+    private CartLineRepository cartLineRepository;
+
+    @Mock
+    private CartStore cartStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private GuestCartSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new GuestCartSweeper(cartLineRepository, cartStore, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(sweeper, "ttl", Duration.ofDays(7));
+        ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+        ReflectionTestUtils.setField(sweeper, "batchPause", Duration.ZERO);
+        sweeper.init();
+    }
+
+    @Test
+    void sweepOnce_ShouldDeleteInBatchesUntilShortBatch() throws Exception {
+        when(cartLineRepository.lockExpiredGuestCarts(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(expired(1, "a"), expired(2, "b")))
+                .thenReturn(List.of(expired(3, "c")));
+        when(cartLineRepository.deleteCarts(List.of(1L, 2L))).thenReturn(new DeletedRows(2, 5));
+        when(cartLineRepository.deleteCarts(List.of(3L))).thenReturn(new DeletedRows(1, 0));
+
+        long deleted = sweeper.sweepOnce();
+
+        assertThat(deleted).isEqualTo(3);
+        verify(cartLineRepository, times(2)).lockExpiredGuestCarts(any(LocalDateTime.class), eq(2));
+        verify(cartStore).discard(List.of(CartKey.forSession("a"), CartKey.forSession("b")));
+        verify(cartStore).discard(List.of(CartKey.forSession("c")));
+        assertThat(meterRegistry.get("cart.guest.purged").tag("table", "carts").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("cart.guest.purged").tag("table", "cart_items").counter().count()).isEqualTo(5);
+    }
+
+    @Test
+    void sweepOnce_CartHeldInMemory_ShouldRefreshInsteadOfDeleting() throws Exception {
+        when(cartLineRepository.lockExpiredGuestCarts(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(expired(1, "active"), expired(2, "abandoned")))
+                .thenReturn(List.of());
+        when(cartStore.holds(CartKey.forSession("active"))).thenReturn(true);
+        when(cartLineRepository.deleteCarts(any())).thenReturn(new DeletedRows(0, 0));
+        when(cartLineRepository.deleteCarts(List.of(2L))).thenReturn(new DeletedRows(1, 1));
+
+        long deleted = sweeper.sweepOnce();
+
+        assertThat(deleted).isEqualTo(1);
+        verify(cartLineRepository).touchCarts(List.of(1L));
+        verify(cartStore).discard(List.of(CartKey.forSession("abandoned")));
+    }
+
+    @Test
+    void sweepOnce_ShouldOnlyConsiderCartsOlderThanTtl() throws Exception {
+        when(cartLineRepository.lockExpiredGuestCarts(any(LocalDateTime.class), eq(2))).thenReturn(List.of());
+        when(cartLineRepository.deleteCarts(List.of())).thenReturn(new DeletedRows(0, 0));
+        LocalDateTime before = LocalDateTime.now().minusDays(7);
+
+        sweeper.sweepOnce();
+
+        verify(cartLineRepository).stampUndatedCarts();
+        verify(cartLineRepository).lockExpiredGuestCarts(
+                argThat(cutoff -> !cutoff.isBefore(before) && cutoff.isBefore(LocalDateTime.now().minusDays(6))), eq(2));
+    }
+
+    private static ExpiredCart expired(long cartId, String sessionId) {
+        return new ExpiredCart(cartId, sessionId);
+    }
+}
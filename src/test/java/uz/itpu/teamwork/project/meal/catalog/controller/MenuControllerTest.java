@@ -0,0 +1,72 @@
+package uz.itpu.teamwork.project.meal.catalog.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import uz.itpu.teamwork.project.meal.catalog.service.MenuService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MenuControllerTest {
+
+    private static final byte[] JSON = "[]".getBytes();
+    private static final byte[] GZIP = {31, -117, 8};
+
+    @Mock
+    private MenuService menuService;
+
+    @InjectMocks
+    private MenuController menuController;
+
+    @Test
+    void getMenu_GzipAccepted_ShouldSendCompressedBytes() {
+        when(menuService.getMenu(null)).thenReturn(new MenuService.MenuBody(1L, JSON, GZIP));
+
+        ResponseEntity<byte[]> response = menuController.getMenu(null, "br, gzip;q=0.8");
+
+        assertThat(response.getBody()).isSameAs(GZIP);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders().getFirst(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    void getMenu_GzipRefused_ShouldSendPlainJsonWithVary() {
+        when(menuService.getMenu(null)).thenReturn(new MenuService.MenuBody(1L, JSON, GZIP));
+
+        ResponseEntity<byte[]> response = menuController.getMenu(null, "gzip;q=0, identity");
+
+        assertThat(response.getBody()).isSameAs(JSON);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(response.getHeaders().getFirst(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', nullValues = "NULL", value = {
+            "gzip                  | true",
+            "GZIP                  | true",
+            "deflate, gzip;q=0.5   | true",
+            "gzip ; Q=1.0          | true",
+            "x-gzip                | true",
+            "*                     | true",
+            "*;q=0.1               | true",
+            "gzip;q=0              | false",
+            "gzip;q=0.000          | false",
+            "*, gzip;q=0           | false",
+            "*;q=0                 | false",
+            "gzip;q=abc            | false",
+            "deflate, br           | false",
+            "identity              | false",
+            "NULL                  | false"
+    })
+    void acceptsGzip_ShouldHonourQualityValues(String header, boolean expected) {
+        assertThat(MenuController.acceptsGzip(header)).isEqualTo(expected);
+    }
+}
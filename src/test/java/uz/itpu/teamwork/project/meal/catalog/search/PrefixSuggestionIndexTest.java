@@ -0,0 +1,48 @@
+package uz.itpu.teamwork.project.meal.catalog.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixSuggestionIndexTest {
+
+    private PrefixSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = PrefixSuggestionIndex.builder()
+                .add(PrefixSuggestionIndex.Kind.PRODUCT, 1L, "Chicken Burger", "/img/1.png", Set.of("UZ", "KZ"))
+                .add(PrefixSuggestionIndex.Kind.PRODUCT, 2L, "Cheeseburger", "/img/2.png", Set.of("UZ"))
+                .add(PrefixSuggestionIndex.Kind.PRODUCT, 3L, "Burger Burger", null, Set.of("KZ"))
+                .add(PrefixSuggestionIndex.Kind.CATEGORY, 10L, "Burgers", null, Set.of("UZ", "KZ"))
+                .build();
+    }
+
+    @Test
+    void suggest_ShouldMatchStartOfAnyWord() {
+        assertThat(index.suggest("bur", null, 10))
+                .extracting(PrefixSuggestionIndex.Entry::id)
+                .containsExactlyInAnyOrder(1L, 3L, 10L);
+        assertThat(index.suggest("CHEE", null, 10))
+                .extracting(PrefixSuggestionIndex.Entry::id)
+                .containsExactly(2L);
+    }
+
+    @Test
+    void suggest_ShouldRespectCountryAndLimit() {
+        assertThat(index.suggest("bur", "uz", 10))
+                .extracting(PrefixSuggestionIndex.Entry::id)
+                .containsExactlyInAnyOrder(1L, 10L);
+        assertThat(index.suggest("bur", "GE", 10)).isEmpty();
+        assertThat(index.suggest("bur", null, 2)).hasSize(2);
+    }
+
+    @Test
+    void suggest_ShouldIgnoreBlankPrefix() {
+        assertThat(index.suggest("  ", null, 10)).isEqualTo(List.of());
+    }
+}
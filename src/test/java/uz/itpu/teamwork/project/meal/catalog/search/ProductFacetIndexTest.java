@@ -0,0 +1,74 @@
+package uz.itpu.teamwork.project.meal.catalog.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductFacetIndexTest {
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = ProductFacetIndex.build(List.of(
+                product(1L, 10L, "4.50", true, false, "UZ", "KZ"),
+                product(2L, 10L, "12.00", true, true, "UZ"),
+                product(3L, 20L, "7.00", true, false, "KZ"),
+                product(4L, 20L, "8.00", false, false, "UZ")
+        ));
+    }
+
+    @Test
+    void query_ShouldIntersectAllSelectedFacets() {
+        ProductFacetIndex.Result result = index.query(new ProductFacetIndex.Query(10L, "UZ", null, true, true));
+
+        assertThat(index.products(result.matches(), 0, 10))
+                .extracting(ProductResponse::getId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void query_ShouldCountEachFacetWithoutItsOwnSelection() {
+        ProductFacetIndex.Result result = index.query(new ProductFacetIndex.Query(10L, "UZ", null, false, true));
+
+        // category counts ignore the category filter: active products available in UZ
+        assertThat(result.categoryCounts()).containsEntry(10L, 2).containsEntry(20L, 0);
+        // country counts ignore the country filter: active products of category 10
+        assertThat(result.countryCounts()).containsEntry("UZ", 2).containsEntry("KZ", 1);
+        assertThat(result.priceBandCounts()).containsEntry("0-5", 1).containsEntry("10-20", 1);
+        assertThat(result.allergenFreeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void products_ShouldApplyOffsetAndLimitInCatalogOrder() {
+        ProductFacetIndex.Result result = index.query(new ProductFacetIndex.Query(null, null, null, false, true));
+
+        assertThat(result.matches().cardinality()).isEqualTo(3);
+        assertThat(index.products(result.matches(), 1, 1))
+                .extracting(ProductResponse::getId)
+                .containsExactly(2L);
+    }
+
+    private ProductResponse product(Long id, Long categoryId, String price, boolean active, boolean allergen,
+                                    String... countries) {
+        Map<String, ProductResponse.AvailabilityInfo> availability = new HashMap<>();
+        for (String country : countries) {
+            availability.put(country, ProductResponse.AvailabilityInfo.builder().isAvailable(true).build());
+        }
+        return ProductResponse.builder()
+                .id(id)
+                .categoryId(categoryId)
+                .basePrice(new BigDecimal(price))
+                .isActive(active)
+                .ingredients(List.of(ProductResponse.IngredientInfo.builder().id(id).isAllergen(allergen).build()))
+                .availability(availability)
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package uz.itpu.teamwork.project.meal.catalog.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.put(1L, "Chicken Burger", "Grilled chicken with cheese");
+        index.put(2L, "Cheeseburger", "Beef patty with cheddar");
+        index.put(3L, "Green Tea", "Hot tea, pairs well with a burger");
+    }
+
+    @Test
+    void search_ShouldMatchPartialWordsAndRankNameHitsFirst() {
+        assertThat(index.search("burg"))
+                .extracting(ProductSearchIndex.Hit::productId)
+                .containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void search_ShouldRequireEveryTerm() {
+        assertThat(index.search("chicken BURGER"))
+                .extracting(ProductSearchIndex.Hit::productId)
+                .containsExactly(1L);
+        assertThat(index.search("tea chicken")).isEmpty();
+    }
+
+    @Test
+    void put_ShouldReplacePreviousTextOfSameProduct() {
+        index.put(1L, "Lemonade", null);
+
+        assertThat(index.search("chicken")).isEmpty();
+        assertThat(index.search("lemon"))
+                .extracting(ProductSearchIndex.Hit::productId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void remove_ShouldDropProductFromResults() {
+        index.remove(2L);
+
+        assertThat(index.search("cheddar")).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,163 @@
+package uz.itpu.teamwork.project.meal.catalog.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogChangedEvent;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogRefreshedEvent;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.catalog.repository.CatalogVersionRepository;
+import uz.itpu.teamwork.project.meal.category.model.Category;
+import uz.itpu.teamwork.project.meal.category.repository.CategoryRepository;
+import uz.itpu.teamwork.project.meal.country.model.Country;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+import uz.itpu.teamwork.project.meal.product.model.Ingredient;
+import uz.itpu.teamwork.project.meal.product.model.Product;
+import uz.itpu.teamwork.project.meal.product.model.ProductAvailability;
+import uz.itpu.teamwork.project.meal.product.model.ProductIngredient;
+import uz.itpu.teamwork.project.meal.product.repository.IngredientRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ModifierRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private ModifierRepository modifierRepository;
+
+    @Mock
+    private CatalogVersionRepository catalogVersionRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Test
+    void current_ShouldBuildOnceAndServeFromMemory() {
+        Category drinks = Category.builder().id(1L).name("Drinks").displayOrder(1).isActive(true).build();
+        Product active = Product.builder().id(2L).name("Tea").category(drinks)
+                .basePrice(new BigDecimal("2.00")).isActive(true).build();
+        Product inactive = Product.builder().id(1L).name("Cocoa").category(drinks)
+                .basePrice(new BigDecimal("3.00")).isActive(false).build();
+
+        when(productRepository.findAllForCatalog()).thenReturn(List.of(active, inactive));
+        when(categoryRepository.findAll()).thenReturn(List.of(drinks));
+
+        CatalogSnapshot first = catalogSnapshotService.current();
+        CatalogSnapshot second = catalogSnapshotService.current();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getProducts()).extracting("id").containsExactly(1L, 2L);
+        assertThat(first.getActiveProducts()).extracting("name").containsExactly("Tea");
+        assertThat(first.getProductsByCategory(1L)).hasSize(2);
+        assertThat(first.getCategories().get(0).getProductCount()).isEqualTo(2);
+        assertThat(first.getActiveCategories().get(0).getActiveProductCount()).isEqualTo(1);
+        verify(productRepository, times(1)).findAllForCatalog();
+    }
+
+    @Test
+    void current_ShouldHandOutProductsReadersCannotModify() {
+        Product tea = Product.builder().id(1L).name("Tea").basePrice(new BigDecimal("2.00")).isActive(true).build();
+        tea.getProductIngredients().add(ProductIngredient.builder()
+                .product(tea).ingredient(Ingredient.builder().id(4L).name("Mint").build()).build());
+        tea.getProductAvailabilities().add(ProductAvailability.builder()
+                .product(tea).country(Country.builder().code("UZ").name("Uzbekistan").build()).build());
+        when(productRepository.findAllForCatalog()).thenReturn(List.of(tea));
+
+        ProductResponse product = catalogSnapshotService.current().getProducts().get(0);
+
+        assertThatThrownBy(() -> product.getIngredients().clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> product.getAvailability().remove("UZ"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> product.getModifiers().add(null))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void onCatalogChanged_ShouldSwapInNewerVersion() {
+        CatalogSnapshot before = catalogSnapshotService.current();
+
+        catalogSnapshotService.onCatalogChanged(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, 1L));
+
+        CatalogSnapshot after = catalogSnapshotService.current();
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.getVersion()).isEqualTo(before.getVersion() + 1);
+        verify(eventPublisher, times(2)).publishEvent(any(CatalogRefreshedEvent.class));
+    }
+
+    @Test
+    void current_ConcurrentFirstCalls_ShouldBuildOnce() {
+        when(productRepository.findAllForCatalog()).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return List.of();
+        });
+
+        CompletableFuture<CatalogSnapshot> first = CompletableFuture.supplyAsync(catalogSnapshotService::current);
+        CompletableFuture<CatalogSnapshot> second = CompletableFuture.supplyAsync(catalogSnapshotService::current);
+
+        assertThat(first.join()).isSameAs(second.join());
+        verify(productRepository, times(1)).findAllForCatalog();
+    }
+
+    @Test
+    void checkSharedVersion_ShouldRebuildOnlyWhenAnotherInstanceChangedCatalog() {
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        Cache secondLevelCache = mock(Cache.class);
+        when(catalogVersionRepository.findCurrent()).thenReturn(Optional.of(4L));
+        CatalogSnapshot built = catalogSnapshotService.current();
+
+        catalogSnapshotService.checkSharedVersion();
+        assertThat(catalogSnapshotService.current()).isSameAs(built);
+        verifyNoInteractions(entityManagerFactory);
+
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(secondLevelCache);
+        when(catalogVersionRepository.findCurrent()).thenReturn(Optional.of(5L));
+        catalogSnapshotService.checkSharedVersion();
+
+        assertThat(catalogSnapshotService.current().getVersion()).isEqualTo(built.getVersion() + 1);
+        assertThat(catalogSnapshotService.sharedVersion()).isEqualTo(5L);
+        verify(productRepository, times(2)).findAllForCatalog();
+        verify(secondLevelCache).evictAllRegions();
+    }
+
+    @Test
+    void publishVersion_ShouldBumpSharedVersion() {
+        catalogSnapshotService.publishVersion(new CatalogChangedEvent(CatalogChangedEvent.Type.CATEGORY, 3L));
+
+        verify(catalogVersionRepository).increment();
+    }
+}
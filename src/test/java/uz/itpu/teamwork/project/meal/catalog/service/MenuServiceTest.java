@@ -0,0 +1,104 @@
+package uz.itpu.teamwork.project.meal.catalog.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogRefreshedEvent;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.category.dto.response.CategoryResponse;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MenuServiceTest {
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private MenuService menuService;
+
+    @BeforeEach
+    void setUp() {
+        menuService = new MenuService(catalogSnapshotService, objectMapper);
+    }
+
+    @Test
+    void getMenu_ShouldGroupAvailableProductsByCategoryInDisplayOrder() throws IOException {
+        when(catalogSnapshotService.current()).thenReturn(snapshot(1L));
+
+        JsonNode menu = objectMapper.readTree(menuService.getMenu("uz").json());
+
+        assertThat(menu).hasSize(2);
+        assertThat(menu.get(0).get("name").asText()).isEqualTo("Drinks");
+        assertThat(menu.get(0).get("products")).hasSize(1);
+        assertThat(menu.get(1).get("name").asText()).isEqualTo("Burgers");
+
+        JsonNode kazakhMenu = objectMapper.readTree(menuService.getMenu("KZ").json());
+        assertThat(kazakhMenu).hasSize(1);
+        assertThat(kazakhMenu.get(0).get("name").asText()).isEqualTo("Burgers");
+    }
+
+    @Test
+    void getMenu_ShouldServeCachedGzipOfSameDocument() throws IOException {
+        when(catalogSnapshotService.current()).thenReturn(snapshot(1L));
+
+        MenuService.MenuBody first = menuService.getMenu(null);
+        MenuService.MenuBody second = menuService.getMenu(null);
+
+        assertThat(second).isSameAs(first);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(first.gzip()))) {
+            assertThat(in.readAllBytes()).isEqualTo(first.json());
+        }
+        verify(catalogSnapshotService, times(1)).current();
+    }
+
+    @Test
+    void onCatalogRefreshed_ShouldReplaceMenusAndAnswerUnknownCountryWithEmptyMenu() throws IOException {
+        menuService.onCatalogRefreshed(new CatalogRefreshedEvent(snapshot(7L), null));
+
+        assertThat(menuService.getMenu("UZ").version()).isEqualTo(7L);
+        assertThat(objectMapper.readTree(menuService.getMenu("GE").json())).isEmpty();
+    }
+
+    private CatalogSnapshot snapshot(long version) {
+        CategoryResponse burgers = CategoryResponse.builder().id(1L).name("Burgers").displayOrder(2).isActive(true).build();
+        CategoryResponse drinks = CategoryResponse.builder().id(2L).name("Drinks").displayOrder(1).isActive(true).build();
+        CategoryResponse empty = CategoryResponse.builder().id(3L).name("Desserts").displayOrder(3).isActive(true).build();
+
+        return new CatalogSnapshot(version, List.of(
+                product(10L, 1L, true, Map.of("UZ", true, "KZ", true)),
+                product(11L, 2L, true, Map.of("UZ", true, "KZ", false)),
+                product(12L, 2L, false, Map.of("UZ", true))
+        ), List.of(burgers, drinks, empty), List.of(), List.of());
+    }
+
+    private ProductResponse product(Long id, Long categoryId, boolean active, Map<String, Boolean> availability) {
+        return ProductResponse.builder()
+                .id(id)
+                .name("Product " + id)
+                .categoryId(categoryId)
+                .isActive(active)
+                .availability(availability.entrySet().stream().collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        entry -> ProductResponse.AvailabilityInfo.builder().isAvailable(entry.getValue()).build()
+                )))
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package uz.itpu.teamwork.project.meal.catalog.web;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogConditionalGetInterceptorTest {
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @InjectMocks
+    private CatalogConditionalGetInterceptor interceptor;
+
+    @Test
+    void preHandle_ShouldAnswer304WhenEtagMatchesCurrentVersion() {
+        when(catalogSnapshotService.current()).thenReturn(snapshot(3L));
+        when(catalogSnapshotService.sharedVersion()).thenReturn(12L);
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/products"), first, null)).isTrue();
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/api/products");
+        revalidation.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(revalidation, second, null)).isFalse();
+        assertThat(second.getStatus()).isEqualTo(304);
+        assertThat(second.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    void preHandle_DatabasePagedProductList_ShouldNotGetValidator() {
+        MockHttpServletRequest paged = new MockHttpServletRequest("GET", "/api/products");
+        paged.setParameter("page", "0");
+        paged.setParameter("size", "20");
+        MockHttpServletRequest cursor = new MockHttpServletRequest("GET", "/api/products");
+        cursor.setParameter("limit", "20");
+        MockHttpServletResponse pagedResponse = new MockHttpServletResponse();
+        MockHttpServletResponse cursorResponse = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(paged, pagedResponse, null)).isTrue();
+        assertThat(interceptor.preHandle(cursor, cursorResponse, null)).isTrue();
+
+        assertThat(pagedResponse.getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(cursorResponse.getHeader(HttpHeaders.ETAG)).isNull();
+        verifyNoInteractions(catalogSnapshotService);
+    }
+
+    @Test
+    void preHandle_EtagFromAnotherInstance_ShouldMatchWhenSharedVersionIsEqual() {
+        CatalogSnapshotService otherInstance = mock(CatalogSnapshotService.class);
+        when(otherInstance.current()).thenReturn(snapshot(1L));
+        when(otherInstance.sharedVersion()).thenReturn(12L);
+        when(catalogSnapshotService.current()).thenReturn(snapshot(3L));
+        when(catalogSnapshotService.sharedVersion()).thenReturn(12L);
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        new CatalogConditionalGetInterceptor(otherInstance)
+                .preHandle(new MockHttpServletRequest("GET", "/api/categories"), first, null);
+
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/api/categories");
+        revalidation.addHeader(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(revalidation, second, null)).isFalse();
+        assertThat(second.getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void preHandle_ShouldServeFreshBodyAfterCatalogChanged() {
+        when(catalogSnapshotService.current()).thenReturn(snapshot(3L), snapshot(4L));
+        when(catalogSnapshotService.sharedVersion()).thenReturn(12L, 13L);
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/api/categories"), first, null);
+
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/api/categories");
+        revalidation.addHeader(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(revalidation, second, null)).isTrue();
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isNotEqualTo(first.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void preHandle_ShouldIgnoreWrites() {
+        assertThat(interceptor.preHandle(
+                new MockHttpServletRequest("POST", "/api/products"), new MockHttpServletResponse(), null)).isTrue();
+        verifyNoInteractions(catalogSnapshotService);
+    }
+
+    private CatalogSnapshot snapshot(long version) {
+        return new CatalogSnapshot(version, List.of(), List.of(), List.of(), List.of());
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
 import uz.itpu.teamwork.project.meal.category.dto.request.CategoryRequest;
 import uz.itpu.teamwork.project.meal.category.dto.response.CategoryResponse;
 import uz.itpu.teamwork.project.meal.category.model.Category;
@@ -23,6 +25,12 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -0,0 +1,51 @@
+package uz.itpu.teamwork.project.meal.common.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SecondLevelCacheMetricsTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Statistics statistics;
+
+    @Mock
+    private CacheRegionStatistics countryRegion;
+
+    @Test
+    void bindTo_ShouldExposeHitRatioPerRegion() {
+        // not @InjectMocks: the SessionFactory mock is an EntityManagerFactory too
+        SecondLevelCacheMetrics metrics = new SecondLevelCacheMetrics(entityManagerFactory);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{"reference.country", "reference.role"});
+        when(statistics.getCacheRegionStatistics("reference.country")).thenReturn(countryRegion);
+        when(statistics.getCacheRegionStatistics("reference.role")).thenReturn(null);
+        when(countryRegion.getHitCount()).thenReturn(9L);
+        when(countryRegion.getMissCount()).thenReturn(1L);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+
+        assertThat(registry.get("hibernate.cache.hit.ratio").tag("region", "reference.country").gauge().value())
+                .isEqualTo(0.9);
+        assertThat(registry.get("hibernate.cache.hit.ratio").tag("region", "reference.role").gauge().value())
+                .isNaN();
+    }
+}
@@ -0,0 +1,166 @@
+package uz.itpu.teamwork.project.meal.common.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uz.itpu.teamwork.project.meal.common.storage.model.StoredBlob;
+import uz.itpu.teamwork.project.meal.common.storage.repository.StoredBlobRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ContentAddressedFileStorageTest {
+
+    private static final String BASE_URL = "http://localhost:8080/uploads";
+
+    @TempDir
+    Path root;
+
+    @Mock
+    private StoredBlobRepository storedBlobRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ContentAddressedFileStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new ContentAddressedFileStorage(storedBlobRepository, transactionManager);
+        ReflectionTestUtils.setField(storage, "basePath", root.toString());
+        ReflectionTestUtils.setField(storage, "baseUrl", BASE_URL);
+    }
+
+    @Test
+    void storeFile_SameContentTwice_ShouldKeepOneShardedBlob() throws IOException {
+        String first = storage.storeFile(stream("burger photo"), "products", ".JPG");
+        String second = storage.storeFile(stream("burger photo"), "products", ".jpg");
+
+        assertThat(second).isEqualTo(first);
+        // blobs/<first two hex digits>/<next two>/<sha256><ext>
+        assertThat(first).matches(BASE_URL + "/blobs/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.jpg");
+        verify(storedBlobRepository, times(2)).acquire(anyString(), anyLong());
+        assertThat(blobFiles()).hasSize(1);
+    }
+
+    @Test
+    void deleteFile_WithOtherReferences_ShouldOnlyDecrement() throws IOException {
+        String url = storage.storeFile(stream("shared"), "products", ".png");
+        StoredBlob blob = StoredBlob.builder().name(fileName(url)).size(6L).refCount(2).build();
+        when(storedBlobRepository.findForUpdate(fileName(url))).thenReturn(Optional.of(blob));
+
+        storage.deleteFile(url);
+
+        assertThat(blob.getRefCount()).isEqualTo(1);
+        assertThat(blobFiles()).hasSize(1);
+        verify(storedBlobRepository, never()).delete(blob);
+    }
+
+    @Test
+    void deleteFile_LastReference_ShouldRemoveRowAndFile() throws IOException {
+        String url = storage.storeFile(stream("single"), "products", ".png");
+        StoredBlob blob = StoredBlob.builder().name(fileName(url)).size(6L).refCount(1).build();
+        when(storedBlobRepository.findForUpdate(fileName(url))).thenReturn(Optional.of(blob));
+
+        storage.deleteFile(url);
+
+        verify(storedBlobRepository).delete(blob);
+        assertThat(blobFiles()).isEmpty();
+    }
+
+    @Test
+    void deleteFile_LastReferenceInTransaction_ShouldKeepFileUntilCommit() throws IOException {
+        String url = storage.storeFile(stream("pending"), "products", ".png");
+        StoredBlob blob = StoredBlob.builder().name(fileName(url)).size(7L).refCount(1).build();
+        when(storedBlobRepository.findForUpdate(fileName(url))).thenReturn(Optional.of(blob));
+
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> storage.deleteFile(url));
+
+        assertThat(blob.getRefCount()).isZero();
+        assertThat(blobFiles()).hasSize(1);
+        verify(storedBlobRepository, never()).delete(blob);
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        verify(storedBlobRepository).delete(blob);
+        assertThat(blobFiles()).isEmpty();
+    }
+
+    @Test
+    void deleteFile_BlobUploadedAgainBeforeRemoval_ShouldKeepFile() throws IOException {
+        String url = storage.storeFile(stream("revived"), "products", ".png");
+        StoredBlob blob = StoredBlob.builder().name(fileName(url)).size(7L).refCount(1).build();
+        when(storedBlobRepository.findForUpdate(fileName(url))).thenReturn(Optional.of(blob));
+
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> storage.deleteFile(url));
+        // a concurrent upload of the same content commits first
+        blob.setRefCount(1);
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        verify(storedBlobRepository, never()).delete(blob);
+        assertThat(blobFiles()).hasSize(1);
+    }
+
+    @Test
+    void deleteFile_LegacyUpload_ShouldDeleteDirectly() throws IOException {
+        Files.createDirectories(root.resolve("products"));
+        Files.writeString(root.resolve("products/legacy.jpg"), "old");
+
+        storage.deleteFile(BASE_URL + "/products/legacy.jpg");
+
+        assertThat(root.resolve("products/legacy.jpg")).doesNotExist();
+        verify(storedBlobRepository, never()).findForUpdate(anyString());
+    }
+
+    private static List<TransactionSynchronization> inTransaction(IoAction action) throws IOException {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String fileName(String url) {
+        return url.substring(url.lastIndexOf('/') + 1);
+    }
+
+    private List<Path> blobFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(root.resolve(ContentAddressedFileStorage.BLOB_FOLDER))) {
+            return files.filter(Files::isRegularFile)
+                    .filter(path -> !path.getParent().getFileName().toString().equals("tmp"))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package uz.itpu.teamwork.project.meal.common.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import uz.itpu.teamwork.project.meal.common.storage.repository.StoredBlobRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrphanFileSweeperTest {
+
+    @TempDir
+    Path root;
+
+    @Mock
+    private StoredFileReferences storedFileReferences;
+
+    @Mock
+    private StoredBlobRepository storedBlobRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrphanFileSweeper sweeper;
+    private Path uploads;
+    private Path quarantine;
+
+    @BeforeEach
+    void setUp() {
+        uploads = root.resolve("uploads");
+        quarantine = root.resolve("quarantine");
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new OrphanFileSweeper(storedFileReferences, storedBlobRepository, meterRegistry);
+        ReflectionTestUtils.setField(sweeper, "basePath", uploads.toString());
+        ReflectionTestUtils.setField(sweeper, "quarantinePath", quarantine.toString());
+        ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+        ReflectionTestUtils.setField(sweeper, "batchPause", Duration.ZERO);
+        ReflectionTestUtils.setField(sweeper, "minAge", Duration.ofHours(1));
+        ReflectionTestUtils.setField(sweeper, "quarantineRetention", Duration.ofDays(7));
+        sweeper.init();
+    }
+
+    @Test
+    void sweepOnce_ShouldQuarantineOnlyOldUnreferencedFiles() throws Exception {
+        Path kept = file("products/kept.jpg", Duration.ofDays(2));
+        Path orphan = file("products/orphan.jpg", Duration.ofDays(2));
+        Path fresh = file("products/fresh.jpg", Duration.ZERO);
+        Path leftover = file("products/upload-1.part", Duration.ofDays(2));
+        // storage-relative paths, so a change of public base URL cannot orphan everything
+        when(storedFileReferences.findReferenced(argThat(paths ->
+                paths.containsAll(List.of("products/kept.jpg", "products/orphan.jpg")))))
+                .thenReturn(Set.of("products/kept.jpg"));
+
+        long removed = sweeper.sweepOnce();
+
+        assertThat(removed).isEqualTo(2);
+        assertThat(kept).exists();
+        assertThat(fresh).exists();
+        assertThat(orphan).doesNotExist();
+        assertThat(leftover).doesNotExist();
+        assertThat(quarantine.resolve("products/orphan.jpg")).exists();
+        assertThat(meterRegistry.get("storage.gc.files.scanned").counter().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("storage.gc.orphans").tag("action", "quarantined").counter().count()).isEqualTo(1);
+        // no content-addressed files in the tree
+        verify(storedBlobRepository, never()).findExistingNames(anyCollection());
+    }
+
+    @Test
+    void sweepOnce_ShouldCheckReferencesInBatches() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            file("products/" + i + ".jpg", Duration.ofDays(2));
+        }
+        when(storedFileReferences.findReferenced(anyCollection())).thenReturn(Set.of());
+
+        sweeper.sweepOnce();
+
+        // batch size 2: two full batches plus the remainder
+        verify(storedFileReferences, times(3)).findReferenced(anyCollection());
+    }
+
+    @Test
+    void sweepOnce_DeleteMode_ShouldKeepBlobsTrackedByReferenceCount() throws Exception {
+        ReflectionTestUtils.setField(sweeper, "deleteOrphans", true);
+        Path tracked = file("blobs/aa/bb/aabb01.jpg", Duration.ofDays(2));
+        Path untracked = file("blobs/cc/dd/ccdd02.jpg", Duration.ofDays(2));
+        when(storedFileReferences.findReferenced(anyCollection())).thenReturn(Set.of());
+        when(storedBlobRepository.findExistingNames(anyCollection())).thenReturn(Set.of("aabb01.jpg"));
+
+        sweeper.sweepOnce();
+
+        assertThat(tracked).exists();
+        assertThat(untracked).doesNotExist();
+        assertThat(quarantine).doesNotExist();
+        assertThat(meterRegistry.get("storage.gc.bytes.reclaimed").counter().count()).isEqualTo(4);
+    }
+
+    @Test
+    void sweepOnce_ShouldPurgeExpiredQuarantine() throws Exception {
+        Files.createDirectories(uploads);
+        Path expired = quarantined("products/old.jpg", Duration.ofDays(8));
+        Path recent = quarantined("products/recent.jpg", Duration.ofDays(1));
+
+        sweeper.sweepOnce();
+
+        assertThat(expired).doesNotExist();
+        assertThat(recent).exists();
+        assertThat(meterRegistry.get("storage.gc.orphans").tag("action", "purged").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("storage.gc.last.completed").gauge().value()).isPositive();
+    }
+
+    private Path file(String relativePath, Duration age) throws IOException {
+        return write(uploads.resolve(relativePath), age);
+    }
+
+    private Path quarantined(String relativePath, Duration age) throws IOException {
+        return write(quarantine.resolve(relativePath), age);
+    }
+
+    private static Path write(Path file, Duration age) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "data");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(age)));
+        return file;
+    }
+}
@@ -0,0 +1,131 @@
+package uz.itpu.teamwork.project.meal.common.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UploadedFileControllerTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @TempDir
+    Path root;
+
+    private UploadedFileController controller;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.createDirectories(root.resolve("products"));
+        Files.writeString(root.resolve("products/photo.jpg"), CONTENT);
+        controller = new UploadedFileController(root.toString());
+    }
+
+    @Test
+    void serve_ShouldStreamWholeFileWithImmutableCaching() throws IOException {
+        MockHttpServletResponse response = serve(request("GET", "products/photo.jpg"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(CONTENT);
+        assertThat(response.getContentType()).isEqualTo("image/jpeg");
+        assertThat(response.getHeader("Cache-Control")).contains("immutable");
+        assertThat(response.getHeader("ETag")).startsWith("\"");
+    }
+
+    @Test
+    void serve_WithMatchingEtag_ShouldAnswerNotModified() throws IOException {
+        String etag = serve(request("GET", "products/photo.jpg")).getHeader("ETag");
+
+        MockHttpServletRequest conditional = request("GET", "products/photo.jpg");
+        conditional.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = serve(conditional);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void serve_WithRange_ShouldReturnPartialContent() throws IOException {
+        MockHttpServletRequest ranged = request("GET", "products/photo.jpg");
+        ranged.addHeader("Range", "bytes=5-9");
+        MockHttpServletResponse response = serve(ranged);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 5-9/20");
+        assertThat(response.getContentAsString()).isEqualTo("56789");
+    }
+
+    @Test
+    void serve_WithRangePastEnd_ShouldAnswerRangeNotSatisfiable() throws IOException {
+        MockHttpServletRequest ranged = request("GET", "products/photo.jpg");
+        ranged.addHeader("Range", "bytes=50-");
+        MockHttpServletResponse response = serve(ranged);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */20");
+    }
+
+    @Test
+    void serve_Head_ShouldSendHeadersOnly() throws IOException {
+        MockHttpServletResponse response = serve(request("HEAD", "products/photo.jpg"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentLengthLong()).isEqualTo(CONTENT.length());
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void serve_ShouldRejectPathsOutsideStorageRoot() throws IOException {
+        assertThat(serve(request("GET", "../secret.txt")).getStatus()).isEqualTo(404);
+        assertThat(serve(request("GET", "products/missing.jpg")).getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    void serve_ShouldNotExposeUploadsInProgress() throws IOException {
+        Files.writeString(root.resolve("products/upload-123.part"), CONTENT);
+        Files.createDirectories(root.resolve("blobs/tmp"));
+        Files.writeString(root.resolve("blobs/tmp/staged.jpg"), CONTENT);
+
+        assertThat(serve(request("GET", "products/upload-123.part")).getStatus()).isEqualTo(404);
+        assertThat(serve(request("GET", "blobs/tmp/staged.jpg")).getStatus()).isEqualTo(404);
+        assertThat(serve(request("GET", "blobs/tmp/../../products/photo.jpg")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void serve_FromHotSet_ShouldReturnSameBytes() throws IOException {
+        MockHttpServletResponse response = null;
+        for (int i = 0; i < 10; i++) {
+            response = serve(request("GET", "products/photo.jpg"));
+        }
+
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void parseRange_ShouldHandleSuffixOpenAndMultiRanges() {
+        assertThat(UploadedFileController.ByteRange.parse("bytes=-5", 20))
+                .isEqualTo(new UploadedFileController.ByteRange(15, 19));
+        assertThat(UploadedFileController.ByteRange.parse("bytes=10-", 20))
+                .isEqualTo(new UploadedFileController.ByteRange(10, 19));
+        assertThat(UploadedFileController.ByteRange.parse("bytes=0-1,5-6", 20)).isNull();
+        assertThat(UploadedFileController.ByteRange.parse("items=0-1", 20)).isNull();
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serve(request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        return new MockHttpServletRequest(method, UploadedFileController.PREFIX + path);
+    }
+}
@@ -0,0 +1,184 @@
+package uz.itpu.teamwork.project.meal.common.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import uz.itpu.teamwork.project.exception.FileUploadException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ValidatingImageInputStreamTest {
+
+    private static final long MAX_BYTES = 5 * 1024 * 1024;
+
+    @TempDir
+    Path root;
+
+    @Test
+    void png_ShouldPassThroughUnchangedAndReportDimensions() throws IOException {
+        byte[] png = encode(640, 480, "png");
+        ValidatingImageInputStream image = validating(png, MAX_BYTES, 8000);
+
+        assertThat(image.format()).isEqualTo(ImageFormat.PNG);
+        assertThat(image.readAllBytes()).isEqualTo(png);
+        assertThat(image.header()).isEqualTo(new ImageHeader(ImageFormat.PNG, 640, 480));
+    }
+
+    @Test
+    void jpeg_ShouldFindDimensionsInFrameHeader() throws IOException {
+        byte[] jpeg = encode(300, 200, "jpg");
+        ValidatingImageInputStream image = validating(jpeg, MAX_BYTES, 8000);
+
+        assertThat(image.format()).isEqualTo(ImageFormat.JPEG);
+        assertThat(image.readAllBytes()).isEqualTo(jpeg);
+        assertThat(image.header()).isEqualTo(new ImageHeader(ImageFormat.JPEG, 300, 200));
+    }
+
+    @Test
+    void webpExtended_ShouldReadCanvasSize() throws IOException {
+        byte[] webp = new byte[40];
+        put(webp, 0, "RIFF");
+        put(webp, 8, "WEBPVP8X");
+        // canvas is stored as size minus one, 24-bit little endian
+        webp[24] = (byte) 0xFF;
+        webp[25] = 0x03; // 1024 wide
+        webp[27] = (byte) 0xFF;
+        webp[28] = 0x01; // 512 high
+
+        ValidatingImageInputStream image = validating(webp, MAX_BYTES, 8000);
+
+        assertThat(image.format()).isEqualTo(ImageFormat.WEBP);
+        image.readAllBytes();
+        assertThat(image.header()).isEqualTo(new ImageHeader(ImageFormat.WEBP, 1024, 512));
+    }
+
+    @Test
+    void nonImage_ShouldBeRejectedFromSignature() {
+        ValidatingImageInputStream image = validating(
+                "<html><script>alert(1)</script></html>".getBytes(StandardCharsets.US_ASCII), MAX_BYTES, 8000);
+
+        assertThatThrownBy(image::format)
+                .isInstanceOf(FileUploadException.class)
+                .hasMessageContaining("not a JPEG, PNG or WebP");
+    }
+
+    @Test
+    void oversizedBody_ShouldFailOnceLimitIsCrossed() throws IOException {
+        byte[] png = Arrays.copyOf(encode(16, 16, "png"), 10_000);
+        CountingInputStream source = new CountingInputStream(png);
+        ValidatingImageInputStream image = new ValidatingImageInputStream(source, 4096, 8000);
+        image.format();
+
+        assertThatThrownBy(() -> image.transferTo(OutputStream.nullOutputStream()))
+                .isInstanceOf(FileUploadException.class)
+                .hasMessageContaining("exceeds maximum");
+        assertThat(source.read).isLessThan(png.length);
+    }
+
+    @Test
+    void hugeDimensions_ShouldBeRejectedBeforePixelData() throws IOException {
+        byte[] png = encode(16, 16, "png");
+        // rewrite the IHDR width to 20000 px
+        png[16] = 0;
+        png[17] = 0;
+        png[18] = 0x4E;
+        png[19] = 0x20;
+        ValidatingImageInputStream image = validating(png, MAX_BYTES, 8000);
+        image.format();
+
+        assertThatThrownBy(image::readAllBytes)
+                .isInstanceOf(FileUploadException.class)
+                .hasMessageContaining("20000x16");
+    }
+
+    @Test
+    void truncatedHeader_ShouldFailAtEndOfStream() throws IOException {
+        byte[] png = Arrays.copyOf(encode(16, 16, "png"), 16);
+        ValidatingImageInputStream image = validating(png, MAX_BYTES, 8000);
+        image.format();
+
+        assertThatThrownBy(image::readAllBytes)
+                .isInstanceOf(FileUploadException.class)
+                .hasMessageContaining("truncated");
+    }
+
+    @Test
+    void uploadImage_ShouldMoveValidatedFileIntoPlaceWithDetectedExtension() throws IOException {
+        LocalFileStorage storage = storage();
+        byte[] png = encode(32, 32, "png");
+
+        String url = storage.uploadImage(new ByteArrayInputStream(png), "products");
+
+        assertThat(url).startsWith("http://localhost:8080/uploads/products/").endsWith(".png");
+        assertThat(files()).singleElement().satisfies(file -> assertThat(Files.readAllBytes(file)).isEqualTo(png));
+    }
+
+    @Test
+    void uploadImage_Rejected_ShouldLeaveNoPartialFile() throws IOException {
+        LocalFileStorage storage = storage();
+        byte[] png = encode(16, 16, "png");
+        png[18] = 0x4E;
+
+        assertThatThrownBy(() -> storage.uploadImage(new ByteArrayInputStream(png), "products"))
+                .isInstanceOf(FileUploadException.class);
+        assertThat(files()).isEmpty();
+    }
+
+    private LocalFileStorage storage() {
+        LocalFileStorage storage = new LocalFileStorage();
+        ReflectionTestUtils.setField(storage, "basePath", root.toString());
+        ReflectionTestUtils.setField(storage, "baseUrl", "http://localhost:8080/uploads");
+        return storage;
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    private static ValidatingImageInputStream validating(byte[] content, long maxBytes, int maxDimension) {
+        return new ValidatingImageInputStream(new ByteArrayInputStream(content), maxBytes, maxDimension);
+    }
+
+    private static byte[] encode(int width, int height, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, out);
+        return out.toByteArray();
+    }
+
+    private static void put(byte[] target, int offset, String ascii) {
+        byte[] bytes = ascii.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, target, offset, bytes.length);
+    }
+
+    private static final class CountingInputStream extends ByteArrayInputStream {
+
+        private int read;
+
+        CountingInputStream(byte[] content) {
+            super(content);
+        }
+
+        @Override
+        public synchronized int read(byte[] buffer, int offset, int length) {
+            int count = super.read(buffer, offset, Math.min(length, 1024));
+            read += Math.max(count, 0);
+            return count;
+        }
+    }
+}
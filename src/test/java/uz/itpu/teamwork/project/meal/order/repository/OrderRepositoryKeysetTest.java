@@ -0,0 +1,141 @@
+package uz.itpu.teamwork.project.meal.order.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import uz.itpu.teamwork.project.auth.entity.User;
+import uz.itpu.teamwork.project.meal.common.pagination.CursorPage;
+import uz.itpu.teamwork.project.meal.order.dto.response.OrderResponse;
+import uz.itpu.teamwork.project.meal.order.entity.Order;
+import uz.itpu.teamwork.project.meal.order.enums.FulfillmentMethod;
+import uz.itpu.teamwork.project.meal.order.enums.OrderStatus;
+import uz.itpu.teamwork.project.meal.order.enums.PaymentMethod;
+import uz.itpu.teamwork.project.meal.order.service.impl.OrderServiceImpl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Walks the keyset pages of a user's orders against a real database, with
+ * several orders sharing one {@code created_at} so the id tie-break is exercised.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class OrderRepositoryKeysetTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private OrderServiceImpl orderService;
+    private Long customerId;
+    private final List<Long> newestFirst = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User customer = entityManager.persist(user("customer@example.com"));
+        User other = entityManager.persist(user("other@example.com"));
+        customerId = customer.getId();
+
+        Order older = entityManager.persist(order(customer, "ORD-1"));
+        Order tieA = entityManager.persist(order(customer, "ORD-2"));
+        Order tieB = entityManager.persist(order(customer, "ORD-3"));
+        Order tieC = entityManager.persist(order(customer, "ORD-4"));
+        Order newer = entityManager.persist(order(customer, "ORD-5"));
+        Order foreign = entityManager.persist(order(other, "ORD-6"));
+        entityManager.flush();
+
+        // created_at is set by Hibernate on insert; force the timeline afterwards
+        setCreatedAt(older, NOON.minusHours(1));
+        setCreatedAt(tieA, NOON);
+        setCreatedAt(tieB, NOON);
+        setCreatedAt(tieC, NOON);
+        setCreatedAt(newer, NOON.plusHours(1));
+        setCreatedAt(foreign, NOON);
+        entityManager.clear();
+
+        newestFirst.addAll(List.of(newer.getId(), tieC.getId(), tieB.getId(), tieA.getId(), older.getId()));
+        orderService = new OrderServiceImpl(orderRepository, null, null, null, null, null);
+    }
+
+    @Test
+    void getOrdersForUser_ShouldVisitEveryOrderOnceAcrossPagesAndTies() {
+        List<Long> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<OrderResponse> page = orderService.getOrdersForUser(customerId, cursor, 2, false);
+            page.getItems().forEach(order -> seen.add(order.getId()));
+            pageSizes.add(page.getItems().size());
+            assertThat(page.isHasNext()).isEqualTo(page.getNextCursor() != null);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).containsExactlyElementsOf(newestFirst);
+        assertThat(pageSizes).containsExactly(2, 2, 1);
+    }
+
+    @Test
+    void getOrdersForUser_PageEndingExactlyAtLastRow_ShouldHaveNoNext() {
+        CursorPage<OrderResponse> page = orderService.getOrdersForUser(customerId, null, 5, false);
+
+        assertThat(page.getItems()).hasSize(5);
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getOrdersForUser_IncludeTotal_ShouldCountOnlyUsersOrders() {
+        CursorPage<OrderResponse> withTotal = orderService.getOrdersForUser(customerId, null, 2, true);
+        CursorPage<OrderResponse> withoutTotal = orderService.getOrdersForUser(customerId, null, 2, false);
+
+        assertThat(withTotal.getTotalCount()).isEqualTo(5L);
+        assertThat(withoutTotal.getTotalCount()).isNull();
+    }
+
+    private void setCreatedAt(Order order, LocalDateTime createdAt) {
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE orders SET created_at = :createdAt WHERE id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", order.getId())
+                .executeUpdate();
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .email(email)
+                .passwordHash("hash")
+                .isActive(true)
+                .emailVerified(false)
+                .failedLoginAttempts(0)
+                .build();
+    }
+
+    private static Order order(User user, String number) {
+        return Order.builder()
+                .orderNumber(number)
+                .user(user)
+                .status(OrderStatus.NEW)
+                .fulfillmentMethod(FulfillmentMethod.PICKUP)
+                .paymentMethod(PaymentMethod.CARD)
+                .itemsSubtotal(BigDecimal.TEN)
+                .discountAmount(BigDecimal.ZERO)
+                .vatAmount(BigDecimal.ZERO)
+                .deliveryFee(BigDecimal.ZERO)
+                .totalAmount(BigDecimal.TEN)
+                .orderDate(NOON)
+                .build();
+    }
+}
@@ -0,0 +1,220 @@
+package uz.itpu.teamwork.project.meal.order.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import uz.itpu.teamwork.project.auth.entity.User;
+import uz.itpu.teamwork.project.auth.repository.UserRepository;
+import uz.itpu.teamwork.project.exception.BadRequestException;
+import uz.itpu.teamwork.project.exception.ForbiddenException;
+import uz.itpu.teamwork.project.exception.InvalidOperationException;
+import uz.itpu.teamwork.project.meal.cart.service.CartService;
+import uz.itpu.teamwork.project.meal.common.pagination.Cursor;
+import uz.itpu.teamwork.project.meal.order.dto.request.CreateOrderRequest;
+import uz.itpu.teamwork.project.meal.order.dto.request.OrderItemRequest;
+import uz.itpu.teamwork.project.meal.order.entity.Order;
+import uz.itpu.teamwork.project.meal.order.entity.OrderItem;
+import uz.itpu.teamwork.project.meal.order.enums.FulfillmentMethod;
+import uz.itpu.teamwork.project.meal.order.enums.OrderStatus;
+import uz.itpu.teamwork.project.meal.order.enums.PaymentMethod;
+import uz.itpu.teamwork.project.meal.order.repository.OrderItemRepository;
+import uz.itpu.teamwork.project.meal.order.repository.OrderRepository;
+import uz.itpu.teamwork.project.meal.product.model.Product;
+import uz.itpu.teamwork.project.meal.product.repository.ProductRepository;
+import uz.itpu.teamwork.project.meal.product.service.StockReservationService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplTest {
+
+    private static final long CUSTOMER_ID = 5L;
+    private static final long OTHER_USER_ID = 6L;
+    private static final long ORDER_ID = 30L;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private CartService cartService;
+
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    @Test
+    void getOrdersForUser_Cursor_ShouldSeekPastItsPosition() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 1, 12, 0, 30);
+        when(orderRepository.findByUserIdBefore(CUSTOMER_ID, createdAt, 42L, Limit.of(11))).thenReturn(List.of());
+
+        orderService.getOrdersForUser(CUSTOMER_ID, new Cursor(createdAt.toString(), 42L).encode(), 10, false);
+
+        verify(orderRepository).findByUserIdBefore(CUSTOMER_ID, createdAt, 42L, Limit.of(11));
+        verify(orderRepository, never()).countByUserId(anyLong());
+    }
+
+    @Test
+    void getOrdersForUser_CursorWithMalformedTimestamp_ShouldBeBadRequest() {
+        String cursor = new Cursor("yesterday", 42L).encode();
+
+        assertThatThrownBy(() -> orderService.getOrdersForUser(CUSTOMER_ID, cursor, 10, false))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid cursor");
+        verify(orderRepository, never()).findByUserIdBefore(anyLong(), any(), anyLong(), any());
+    }
+
+    @Test
+    void getOrdersForUser_CursorNotBase64_ShouldBeBadRequest() {
+        assertThatThrownBy(() -> orderService.getOrdersForUser(CUSTOMER_ID, "%%%", 10, false))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void createOrder_StockAvailable_ShouldReserveSummedQuantitiesBeforeSaving() {
+        when(userRepository.findById(CUSTOMER_ID)).thenReturn(Optional.of(user(CUSTOMER_ID)));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+        when(productRepository.findById(2L)).thenReturn(Optional.of(product(2L)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        orderService.createOrder(request(item(1L, 2), item(2L, 1), item(1L, 1)), CUSTOMER_ID);
+
+        InOrder inOrder = inOrder(cartService, stockReservationService, orderRepository, orderItemRepository);
+        inOrder.verify(cartService).flushCart(CUSTOMER_ID);
+        inOrder.verify(stockReservationService).reserve("UZ", Map.of(1L, 3, 2L, 1));
+        inOrder.verify(orderRepository).save(any(Order.class));
+        inOrder.verify(orderItemRepository).saveAll(any());
+    }
+
+    @Test
+    void createOrder_InsufficientStock_ShouldFailWithoutSavingTheOrder() {
+        when(userRepository.findById(CUSTOMER_ID)).thenReturn(Optional.of(user(CUSTOMER_ID)));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+        doThrow(new InvalidOperationException("Insufficient stock in UZ for products [1]"))
+                .when(stockReservationService).reserve("UZ", Map.of(1L, 5));
+
+        assertThatThrownBy(() -> orderService.createOrder(request(item(1L, 5)), CUSTOMER_ID))
+                .isInstanceOf(InvalidOperationException.class)
+                .hasMessageContaining("Insufficient stock");
+        verify(orderRepository, never()).save(any());
+        verify(orderItemRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void cancelOrder_Owner_ShouldReleaseStockOnce() {
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order(CUSTOMER_ID, OrderStatus.NEW)));
+        when(orderRepository.updateStatus(eq(ORDER_ID), any(), eq(OrderStatus.CANCELLED))).thenReturn(1);
+
+        orderService.cancelOrder(ORDER_ID, CUSTOMER_ID);
+
+        verify(stockReservationService).release("UZ", Map.of(1L, 2));
+    }
+
+    @Test
+    void cancelOrder_TwoConcurrentCancels_ShouldReleaseStockExactlyOnce() {
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order(CUSTOMER_ID, OrderStatus.NEW)));
+        // the second conditional update finds the order already cancelled
+        when(orderRepository.updateStatus(eq(ORDER_ID), any(), eq(OrderStatus.CANCELLED))).thenReturn(1, 0);
+
+        orderService.cancelOrder(ORDER_ID, CUSTOMER_ID);
+        assertThatThrownBy(() -> orderService.cancelOrder(ORDER_ID, CUSTOMER_ID))
+                .isInstanceOf(InvalidOperationException.class);
+
+        verify(stockReservationService, times(1)).release(anyString(), anyMap());
+    }
+
+    @Test
+    void cancelOrder_NotOwner_ShouldBeForbiddenAndLeaveStockAlone() {
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order(OTHER_USER_ID, OrderStatus.NEW)));
+
+        assertThatThrownBy(() -> orderService.cancelOrder(ORDER_ID, CUSTOMER_ID))
+                .isInstanceOf(ForbiddenException.class);
+        verify(orderRepository, never()).updateStatus(anyLong(), any(), any());
+        verify(stockReservationService, never()).release(anyString(), anyMap());
+    }
+
+    @Test
+    void cancelOrder_AlreadyCompleted_ShouldBeRejectedWithoutRelease() {
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order(CUSTOMER_ID, OrderStatus.COMPLETED)));
+        when(orderRepository.updateStatus(eq(ORDER_ID), any(), eq(OrderStatus.CANCELLED))).thenReturn(0);
+
+        assertThatThrownBy(() -> orderService.cancelOrder(ORDER_ID, CUSTOMER_ID))
+                .isInstanceOf(InvalidOperationException.class)
+                .hasMessageContaining("can no longer be cancelled");
+        verify(stockReservationService, never()).release(anyString(), anyMap());
+    }
+
+    private static CreateOrderRequest request(OrderItemRequest... items) {
+        return CreateOrderRequest.builder()
+                .fulfillmentMethod(FulfillmentMethod.PICKUP)
+                .paymentMethod(PaymentMethod.CARD)
+                .countryCode("UZ")
+                .items(List.of(items))
+                .build();
+    }
+
+    private static OrderItemRequest item(long productId, int quantity) {
+        return OrderItemRequest.builder().productId(productId).quantity(quantity).build();
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private static Product product(long id) {
+        return Product.builder().id(id).name("Product " + id).basePrice(BigDecimal.TEN).build();
+    }
+
+    private static Order order(long ownerId, OrderStatus status) {
+        OrderItem line = OrderItem.builder()
+                .product(product(1L))
+                .productName("Product 1")
+                .quantity(2)
+                .unitPrice(BigDecimal.TEN)
+                .subtotal(BigDecimal.valueOf(20))
+                .build();
+        return Order.builder()
+                .id(ORDER_ID)
+                .orderNumber("ORD-1")
+                .user(user(ownerId))
+                .status(status)
+                .countryCode("UZ")
+                .items(new ArrayList<>(List.of(line)))
+                .build();
+    }
+}
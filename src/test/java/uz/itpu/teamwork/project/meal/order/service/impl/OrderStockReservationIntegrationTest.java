@@ -0,0 +1,171 @@
+package uz.itpu.teamwork.project.meal.order.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uz.itpu.teamwork.project.auth.entity.User;
+import uz.itpu.teamwork.project.auth.repository.UserRepository;
+import uz.itpu.teamwork.project.exception.BadRequestException;
+import uz.itpu.teamwork.project.exception.InvalidOperationException;
+import uz.itpu.teamwork.project.meal.cart.service.CartService;
+import uz.itpu.teamwork.project.meal.country.model.Country;
+import uz.itpu.teamwork.project.meal.country.repository.CountryRepository;
+import uz.itpu.teamwork.project.meal.order.dto.request.CreateOrderRequest;
+import uz.itpu.teamwork.project.meal.order.dto.request.OrderItemRequest;
+import uz.itpu.teamwork.project.meal.order.dto.response.OrderResponse;
+import uz.itpu.teamwork.project.meal.order.enums.FulfillmentMethod;
+import uz.itpu.teamwork.project.meal.order.enums.PaymentMethod;
+import uz.itpu.teamwork.project.meal.order.service.OrderService;
+import uz.itpu.teamwork.project.meal.product.model.Product;
+import uz.itpu.teamwork.project.meal.product.model.ProductAvailability;
+import uz.itpu.teamwork.project.meal.product.repository.ProductAvailabilityRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ProductRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ProductStockRepository;
+import uz.itpu.teamwork.project.meal.product.service.StockReservationService;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Places orders through the transactional service proxy against a real
+ * database, so a rejected reservation really rolls back: no order row and
+ * no stock taken from the lines that did fit.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({OrderServiceImpl.class, StockReservationService.class, ProductStockRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderStockReservationIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductAvailabilityRepository productAvailabilityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockBean
+    private CartService cartService;
+
+    private Long customerId;
+    private Long plentifulId;
+    private Long scarceId;
+
+    @BeforeEach
+    void setUp() {
+        customerId = userRepository.save(User.builder()
+                .email("customer@example.com")
+                .passwordHash("hash")
+                .isActive(true)
+                .emailVerified(false)
+                .failedLoginAttempts(0)
+                .build()).getId();
+        Country uzbekistan = countryRepository.save(Country.builder()
+                .code("UZ")
+                .name("Uzbekistan")
+                .currencyCode("UZS")
+                .build());
+        Product plentiful = productRepository.save(product("Plov"));
+        Product scarce = productRepository.save(product("Samsa"));
+        plentifulId = plentiful.getId();
+        scarceId = scarce.getId();
+        productAvailabilityRepository.save(availability(plentiful, uzbekistan, 10));
+        productAvailabilityRepository.save(availability(scarce, uzbekistan, 1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM order_items");
+        jdbc.update("DELETE FROM orders");
+        jdbc.update("DELETE FROM product_availability");
+        jdbc.update("DELETE FROM products");
+        jdbc.update("DELETE FROM countries");
+        jdbc.update("DELETE FROM users");
+    }
+
+    @Test
+    void createOrder_StockAvailable_ShouldSaveOrderAndTakeStock() {
+        OrderResponse order = orderService.createOrder(request(item(plentifulId, 3), item(scarceId, 1)), customerId);
+
+        assertThat(order.getId()).isNotNull();
+        assertThat(countOrders()).isEqualTo(1);
+        assertThat(stockOf(plentifulId)).isEqualTo(7);
+        assertThat(stockOf(scarceId)).isZero();
+    }
+
+    @Test
+    void createOrder_InsufficientStock_ShouldRollBackOrderAndEveryLine() {
+        assertThatThrownBy(() -> orderService.createOrder(request(item(plentifulId, 3), item(scarceId, 2)), customerId))
+                .isInstanceOf(InvalidOperationException.class)
+                .hasMessageContaining("Insufficient stock");
+
+        assertThat(countOrders()).isZero();
+        assertThat(stockOf(plentifulId)).isEqualTo(10);
+        assertThat(stockOf(scarceId)).isEqualTo(1);
+    }
+
+    @Test
+    void createOrder_WithoutCountry_ShouldRejectAndTakeNoStock() {
+        CreateOrderRequest request = request(item(plentifulId, 3));
+        request.setCountryCode(null);
+
+        assertThatThrownBy(() -> orderService.createOrder(request, customerId))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(countOrders()).isZero();
+        assertThat(stockOf(plentifulId)).isEqualTo(10);
+    }
+
+    private int countOrders() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM orders", Integer.class);
+    }
+
+    private int stockOf(Long productId) {
+        return jdbc.queryForObject("SELECT stock_quantity FROM product_availability WHERE product_id = ?",
+                Integer.class, productId);
+    }
+
+    private static CreateOrderRequest request(OrderItemRequest... items) {
+        return CreateOrderRequest.builder()
+                .fulfillmentMethod(FulfillmentMethod.PICKUP)
+                .paymentMethod(PaymentMethod.CARD)
+                .countryCode("UZ")
+                .items(List.of(items))
+                .build();
+    }
+
+    private static OrderItemRequest item(Long productId, int quantity) {
+        return OrderItemRequest.builder().productId(productId).quantity(quantity).build();
+    }
+
+    private static Product product(String name) {
+        return Product.builder().name(name).basePrice(BigDecimal.TEN).build();
+    }
+
+    private static ProductAvailability availability(Product product, Country country, int stock) {
+        return ProductAvailability.builder().product(product).country(country).stockQuantity(stock).build();
+    }
+}
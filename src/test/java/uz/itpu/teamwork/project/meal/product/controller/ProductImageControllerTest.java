@@ -0,0 +1,59 @@
+package uz.itpu.teamwork.project.meal.product.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import uz.itpu.teamwork.project.exception.ResourceNotFoundException;
+import uz.itpu.teamwork.project.meal.common.storage.FileStorage;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+import uz.itpu.teamwork.project.meal.product.service.ProductService;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImageControllerTest {
+
+    private static final String IMAGE_URL = "http://localhost:8080/uploads/products/new.jpg";
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private FileStorage fileStorage;
+
+    @InjectMocks
+    private ProductImageController controller;
+
+    @Test
+    void uploadProductImage_ProductUpdateFails_ShouldReleaseTheUpload() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "new.jpg", "image/jpeg", new byte[]{1});
+        when(fileStorage.uploadFile(file, "products")).thenReturn(IMAGE_URL);
+        when(productService.updateProductImage(5L, IMAGE_URL))
+                .thenThrow(new ResourceNotFoundException("Product", "id", 5L));
+
+        assertThatThrownBy(() -> controller.uploadProductImage(5L, file))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        verify(fileStorage).deleteFile(IMAGE_URL);
+    }
+
+    @Test
+    void deleteProductImage_ShouldLeaveReleasingFilesToTheProductUpdate() throws IOException {
+        when(productService.getProductById(5L))
+                .thenReturn(ProductResponse.builder().id(5L).imageUrl(IMAGE_URL).build());
+
+        controller.deleteProductImage(5L);
+
+        verify(productService).updateProductImage(5L, null);
+        verify(fileStorage, never()).deleteFile(anyString());
+    }
+}
@@ -0,0 +1,161 @@
+package uz.itpu.teamwork.project.meal.product.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import uz.itpu.teamwork.project.meal.product.dto.request.ProductImportRequest;
+import uz.itpu.teamwork.project.meal.product.repository.ProductBulkRepository.AvailabilityLink;
+import uz.itpu.teamwork.project.meal.product.repository.ProductBulkRepository.IngredientLink;
+import uz.itpu.teamwork.project.meal.product.repository.ProductBulkRepository.ModifierLink;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * The bulk import SQL on a real PostgreSQL started in-process: generated
+ * keys in row order, the {@code ON CONFLICT} availability upsert and the
+ * row-value {@code NOT IN} that drops countries no longer listed.
+ */
+class ProductBulkRepositoryTest {
+
+    private static final Resource PRODUCT_SCHEMA = new ClassPathResource("db/product-schema.sql");
+
+    private static EmbeddedPostgres postgres;
+
+    private JdbcTemplate jdbc;
+    private ProductBulkRepository repository;
+    private long uz;
+    private long kz;
+    private long ru;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = postgres.getPostgresDatabase();
+        jdbc = new JdbcTemplate(dataSource);
+        new ResourceDatabasePopulator(PRODUCT_SCHEMA).execute(dataSource);
+        repository = new ProductBulkRepository(new NamedParameterJdbcTemplate(dataSource));
+        uz = insertId("INSERT INTO countries (code) VALUES ('UZ') RETURNING id");
+        kz = insertId("INSERT INTO countries (code) VALUES ('KZ') RETURNING id");
+        ru = insertId("INSERT INTO countries (code) VALUES ('RU') RETURNING id");
+    }
+
+    @Test
+    void insertProducts_ShouldReturnGeneratedIdsInRowOrder() {
+        List<Long> ids = repository.insertProducts(List.of(row(null, "Plov", "12.50"), row(null, "Samsa", "3.00")));
+
+        assertThat(ids).hasSize(2);
+        assertThat(nameOf(ids.get(0))).isEqualTo("Plov");
+        assertThat(nameOf(ids.get(1))).isEqualTo("Samsa");
+    }
+
+    @Test
+    void updateProducts_ShouldOverwriteScalarColumns() {
+        long id = repository.insertProducts(List.of(row(null, "Plov", "12.50"))).get(0);
+
+        repository.updateProducts(List.of(row(id, "Wedding plov", "15.00")));
+
+        assertThat(nameOf(id)).isEqualTo("Wedding plov");
+        assertThat(jdbc.queryForObject("SELECT base_price FROM products WHERE id = ?", BigDecimal.class, id))
+                .isEqualByComparingTo("15.00");
+    }
+
+    @Test
+    void replaceAvailability_ShouldKeepStockOfRetainedCountriesAndDropTheRest() {
+        long first = repository.insertProducts(List.of(row(null, "Plov", "12.50"))).get(0);
+        long second = repository.insertProducts(List.of(row(null, "Samsa", "3.00"))).get(0);
+        repository.replaceAvailability(List.of(), List.of(
+                new AvailabilityLink(first, uz, true),
+                new AvailabilityLink(first, kz, true),
+                new AvailabilityLink(second, uz, true)));
+        jdbc.update("UPDATE product_availability SET stock_quantity = 7");
+
+        repository.replaceAvailability(List.of(first), List.of(
+                new AvailabilityLink(first, uz, false),
+                new AvailabilityLink(first, ru, true)));
+
+        assertThat(jdbc.queryForList("""
+                        SELECT product_id, country_id, is_available, stock_quantity
+                        FROM product_availability ORDER BY product_id, country_id
+                        """))
+                .extracting(r -> r.get("product_id"), r -> r.get("country_id"), r -> r.get("is_available"),
+                        r -> r.get("stock_quantity"))
+                .containsExactly(
+                        tuple(first, uz, false, 7),
+                        tuple(first, ru, true, null),
+                        tuple(second, uz, true, 7));
+    }
+
+    @Test
+    void replaceAvailability_NoLinks_ShouldClearListedProductsOnly() {
+        long first = repository.insertProducts(List.of(row(null, "Plov", "12.50"))).get(0);
+        long second = repository.insertProducts(List.of(row(null, "Samsa", "3.00"))).get(0);
+        repository.replaceAvailability(List.of(), List.of(
+                new AvailabilityLink(first, uz, true),
+                new AvailabilityLink(second, uz, true)));
+
+        repository.replaceAvailability(List.of(first), List.of());
+
+        assertThat(jdbc.queryForList("SELECT product_id FROM product_availability", Long.class))
+                .containsExactly(second);
+    }
+
+    @Test
+    void replaceIngredientsAndModifiers_ShouldSwapTheLinksOfClearedProducts() {
+        long id = repository.insertProducts(List.of(row(null, "Plov", "12.50"))).get(0);
+        long rice = insertId("INSERT INTO ingredients (name) VALUES ('Rice') RETURNING id");
+        long carrot = insertId("INSERT INTO ingredients (name) VALUES ('Carrot') RETURNING id");
+        long extra = insertId("INSERT INTO modifiers (name) VALUES ('Extra meat') RETURNING id");
+        long spicy = insertId("INSERT INTO modifiers (name) VALUES ('Spicy') RETURNING id");
+        repository.replaceIngredients(List.of(), List.of(new IngredientLink(id, rice, "200 g")));
+        repository.replaceModifiers(List.of(), List.of(new ModifierLink(id, extra)));
+
+        repository.replaceIngredients(List.of(id), List.of(
+                new IngredientLink(id, rice, "250 g"),
+                new IngredientLink(id, carrot, null)));
+        repository.replaceModifiers(List.of(id), List.of(new ModifierLink(id, spicy)));
+
+        assertThat(jdbc.queryForList("SELECT ingredient_id, quantity FROM product_ingredients ORDER BY ingredient_id"))
+                .extracting(r -> r.get("ingredient_id"), r -> r.get("quantity"))
+                .containsExactly(tuple(rice, "250 g"), tuple(carrot, null));
+        assertThat(jdbc.queryForList("SELECT modifier_id FROM product_modifiers", Long.class))
+                .containsExactly(spicy);
+    }
+
+    private long insertId(String sql) {
+        return jdbc.queryForObject(sql, Long.class);
+    }
+
+    private String nameOf(long id) {
+        return jdbc.queryForObject("SELECT name FROM products WHERE id = ?", String.class, id);
+    }
+
+    private static ProductImportRequest row(Long id, String name, String price) {
+        ProductImportRequest request = new ProductImportRequest();
+        request.setId(id);
+        request.setName(name);
+        request.setBasePrice(new BigDecimal(price));
+        return request;
+    }
+}
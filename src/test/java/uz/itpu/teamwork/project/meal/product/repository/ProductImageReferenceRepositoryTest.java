@@ -0,0 +1,63 @@
+package uz.itpu.teamwork.project.meal.product.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductImageReferenceRepositoryTest {
+
+    private JdbcTemplate jdbc;
+    private ProductImageReferenceRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:image-references;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("""
+                CREATE TABLE products (
+                    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    image_url VARCHAR(500),
+                    thumbnail_url VARCHAR(500),
+                    medium_url VARCHAR(500)
+                )
+                """);
+        repository = new ProductImageReferenceRepository(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void findReferenced_ShouldMatchPathsWhateverBaseUrlTheyWereStoredUnder() {
+        jdbc.update("INSERT INTO products (image_url, thumbnail_url, medium_url) VALUES (?, ?, ?)",
+                "http://old-host:8080/uploads/products/a.jpg",
+                "https://cdn.example.com/uploads/products/a-320.jpg",
+                null);
+        jdbc.update("INSERT INTO products (image_url) VALUES (?)", "http://localhost:8080/uploads/blobs/aa/bb/aabb.jpg");
+
+        assertThat(repository.findReferenced(List.of(
+                "products/a.jpg",
+                "products/a-320.jpg",
+                "blobs/aa/bb/aabb.jpg",
+                "products/orphan.jpg",
+                "other/products/a.jpg")))
+                .containsExactlyInAnyOrder("products/a.jpg", "products/a-320.jpg", "blobs/aa/bb/aabb.jpg");
+    }
+
+    @Test
+    void findReferenced_NoCandidates_ShouldNotQuery() {
+        jdbc.execute("DROP TABLE products");
+
+        assertThat(repository.findReferenced(List.of())).isEmpty();
+    }
+}
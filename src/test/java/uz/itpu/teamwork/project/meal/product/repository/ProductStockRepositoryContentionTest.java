@@ -0,0 +1,147 @@
+package uz.itpu.teamwork.project.meal.product.repository;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.itpu.teamwork.project.meal.product.repository.ProductStockRepository.StockLine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers one stocked product from many threads, each reservation in its own
+ * transaction as in order creation, and checks that exactly the initial stock
+ * was handed out.
+ */
+class ProductStockRepositoryContentionTest {
+
+    private static final int INITIAL_STOCK = 500;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 100;
+
+    private JdbcTemplate jdbc;
+    private ProductStockRepository repository;
+    private TransactionTemplate transactions;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1");
+
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE countries (id BIGINT PRIMARY KEY, code VARCHAR(3) NOT NULL UNIQUE)");
+        jdbc.execute("""
+                CREATE TABLE product_availability (
+                    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    product_id BIGINT NOT NULL,
+                    country_id BIGINT NOT NULL,
+                    is_available BOOLEAN,
+                    stock_quantity INT,
+                    updated_at TIMESTAMP,
+                    UNIQUE (product_id, country_id)
+                )
+                """);
+        jdbc.update("INSERT INTO countries (id, code) VALUES (1, 'UZ'), (2, 'KZ')");
+        jdbc.update("INSERT INTO product_availability (product_id, country_id, is_available, stock_quantity) VALUES (1, 1, TRUE, ?)",
+                INITIAL_STOCK);
+        jdbc.update("INSERT INTO product_availability (product_id, country_id, is_available, stock_quantity) VALUES (2, 1, TRUE, NULL)");
+
+        repository = new ProductStockRepository(new NamedParameterJdbcTemplate(dataSource));
+        transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    void reserve_UnderContention_ShouldNeverOversell() throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+                    int[] updated = transactions.execute(status ->
+                            repository.reserve("UZ", List.of(new StockLine(1L, quantity))));
+                    if (updated[0] == 1) {
+                        reserved.addAndGet(quantity);
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int remaining = stock(1L);
+        assertThat(remaining).isGreaterThanOrEqualTo(0);
+        assertThat(reserved.get() + remaining).isEqualTo(INITIAL_STOCK);
+        // 1600 attempts of ~2 units each cannot all fit into 500
+        assertThat(rejected.get()).isPositive();
+        assertThat(remaining).isLessThan(3);
+    }
+
+    @Test
+    void reserve_LastUnit_ShouldSwitchAvailabilityOff() {
+        jdbc.update("UPDATE product_availability SET stock_quantity = 2 WHERE product_id = 1");
+
+        assertThat(repository.reserve("UZ", List.of(new StockLine(1L, 2)))).containsExactly(1);
+
+        assertThat(stock(1L)).isZero();
+        assertThat(available(1L)).isFalse();
+        assertThat(repository.findSoldOut("UZ", List.of(1L, 2L))).containsExactly(1L);
+        assertThat(repository.reserve("UZ", List.of(new StockLine(1L, 1)))).containsExactly(0);
+    }
+
+    @Test
+    void release_ShouldRestockAndSwitchSoldOutRowBackOn() {
+        jdbc.update("UPDATE product_availability SET stock_quantity = 0, is_available = FALSE WHERE product_id = 1");
+
+        repository.release("UZ", List.of(new StockLine(1L, 3)));
+
+        assertThat(stock(1L)).isEqualTo(3);
+        assertThat(available(1L)).isTrue();
+    }
+
+    @Test
+    void reserve_ShouldTreatUntrackedStockAsUnlimitedAndUnknownCountryAsUnavailable() {
+        assertThat(repository.reserve("UZ", List.of(new StockLine(2L, 1000)))).containsExactly(1);
+        assertThat(jdbc.queryForObject("SELECT stock_quantity FROM product_availability WHERE product_id = 2", Integer.class))
+                .isNull();
+
+        assertThat(repository.reserve("KZ", List.of(new StockLine(1L, 1)))).containsExactly(0);
+    }
+
+    private int stock(long productId) {
+        return jdbc.queryForObject(
+                "SELECT stock_quantity FROM product_availability WHERE product_id = ? AND country_id = 1",
+                Integer.class, productId);
+    }
+
+    private boolean available(long productId) {
+        return jdbc.queryForObject(
+                "SELECT is_available FROM product_availability WHERE product_id = ? AND country_id = 1",
+                Boolean.class, productId);
+    }
+}
@@ -5,6 +5,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import uz.itpu.teamwork.project.meal.catalog.mapper.CatalogMapper;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
 import uz.itpu.teamwork.project.meal.product.dto.request.IngredientRequest;
 import uz.itpu.teamwork.project.meal.product.dto.response.IngredientResponse;
 import uz.itpu.teamwork.project.meal.product.model.Ingredient;
@@ -23,6 +27,12 @@ class IngredientServiceTest {
     @Mock
     private IngredientRepository ingredientRepository;
 
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private IngredientService ingredientService;
 
@@ -77,15 +87,23 @@ class IngredientServiceTest {
     }
 
     @Test
-    void getAll_ShouldMapEntitiesToResponses() {
+    void getAll_ShouldServeFromCatalogSnapshot() {
         Ingredient milk = Ingredient.builder().id(1L).name("Milk").isAllergen(false).build();
         Ingredient nuts = Ingredient.builder().id(2L).name("Almond").isAllergen(true).build();
-        when(ingredientRepository.findAll()).thenReturn(List.of(milk, nuts));
+        when(catalogSnapshotService.current()).thenReturn(new CatalogSnapshot(
+                1L,
+                List.of(),
+                List.of(),
+                List.of(CatalogMapper.toIngredientResponse(milk), CatalogMapper.toIngredientResponse(nuts)),
+                List.of()
+        ));
 
         List<IngredientResponse> responses = ingredientService.getAllIngredients();
 
         assertThat(responses).hasSize(2);
         assertThat(responses).extracting(IngredientResponse::getName).containsExactly("Milk", "Almond");
+        assertThat(ingredientService.getAllergens()).extracting(IngredientResponse::getName).containsExactly("Almond");
+        verify(ingredientRepository, never()).findAll();
     }
 
     private IngredientRequest buildRequest() {
@@ -5,6 +5,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import uz.itpu.teamwork.project.meal.catalog.mapper.CatalogMapper;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
 import uz.itpu.teamwork.project.meal.product.dto.request.ModifierRequest;
 import uz.itpu.teamwork.project.meal.product.dto.response.ModifierResponse;
 import uz.itpu.teamwork.project.meal.product.model.Modifier;
@@ -23,6 +27,12 @@ class ModifierServiceTest {
     @Mock
     private ModifierRepository modifierRepository;
 
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ModifierService modifierService;
 
@@ -67,8 +77,13 @@ class ModifierServiceTest {
         Modifier active = Modifier.builder().id(1L).name("Extra Shot").isActive(true).build();
         Modifier inactive = Modifier.builder().id(2L).name("Unavailable").isActive(false).build();
 
-        when(modifierRepository.findByIsActiveTrue()).thenReturn(List.of(active));
-        when(modifierRepository.findAll()).thenReturn(List.of(active, inactive));
+        when(catalogSnapshotService.current()).thenReturn(new CatalogSnapshot(
+                1L,
+                List.of(),
+                List.of(),
+                List.of(),
+                List.of(CatalogMapper.toModifierResponse(active), CatalogMapper.toModifierResponse(inactive))
+        ));
 
         assertThat(modifierService.getActiveModifiers()).hasSize(1);
         assertThat(modifierService.getAllModifiers()).hasSize(2);
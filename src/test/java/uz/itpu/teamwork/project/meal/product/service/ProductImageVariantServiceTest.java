@@ -0,0 +1,134 @@
+package uz.itpu.teamwork.project.meal.product.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogChangedEvent;
+import uz.itpu.teamwork.project.meal.common.storage.FileStorage;
+import uz.itpu.teamwork.project.meal.product.repository.ProductRepository;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImageVariantServiceTest {
+
+    private static final String ORIGINAL = "http://localhost:8080/uploads/products/original.png";
+
+    @Mock
+    private FileStorage fileStorage;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ProductImageVariantService variantService;
+
+    @AfterEach
+    void tearDown() {
+        variantService.shutdown();
+    }
+
+    @Test
+    void generate_ShouldStoreBothVariantsAndRecordThem() throws IOException {
+        List<BufferedImage> stored = new ArrayList<>();
+        when(fileStorage.openFile(ORIGINAL)).thenReturn(png(2000, 1000));
+        when(fileStorage.storeFile(any(InputStream.class), eq("products"), eq(".jpg"))).thenAnswer(invocation -> {
+            stored.add(ImageIO.read(invocation.getArgument(0, InputStream.class)));
+            return "variant-" + stored.size();
+        });
+        when(productRepository.updateImageVariants(1L, ORIGINAL, "variant-1", "variant-2")).thenReturn(1);
+
+        variantService.generate(1L, ORIGINAL);
+
+        assertThat(stored).extracting(BufferedImage::getWidth)
+                .containsExactly(ProductImageVariantService.THUMBNAIL_SIZE, ProductImageVariantService.MEDIUM_SIZE);
+        assertThat(stored).extracting(BufferedImage::getHeight).containsExactly(160, 480);
+        ArgumentCaptor<CatalogChangedEvent> event = ArgumentCaptor.forClass(CatalogChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void generate_WhenImageReplacedMeanwhile_ShouldDeleteStaleVariants() throws IOException {
+        when(fileStorage.openFile(ORIGINAL)).thenReturn(png(100, 100));
+        when(fileStorage.storeFile(any(InputStream.class), eq("products"), eq(".jpg")))
+                .thenReturn("thumb", "medium");
+        when(productRepository.updateImageVariants(1L, ORIGINAL, "thumb", "medium")).thenReturn(0);
+
+        variantService.generate(1L, ORIGINAL);
+
+        verify(fileStorage).deleteFile("thumb");
+        verify(fileStorage).deleteFile("medium");
+        verify(eventPublisher, never()).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void generate_WebpOriginal_ShouldKeepOnlyTheOriginal() {
+        variantService.generate(1L, "http://localhost:8080/uploads/products/original.webp");
+
+        verifyNoInteractions(fileStorage, productRepository, eventPublisher);
+    }
+
+    @Test
+    void resize_ShouldNeverUpscale() {
+        BufferedImage small = new BufferedImage(100, 40, BufferedImage.TYPE_INT_ARGB);
+
+        BufferedImage resized = ProductImageVariantService.resize(small, ProductImageVariantService.MEDIUM_SIZE);
+
+        assertThat(resized.getWidth()).isEqualTo(100);
+        assertThat(resized.getHeight()).isEqualTo(40);
+    }
+
+    @Test
+    void decode_LargeOriginal_ShouldSubsampleToAtLeastTheRequestedSide() throws IOException {
+        BufferedImage decoded = ProductImageVariantService.decode(png(4000, 2000), ProductImageVariantService.DECODE_SIZE);
+
+        assertThat(decoded.getWidth()).isEqualTo(2000);
+        assertThat(decoded.getHeight()).isEqualTo(1000);
+    }
+
+    @Test
+    void decode_SmallOriginal_ShouldReadEveryPixel() throws IOException {
+        BufferedImage decoded = ProductImageVariantService.decode(png(1500, 900), ProductImageVariantService.DECODE_SIZE);
+
+        assertThat(decoded.getWidth()).isEqualTo(1500);
+        assertThat(decoded.getHeight()).isEqualTo(900);
+    }
+
+    @Test
+    void decode_NotAnImage_ShouldReturnNull() throws IOException {
+        BufferedImage decoded = ProductImageVariantService.decode(
+                new ByteArrayInputStream("not an image".getBytes()), ProductImageVariantService.DECODE_SIZE);
+
+        assertThat(decoded).isNull();
+    }
+
+    private static InputStream png(int width, int height) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", bytes);
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+}
@@ -0,0 +1,183 @@
+package uz.itpu.teamwork.project.meal.product.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogChangedEvent;
+import uz.itpu.teamwork.project.meal.category.model.Category;
+import uz.itpu.teamwork.project.meal.category.repository.CategoryRepository;
+import uz.itpu.teamwork.project.meal.country.model.Country;
+import uz.itpu.teamwork.project.meal.country.repository.CountryRepository;
+import uz.itpu.teamwork.project.meal.product.dto.request.ProductImportRequest;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductImportResponse;
+import uz.itpu.teamwork.project.meal.product.model.Ingredient;
+import uz.itpu.teamwork.project.meal.product.repository.IngredientRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ModifierRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ProductBulkRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ProductRepository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private IngredientRepository ingredientRepository;
+    @Mock
+    private CountryRepository countryRepository;
+    @Mock
+    private ModifierRepository modifierRepository;
+    @Mock
+    private ProductBulkRepository productBulkRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductImportService productImportService;
+
+    @BeforeEach
+    void setUp() {
+        productImportService = new ProductImportService(
+                productRepository,
+                categoryRepository,
+                ingredientRepository,
+                countryRepository,
+                modifierRepository,
+                productBulkRepository,
+                eventPublisher,
+                transactionManager
+        );
+    }
+
+    @Test
+    void importProducts_ShouldResolveReferencesOnceAndReportBadRowsWithoutAborting() {
+        ProductImportRequest burger = row(null, "Burger", "9.90", 1L);
+        burger.setAvailability(Map.of("uz", true));
+        ProductImportRequest unknownCategory = row(null, "Soup", "4.00", 99L);
+        ProductImportRequest update = row(5L, "Tea", "2.00", null);
+        ProductImportRequest noPrice = row(null, "Water", null, null);
+
+        when(productRepository.findExistingIds(Set.of(5L))).thenReturn(Set.of(5L));
+        when(categoryRepository.findAllById(any())).thenReturn(List.of(Category.builder().id(1L).build()));
+        when(countryRepository.findByCodeIn(Set.of("UZ"))).thenReturn(List.of(Country.builder().id(3L).code("UZ").build()));
+        when(productBulkRepository.insertProducts(anyList())).thenReturn(List.of(100L));
+
+        ProductImportResponse response = productImportService.importProducts(
+                List.of(burger, unknownCategory, update, noPrice));
+
+        assertThat(response.getTotal()).isEqualTo(4);
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getUpdated()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getErrors()).extracting(ProductImportResponse.RowError::getRow).containsExactly(2, 4);
+        assertThat(response.getErrors().get(0).getMessage()).isEqualTo("Category not found with id: '99'");
+
+        verify(categoryRepository, times(1)).findAllById(any());
+        verify(productBulkRepository).insertProducts(List.of(burger));
+        verify(productBulkRepository).updateProducts(List.of(update));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProductBulkRepository.AvailabilityLink>> links = ArgumentCaptor.forClass(List.class);
+        verify(productBulkRepository).replaceAvailability(anyCollection(), links.capture());
+        assertThat(links.getValue()).containsExactly(new ProductBulkRepository.AvailabilityLink(100L, 3L, true));
+        verify(eventPublisher, times(1)).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void importCsv_ShouldParseListColumnsAndReportLineNumbers() throws IOException {
+        String csv = """
+                name,basePrice,categoryId,ingredients,availability
+                "Cheeseburger, double",12.50,,7:2 slices;8,UZ:false
+                Broken,abc,,,
+                """;
+        when(ingredientRepository.findAllById(any())).thenReturn(List.of(
+                Ingredient.builder().id(7L).build(), Ingredient.builder().id(8L).build()));
+        when(countryRepository.findByCodeIn(Set.of("UZ"))).thenReturn(List.of(Country.builder().id(3L).code("UZ").build()));
+        when(productBulkRepository.insertProducts(anyList())).thenReturn(List.of(100L));
+
+        ProductImportResponse response = productImportService.importCsv(new StringReader(csv));
+
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getRow()).isEqualTo(3));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProductBulkRepository.IngredientLink>> ingredients = ArgumentCaptor.forClass(List.class);
+        verify(productBulkRepository).replaceIngredients(anyCollection(), ingredients.capture());
+        assertThat(ingredients.getValue()).containsExactly(
+                new ProductBulkRepository.IngredientLink(100L, 7L, "2 slices"),
+                new ProductBulkRepository.IngredientLink(100L, 8L, null));
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void importProducts_ValuesOutsideColumnLimits_ShouldBeReportedBeforeWriting() {
+        ProductImportRequest longName = row(null, "P".repeat(256), "1.00", null);
+        ProductImportRequest tooExpensive = row(null, "Caviar", "123456789.00", null);
+        ProductImportRequest fractionOfCent = row(null, "Gum", "0.015", null);
+
+        ProductImportResponse response = productImportService.importProducts(
+                List.of(longName, tooExpensive, fractionOfCent));
+
+        assertThat(response.getFailed()).isEqualTo(3);
+        assertThat(response.getErrors()).extracting(ProductImportResponse.RowError::getMessage).containsExactly(
+                "Product name must be at most 255 characters",
+                "Price must be at most 99999999.99",
+                "Price must have at most 2 decimal places");
+        verify(productBulkRepository, never()).insertProducts(anyList());
+    }
+
+    @Test
+    void importProducts_ChunkRejectedByDatabase_ShouldRetryRowByRowAndFailOnlyTheCulprit() {
+        ProductImportRequest burger = row(null, "Burger", "9.90", null);
+        ProductImportRequest rejected = row(null, "Soup", "4.00", null);
+        when(productBulkRepository.insertProducts(List.of(burger, rejected)))
+                .thenThrow(new DataIntegrityViolationException("chunk"));
+        when(productBulkRepository.insertProducts(List.of(burger))).thenReturn(List.of(100L));
+        when(productBulkRepository.insertProducts(List.of(rejected)))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+
+        ProductImportResponse response = productImportService.importProducts(List.of(burger, rejected));
+
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(2);
+            assertThat(error.getMessage()).isEqualTo("Not saved: value too long");
+        });
+        verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    private ProductImportRequest row(Long id, String name, String price, Long categoryId) {
+        ProductImportRequest request = new ProductImportRequest();
+        request.setId(id);
+        request.setName(name);
+        request.setBasePrice(price != null ? new BigDecimal(price) : null);
+        request.setCategoryId(categoryId);
+        return request;
+    }
+}
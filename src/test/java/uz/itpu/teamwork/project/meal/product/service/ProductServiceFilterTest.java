@@ -0,0 +1,117 @@
+package uz.itpu.teamwork.project.meal.product.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
+import uz.itpu.teamwork.project.meal.catalog.service.ProductFacetService;
+import uz.itpu.teamwork.project.meal.catalog.service.ProductSearchService;
+import uz.itpu.teamwork.project.meal.catalog.service.ProductSuggestService;
+import uz.itpu.teamwork.project.meal.common.storage.FileStorage;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+import uz.itpu.teamwork.project.meal.product.model.Ingredient;
+import uz.itpu.teamwork.project.meal.product.model.Product;
+import uz.itpu.teamwork.project.meal.product.model.ProductIngredient;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the ingredient exclusions of {@link ProductService#filterProducts}
+ * against a real database: the anti-join must drop exactly the products
+ * holding an excluded ingredient or an allergen, on the page and the count.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(ProductService.class)
+class ProductServiceFilterTest {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 1, Sort.by("name"));
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockBean
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @MockBean
+    private ProductSearchService productSearchService;
+
+    @MockBean
+    private ProductSuggestService productSuggestService;
+
+    @MockBean
+    private ProductFacetService productFacetService;
+
+    @MockBean
+    private FileStorage fileStorage;
+
+    private Long onionId;
+
+    @BeforeEach
+    void setUp() {
+        Ingredient cheese = entityManager.persist(Ingredient.builder().name("Cheese").isAllergen(true).build());
+        Ingredient onion = entityManager.persist(Ingredient.builder().name("Onion").build());
+        Ingredient rice = entityManager.persist(Ingredient.builder().name("Rice").build());
+        onionId = onion.getId();
+
+        persist("Cheeseburger", cheese, onion);
+        persist("Onion rings", onion);
+        persist("Plov", rice);
+        persist("Water");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void filterProducts_ExcludedIngredient_ShouldDropProductsContainingIt() {
+        Page<ProductResponse> page = filter(List.of(onionId), false);
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(ProductResponse::getName).containsExactly("Plov");
+    }
+
+    @Test
+    void filterProducts_AllergenFree_ShouldDropProductsWithAnyAllergen() {
+        Page<ProductResponse> page = filter(List.of(), true);
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(ProductResponse::getName).containsExactly("Onion rings");
+    }
+
+    @Test
+    void filterProducts_ExcludedIngredientAndAllergenFree_ShouldApplyBoth() {
+        Page<ProductResponse> page = filter(List.of(onionId), true);
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(ProductResponse::getName).containsExactly("Plov");
+    }
+
+    private Page<ProductResponse> filter(List<Long> excludeIngredientIds, boolean allergenFree) {
+        return productService.filterProducts(null, null, null, null, null,
+                excludeIngredientIds, allergenFree, FIRST_PAGE);
+    }
+
+    private void persist(String name, Ingredient... ingredients) {
+        Product product = Product.builder().name(name).basePrice(BigDecimal.TEN).build();
+        for (Ingredient ingredient : ingredients) {
+            product.getProductIngredients().add(
+                    ProductIngredient.builder().product(product).ingredient(ingredient).build());
+        }
+        entityManager.persist(product);
+    }
+}
@@ -0,0 +1,201 @@
+package uz.itpu.teamwork.project.meal.product.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
+import uz.itpu.teamwork.project.meal.catalog.service.ProductFacetService;
+import uz.itpu.teamwork.project.meal.catalog.service.ProductSearchService;
+import uz.itpu.teamwork.project.meal.catalog.service.ProductSuggestService;
+import uz.itpu.teamwork.project.meal.category.model.Category;
+import uz.itpu.teamwork.project.meal.category.repository.CategoryRepository;
+import uz.itpu.teamwork.project.meal.common.pagination.CursorPage;
+import uz.itpu.teamwork.project.meal.common.storage.FileStorage;
+import uz.itpu.teamwork.project.meal.country.model.Country;
+import uz.itpu.teamwork.project.meal.country.repository.CountryRepository;
+import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+import uz.itpu.teamwork.project.meal.product.enums.ProductSortField;
+import uz.itpu.teamwork.project.meal.product.model.Ingredient;
+import uz.itpu.teamwork.project.meal.product.model.Modifier;
+import uz.itpu.teamwork.project.meal.product.model.Product;
+import uz.itpu.teamwork.project.meal.product.model.ProductAvailability;
+import uz.itpu.teamwork.project.meal.product.model.ProductIngredient;
+import uz.itpu.teamwork.project.meal.product.repository.IngredientRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ModifierRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ProductRepository;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statements issued by the product read endpoints, counted through
+ * {@link ProductService}: serving N products must cost a constant number of
+ * statements, not O(N). The list, detail and category endpoints answer from
+ * the catalog snapshot, so only its build may touch the database.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({ProductService.class, CatalogSnapshotService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductServiceQueryCountTest {
+
+    private static final int PRODUCT_COUNT = 30;
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private ModifierRepository modifierRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockBean
+    private ProductSearchService productSearchService;
+
+    @MockBean
+    private ProductSuggestService productSuggestService;
+
+    @MockBean
+    private ProductFacetService productFacetService;
+
+    @MockBean
+    private FileStorage fileStorage;
+
+    private Statistics statistics;
+    private Long categoryId;
+    private Long firstProductId;
+
+    @BeforeEach
+    void setUp() {
+        Category category = categoryRepository.save(Category.builder().name("Burgers").build());
+        Country uz = countryRepository.save(Country.builder().code("UZ").name("Uzbekistan").currencyCode("UZS").build());
+        Country kz = countryRepository.save(Country.builder().code("KZ").name("Kazakhstan").currencyCode("KZT").build());
+        Ingredient cheese = ingredientRepository.save(Ingredient.builder().name("Cheese").isAllergen(true).build());
+        Ingredient onion = ingredientRepository.save(Ingredient.builder().name("Onion").build());
+        Modifier extra = modifierRepository.save(Modifier.builder().name("Extra patty").build());
+        categoryId = category.getId();
+
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            Product product = Product.builder()
+                    .name("Burger " + i)
+                    .category(category)
+                    .basePrice(new BigDecimal("9.90"))
+                    .build();
+            product.getProductIngredients().add(ProductIngredient.builder().product(product).ingredient(cheese).build());
+            product.getProductIngredients().add(ProductIngredient.builder().product(product).ingredient(onion).build());
+            product.getProductAvailabilities().add(ProductAvailability.builder().product(product).country(uz).build());
+            product.getProductAvailabilities().add(ProductAvailability.builder().product(product).country(kz).build());
+            product.getModifiers().add(extra);
+            Long id = productRepository.save(product).getId();
+            if (firstProductId == null) {
+                firstProductId = id;
+            }
+        }
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM product_modifiers");
+        jdbc.update("DELETE FROM product_ingredients");
+        jdbc.update("DELETE FROM product_availability");
+        jdbc.update("DELETE FROM products");
+        jdbc.update("DELETE FROM modifiers");
+        jdbc.update("DELETE FROM ingredients");
+        jdbc.update("DELETE FROM countries");
+        jdbc.update("DELETE FROM categories");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void snapshotEndpoints_ShouldCostOneBoundedBuildAndNoStatementsAfterwards() {
+        catalogSnapshotService.rebuild(null);
+        // catalog version, products+category, one batch each for ingredients,
+        // availabilities and modifiers, then categories, ingredients and modifiers
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(8);
+        statistics.clear();
+
+        assertThat(productService.getAllProducts()).hasSize(PRODUCT_COUNT);
+        ProductResponse detail = productService.getProductById(firstProductId);
+        assertThat(productService.getProductsByCategory(categoryId)).hasSize(PRODUCT_COUNT);
+
+        assertThat(detail.getIngredients()).hasSize(2);
+        assertThat(detail.getAvailability()).containsKeys("UZ", "KZ");
+        assertThat(detail.getModifiers()).hasSize(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void getProducts_PagedList_ShouldUseBoundedStatementCount() {
+        Page<ProductResponse> page = productService.getProducts(PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getTotalElements()).isEqualTo(PRODUCT_COUNT);
+        assertThat(page.getContent().get(0).getIngredients()).hasSize(2);
+        // page, count, then one batch each for ingredients, availabilities, modifiers
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void getProductsAfter_CursorList_ShouldUseBoundedStatementCount() {
+        CursorPage<ProductResponse> page =
+                productService.getProductsAfter(ProductSortField.ID, Sort.Direction.ASC, null, PAGE_SIZE, false);
+
+        assertThat(page.getItems()).hasSize(PAGE_SIZE);
+        assertThat(page.getItems().get(0).getAvailability()).containsKeys("UZ", "KZ");
+        // keyset page (no entity graph on findBy), then one batch each for
+        // availabilities, ingredients, modifiers and categories
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void filterProducts_ByCategory_ShouldUseBoundedStatementCount() {
+        Page<ProductResponse> page = productService.filterProducts(
+                categoryId, null, null, null, null, PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getContent().get(0).getModifiers()).hasSize(1);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+    }
+}
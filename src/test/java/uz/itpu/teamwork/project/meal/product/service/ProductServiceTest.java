@@ -5,14 +5,33 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogChangedEvent;
+import uz.itpu.teamwork.project.meal.catalog.mapper.CatalogMapper;
+import uz.itpu.teamwork.project.meal.catalog.model.CatalogSnapshot;
+import uz.itpu.teamwork.project.meal.catalog.service.CatalogSnapshotService;
+import uz.itpu.teamwork.project.meal.catalog.service.ProductFacetService;
+import uz.itpu.teamwork.project.meal.catalog.service.ProductSearchService;
+import uz.itpu.teamwork.project.meal.catalog.service.ProductSuggestService;
 import uz.itpu.teamwork.project.meal.category.model.Category;
 import uz.itpu.teamwork.project.meal.category.repository.CategoryRepository;
+import uz.itpu.teamwork.project.meal.common.pagination.Cursor;
+import uz.itpu.teamwork.project.meal.common.pagination.CursorPage;
+import uz.itpu.teamwork.project.meal.common.storage.FileStorage;
 import uz.itpu.teamwork.project.meal.country.model.Country;
 import uz.itpu.teamwork.project.meal.country.repository.CountryRepository;
 import uz.itpu.teamwork.project.meal.product.dto.request.ProductIngredientRequest;
 import uz.itpu.teamwork.project.meal.product.dto.request.ProductRequest;
 import uz.itpu.teamwork.project.meal.product.dto.response.ProductResponse;
+import uz.itpu.teamwork.project.meal.product.enums.ProductSortField;
+import uz.itpu.teamwork.project.meal.product.event.ProductImageChangedEvent;
 import uz.itpu.teamwork.project.meal.product.model.Ingredient;
 import uz.itpu.teamwork.project.meal.product.model.Modifier;
 import uz.itpu.teamwork.project.meal.product.model.Product;
@@ -21,19 +40,26 @@ import uz.itpu.teamwork.project.meal.product.model.ProductIngredient;
 import uz.itpu.teamwork.project.meal.product.repository.IngredientRepository;
 import uz.itpu.teamwork.project.meal.product.repository.ModifierRepository;
 import uz.itpu.teamwork.project.meal.product.repository.ProductRepository;
+import uz.itpu.teamwork.project.exception.BadRequestException;
 import uz.itpu.teamwork.project.exception.ResourceNotFoundException;
 
+import java.io.IOException;
+import java.lang.reflect.Method;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,6 +75,18 @@ class ProductServiceTest {
     private ModifierRepository modifierRepository;
     @Mock
     private CountryRepository countryRepository;
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+    @Mock
+    private ProductSearchService productSearchService;
+    @Mock
+    private ProductSuggestService productSuggestService;
+    @Mock
+    private ProductFacetService productFacetService;
+    @Mock
+    private FileStorage fileStorage;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private ProductService productService;
@@ -100,36 +138,250 @@ class ProductServiceTest {
         assertThat(response.getModifiers().get(0).getId()).isEqualTo(modifier.getId());
 
         verify(modifierRepository).findAllById(request.getModifierIds());
+        verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void getProductById_ShouldServeFromCatalogSnapshot() {
+        Product product = buildProduct(4L, "US", true);
+        when(catalogSnapshotService.current()).thenReturn(new CatalogSnapshot(
+                1L, List.of(CatalogMapper.toProductResponse(product)), List.of(), List.of(), List.of()
+        ));
+
+        ProductResponse response = productService.getProductById(4L);
+
+        assertThat(response.getId()).isEqualTo(4L);
+        assertThat(productService.getProductsByCategory(3L)).hasSize(1);
+        assertThatThrownBy(() -> productService.getProductById(5L))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(productRepository, never()).findById(anyLong());
     }
 
     @Test
-    void filterProducts_ShouldApplySpecifications_AndCountryFilter() {
+    void filterProducts_ShouldPushAllFiltersIntoSinglePagedQuery() {
         Product availableInUsa = buildProduct(1L, "US", true);
-        Product notAvailable = buildProduct(2L, "US", false);
+        Pageable pageable = PageRequest.of(0, 20);
 
-        when(productRepository.findAll(any(Specification.class))).thenReturn(List.of(availableInUsa, notAvailable));
+        when(productRepository.findAll(any(Specification.class), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(availableInUsa), pageable, 1));
 
-        List<ProductResponse> responses = productService.filterProducts(
+        Page<ProductResponse> responses = productService.filterProducts(
                 5L,
                 new BigDecimal("5.00"),
                 new BigDecimal("25.00"),
                 "US",
-                true
+                true,
+                pageable
         );
 
-        assertThat(responses).hasSize(1);
-        assertThat(responses.get(0).getId()).isEqualTo(availableInUsa.getId());
+        assertThat(responses.getContent()).hasSize(1);
+        assertThat(responses.getContent().get(0).getId()).isEqualTo(availableInUsa.getId());
+        verify(productRepository, never()).findAll(any(Specification.class));
+    }
+
+    @Test
+    void filterProducts_WithOnlyMinPrice_ShouldStillFilterByPrice() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(productRepository.findAll(any(Specification.class), eq(pageable)))
+                .thenReturn(Page.empty(pageable));
+
+        productService.filterProducts(null, new BigDecimal("5.00"), null, null, null, pageable);
+
+        verify(productRepository).findAll(any(Specification.class), eq(pageable));
+        verify(productRepository, never()).findAll(pageable);
+    }
+
+    @Test
+    void filterProducts_WithExclusions_ShouldFilterInTheQuery() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(productRepository.findAll(any(Specification.class), eq(pageable)))
+                .thenReturn(Page.empty(pageable));
+
+        productService.filterProducts(null, null, null, null, null, List.of(7L), true, pageable);
+
+        verify(productRepository).findAll(any(Specification.class), eq(pageable));
+        verify(productRepository, never()).findAll(pageable);
+    }
+
+    @Test
+    void filterProducts_WithoutExclusions_ShouldNotAddAFilter() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(productRepository.findAll(pageable)).thenReturn(Page.empty(pageable));
+
+        productService.filterProducts(null, null, null, null, null, List.of(), false, pageable);
+
+        verify(productRepository, never()).findAll(any(Specification.class), eq(pageable));
+    }
+
+    @Test
+    void filterProducts_OverloadCalledByController_ShouldRunInReadOnlyTransaction() throws Exception {
+        Method overload = ProductService.class.getMethod("filterProducts", Long.class, BigDecimal.class,
+                BigDecimal.class, String.class, Boolean.class, Collection.class, boolean.class, Pageable.class);
+
+        Transactional transactional = overload.getAnnotation(Transactional.class);
+
+        // lazy associations are mapped inside the method; they must not rely on open-in-view
+        assertThat(transactional).isNotNull();
+        assertThat(transactional.readOnly()).isTrue();
+    }
+
+    @Test
+    void getProductsAfter_ShouldReturnKeysetWindowWithoutCounting() {
+        when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(List.of(buildProduct(1L, "US", true), buildProduct(2L, "US", true), buildProduct(3L, "US", true)));
+
+        CursorPage<ProductResponse> page = productService.getProductsAfter(
+                ProductSortField.BASE_PRICE, Sort.Direction.ASC, null, 2, false);
+
+        assertThat(page.getItems()).extracting(ProductResponse::getId).containsExactly(1L, 2L);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(page.getTotalCount()).isNull();
+        Cursor next = Cursor.decode(page.getNextCursor());
+        assertThat(next.getId()).isEqualTo(2L);
+        assertThat(next.getKey()).isEqualTo("10.00");
+        verify(productRepository, never()).count();
+    }
+
+    @Test
+    void getProductsAfter_WithMalformedCursor_ShouldRejectRequest() {
+        assertThatThrownBy(() -> productService.getProductsAfter(
+                ProductSortField.NAME, Sort.Direction.ASC, "not a cursor", 20, false))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void updateProduct_WithUnchangedRequest_ShouldNotTouchChildrenOrRefreshCatalog() {
+        Product product = buildProduct(1L, "US", true);
+        ProductAvailability usAvailability = product.getProductAvailabilities().iterator().next();
+        when(productRepository.findWithDetailsById(1L)).thenReturn(Optional.of(product));
+
+        ProductResponse response = productService.updateProduct(1L, requestMatching(product, Map.of("us", true)));
+
+        assertThat(response.getAvailability().get("US").getStockQuantity()).isEqualTo(5);
+        assertThat(product.getProductAvailabilities()).containsExactly(usAvailability);
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+        verify(ingredientRepository, never()).findAllById(any());
+        verify(countryRepository, never()).findByCodeIn(any());
+        verify(eventPublisher, never()).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void updateProduct_ShouldUpdateChangedRowsInPlaceAndAddOnlyNewOnes() {
+        Product product = buildProduct(1L, "US", true);
+        ProductAvailability usAvailability = product.getProductAvailabilities().iterator().next();
+        Country kazakhstan = Country.builder().id(2L).code("KZ").name("Kazakhstan").build();
+        when(productRepository.findWithDetailsById(1L)).thenReturn(Optional.of(product));
+        when(countryRepository.findByCodeIn(List.of("KZ"))).thenReturn(List.of(kazakhstan));
+
+        productService.updateProduct(1L, requestMatching(product, Map.of("US", false, "KZ", true)));
+
+        assertThat(product.getProductAvailabilities()).hasSize(2).contains(usAvailability);
+        assertThat(usAvailability.getIsAvailable()).isFalse();
+        assertThat(usAvailability.getStockQuantity()).isEqualTo(5);
+        verify(ingredientRepository, never()).findAllById(any());
+        verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void updateProduct_UnknownModifier_ShouldThrowAndKeepModifiers() {
+        Product product = buildProduct(1L, "US", true);
+        Set<Modifier> modifiers = Set.copyOf(product.getModifiers());
+        ProductRequest request = requestMatching(product, Map.of("US", true));
+        request.setModifierIds(List.of(1L, 99L));
+        when(productRepository.findWithDetailsById(1L)).thenReturn(Optional.of(product));
+        when(modifierRepository.findAllById(Set.of(1L, 99L))).thenReturn(List.copyOf(modifiers));
+
+        assertThatThrownBy(() -> productService.updateProduct(1L, request))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Modifier not found with id: '99'");
+
+        assertThat(product.getModifiers()).containsExactlyInAnyOrderElementsOf(modifiers);
+        verify(eventPublisher, never()).publishEvent(any(CatalogChangedEvent.class));
     }
 
     @Test
     void deleteProduct_WhenProductMissing_ShouldThrowException() {
-        when(productRepository.existsById(99L)).thenReturn(false);
+        when(productRepository.findById(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> productService.deleteProduct(99L))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("Product not found with id: '99'");
 
-        verify(productRepository, never()).deleteById(anyLong());
+        verify(productRepository, never()).delete(any(Product.class));
+        verifyNoInteractions(fileStorage);
+    }
+
+    @Test
+    void deleteProduct_ShouldReleaseImageAndVariants() throws IOException {
+        Product product = productWithImage();
+        when(productRepository.findById(5L)).thenReturn(Optional.of(product));
+
+        productService.deleteProduct(5L);
+
+        verify(productRepository).delete(product);
+        verify(fileStorage).deleteFile("http://cdn/products/old.jpg");
+        verify(fileStorage).deleteFile("http://cdn/products/old-320.jpg");
+        verify(fileStorage).deleteFile("http://cdn/products/old-960.jpg");
+    }
+
+    @Test
+    void updateProductImage_Replacing_ShouldReleasePreviousImageAndVariants() throws IOException {
+        Product product = productWithImage();
+        when(productRepository.findWithDetailsById(5L)).thenReturn(Optional.of(product));
+        when(productRepository.save(product)).thenReturn(product);
+
+        ProductResponse response = productService.updateProductImage(5L, "http://cdn/products/new.jpg");
+
+        assertThat(response.getImageUrl()).isEqualTo("http://cdn/products/new.jpg");
+        assertThat(response.getThumbnailUrl()).isNull();
+        assertThat(response.getMediumUrl()).isNull();
+        verify(fileStorage).deleteFile("http://cdn/products/old.jpg");
+        verify(fileStorage).deleteFile("http://cdn/products/old-320.jpg");
+        verify(fileStorage).deleteFile("http://cdn/products/old-960.jpg");
+        verify(fileStorage, never()).deleteFile("http://cdn/products/new.jpg");
+        verify(eventPublisher).publishEvent(any(ProductImageChangedEvent.class));
+    }
+
+    @Test
+    void updateProductImage_SameImageStoredAgain_ShouldDropOnlyTheExtraReference() throws IOException {
+        Product product = productWithImage();
+        when(productRepository.findWithDetailsById(5L)).thenReturn(Optional.of(product));
+        when(productRepository.save(product)).thenReturn(product);
+
+        ProductResponse response = productService.updateProductImage(5L, "http://cdn/products/old.jpg");
+
+        assertThat(response.getThumbnailUrl()).isEqualTo("http://cdn/products/old-320.jpg");
+        verify(fileStorage).deleteFile("http://cdn/products/old.jpg");
+        verify(fileStorage, never()).deleteFile("http://cdn/products/old-320.jpg");
+        verify(eventPublisher, never()).publishEvent(any(ProductImageChangedEvent.class));
+    }
+
+    private static Product productWithImage() {
+        return Product.builder()
+                .id(5L)
+                .name("Plov")
+                .basePrice(BigDecimal.TEN)
+                .imageUrl("http://cdn/products/old.jpg")
+                .thumbnailUrl("http://cdn/products/old-320.jpg")
+                .mediumUrl("http://cdn/products/old-960.jpg")
+                .build();
+    }
+
+    private ProductRequest requestMatching(Product product, Map<String, Boolean> availability) {
+        ProductRequest request = new ProductRequest();
+        request.setName(product.getName());
+        request.setDescription(product.getDescription());
+        request.setCategoryId(product.getCategory().getId());
+        request.setBasePrice(new BigDecimal("10.0"));
+        request.setIsActive(product.getIsActive());
+
+        ProductIngredientRequest ingredient = new ProductIngredientRequest();
+        ingredient.setIngredientId(product.getId());
+        ingredient.setQuantity("1 unit");
+        request.setIngredients(List.of(ingredient));
+        request.setAvailability(availability);
+        request.setModifierIds(List.of(product.getId()));
+        return request;
     }
 
     private Product buildProduct(Long id, String countryCode, boolean available) {
@@ -0,0 +1,88 @@
+package uz.itpu.teamwork.project.meal.product.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import uz.itpu.teamwork.project.exception.BadRequestException;
+import uz.itpu.teamwork.project.exception.InvalidOperationException;
+import uz.itpu.teamwork.project.meal.catalog.event.CatalogChangedEvent;
+import uz.itpu.teamwork.project.meal.product.repository.ProductStockRepository;
+import uz.itpu.teamwork.project.meal.product.repository.ProductStockRepository.StockLine;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    @Mock
+    private ProductStockRepository productStockRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private StockReservationService stockReservationService;
+
+    @Test
+    void reserve_ShouldSendLinesInProductIdOrder() {
+        List<StockLine> ordered = List.of(new StockLine(3L, 1), new StockLine(7L, 2), new StockLine(9L, 1));
+        when(productStockRepository.reserve("UZ", ordered)).thenReturn(new int[]{1, 1, 1});
+        when(productStockRepository.findSoldOut(eq("UZ"), anyCollection())).thenReturn(List.of());
+
+        stockReservationService.reserve("uz", Map.of(9L, 1, 3L, 1, 7L, 2));
+
+        verify(productStockRepository).reserve("UZ", ordered);
+        verify(eventPublisher, never()).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void reserve_WithShortLine_ShouldThrowNamingTheProduct() {
+        when(productStockRepository.reserve(eq("UZ"), any())).thenReturn(new int[]{1, 0});
+
+        assertThatThrownBy(() -> stockReservationService.reserve("UZ", Map.of(1L, 1, 2L, 5)))
+                .isInstanceOf(InvalidOperationException.class)
+                .hasMessageContaining("[2]");
+        verify(productStockRepository, never()).findSoldOut(any(), any());
+    }
+
+    @Test
+    void reserve_WhenProductSellsOut_ShouldRefreshCatalogForIt() {
+        when(productStockRepository.reserve(eq("UZ"), any())).thenReturn(new int[]{1});
+        when(productStockRepository.findSoldOut(eq("UZ"), anyCollection())).thenReturn(List.of(4L));
+
+        stockReservationService.reserve("UZ", Map.of(4L, 2));
+
+        verify(eventPublisher).publishEvent(argThat((CatalogChangedEvent event) ->
+                event.getType() == CatalogChangedEvent.Type.PRODUCT && Long.valueOf(4L).equals(event.getId())));
+    }
+
+    @Test
+    void reserve_WithoutCountry_ShouldRejectOrder() {
+        assertThatThrownBy(() -> stockReservationService.reserve(null, Map.of(1L, 1)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Country code is required to reserve stock");
+
+        verifyNoInteractions(productStockRepository, eventPublisher);
+    }
+
+    @Test
+    void release_WithoutCountry_ShouldReturnNothing() {
+        stockReservationService.release(null, Map.of(1L, 1));
+
+        verifyNoInteractions(productStockRepository, eventPublisher);
+    }
+}
@@ -0,0 +1,21 @@
+-- Cart tables as Hibernate creates them, for the JDBC-level cart repository tests.
+DROP TABLE IF EXISTS cart_items, carts;
+
+CREATE TABLE carts (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT UNIQUE,
+    session_id VARCHAR(255) UNIQUE,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+CREATE TABLE cart_items (
+    id BIGSERIAL PRIMARY KEY,
+    cart_id BIGINT NOT NULL REFERENCES carts (id),
+    product_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    price_snapshot NUMERIC(10, 2),
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_cart_items_cart_product UNIQUE (cart_id, product_id)
+);
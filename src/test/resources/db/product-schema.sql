@@ -0,0 +1,64 @@
+-- Product tables as Hibernate creates them, for the JDBC-level bulk import tests.
+DROP TABLE IF EXISTS product_modifiers, product_availability, product_ingredients, products,
+    modifiers, ingredients, countries, categories;
+
+CREATE TABLE categories (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE countries (
+    id BIGSERIAL PRIMARY KEY,
+    code VARCHAR(3) NOT NULL UNIQUE
+);
+
+CREATE TABLE ingredients (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE modifiers (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE products (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    category_id BIGINT REFERENCES categories (id),
+    base_price NUMERIC(10, 2) NOT NULL,
+    image_url VARCHAR(500),
+    thumbnail_url VARCHAR(500),
+    medium_url VARCHAR(500),
+    is_active BOOLEAN,
+    rating NUMERIC(2, 1),
+    rating_count INT,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+CREATE TABLE product_ingredients (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL REFERENCES products (id),
+    ingredient_id BIGINT NOT NULL REFERENCES ingredients (id),
+    quantity VARCHAR(50),
+    UNIQUE (product_id, ingredient_id)
+);
+
+CREATE TABLE product_availability (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL REFERENCES products (id),
+    country_id BIGINT NOT NULL REFERENCES countries (id),
+    is_available BOOLEAN,
+    stock_quantity INT,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    UNIQUE (product_id, country_id)
+);
+
+CREATE TABLE product_modifiers (
+    product_id BIGINT NOT NULL REFERENCES products (id),
+    modifier_id BIGINT NOT NULL REFERENCES modifiers (id),
+    PRIMARY KEY (product_id, modifier_id)
+);